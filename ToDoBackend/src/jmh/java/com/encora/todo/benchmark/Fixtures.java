@@ -0,0 +1,63 @@
+package com.encora.todo.benchmark;
+
+import com.encora.todo.domain.Priority;
+import com.encora.todo.domain.Todo;
+import com.encora.todo.repository.InMemoryTodoRepository;
+import com.encora.todo.repository.TodoRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/** Deterministic stores so runs are comparable across releases. */
+final class Fixtures {
+
+    static final String[] WORDS = {
+            "pay", "bills", "groceries", "call", "mom", "review", "report", "fix", "car", "book",
+            "flight", "plan", "sprint", "clean", "garage", "write", "tests", "deploy", "release", "notes"
+    };
+
+    /** Word every filter benchmark searches for; about one title in seven contains it. */
+    static final String NEEDLE = "review";
+
+    private static final int CHUNK = 10_000;
+
+    private Fixtures() {}
+
+    static TodoRepository repository(int size) {
+        return fill(new InMemoryTodoRepository(), size);
+    }
+
+    static <R extends TodoRepository> R fill(R repo, int size) {
+        Random random = new Random(42);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        Priority[] priorities = Priority.values();
+        List<Todo> chunk = new ArrayList<>(CHUNK);
+        for (int i = 0; i < size; i++) {
+            LocalDateTime created = base.plusSeconds(i);
+            boolean done = random.nextInt(10) < 3;
+            LocalDateTime due = random.nextInt(4) == 0 ? null : created.plusHours(random.nextInt(24 * 60));
+            chunk.add(new Todo(null, title(random), "generated row " + i,
+                    priorities[random.nextInt(priorities.length)], due,
+                    done, done ? created.plusMinutes(1 + random.nextInt(600)) : null, created, created, 0));
+            if (chunk.size() == CHUNK) {
+                repo.saveAll(chunk);
+                chunk.clear();
+            }
+        }
+        repo.saveAll(chunk);
+        return repo;
+    }
+
+    static Todo todo(long id) {
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        return new Todo(id, "Review the quarterly report", "Numbers from finance, slides for Monday",
+                Priority.HIGH, now.plusDays(3), true, now.plusHours(2), now, now.plusHours(2), 1);
+    }
+
+    private static String title(Random random) {
+        return WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                + " " + WORDS[random.nextInt(WORDS.length)];
+    }
+}
@@ -0,0 +1,113 @@
+package com.encora.todo.benchmark;
+
+import com.encora.todo.domain.Priority;
+import com.encora.todo.dto.PageResponse;
+import com.encora.todo.dto.TodoResponse;
+import com.encora.todo.repository.ColumnarTodoRepository;
+import com.encora.todo.repository.TodoRepository;
+import com.encora.todo.service.ChangeLog;
+import com.encora.todo.service.ListQueryCache;
+import com.encora.todo.service.ParallelSorter;
+import com.encora.todo.service.TodoServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** {@link TodoServiceImpl#list} across store sizes, sort fields, filter combinations and page depths. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ListBenchmark {
+
+    public enum Filter {
+        NONE(false, false, false),
+        TEXT(true, false, false),
+        PRIORITY(false, true, false),
+        DONE(false, false, true),
+        TEXT_PRIORITY(true, true, false),
+        TEXT_DONE(true, false, true),
+        PRIORITY_DONE(false, true, true),
+        ALL(true, true, true);
+
+        final boolean text;
+        final boolean priority;
+        final boolean done;
+
+        Filter(boolean text, boolean priority, boolean done) {
+            this.text = text;
+            this.priority = priority;
+            this.done = done;
+        }
+    }
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    int storeSize;
+
+    @Param({"CREATION_DATE", "DUE_DATE", "PRIORITY", "DONE"})
+    String sortBy;
+
+    @Param({"asc", "desc"})
+    String sortDir;
+
+    @Param
+    Filter filter;
+
+    @Param({"0", "10", "1000"})
+    int pageNumber;
+
+    @Param({"20"})
+    int pageSize;
+
+    /** Repository storage; {@code -p layout=memory,columnar} compares the two. */
+    @Param({"memory"})
+    String layout;
+
+    /** Sort pool workers; 0 sorts on the calling thread. {@code -p parallelism=0,4} compares the two. */
+    @Param({"0"})
+    int parallelism;
+
+    private ParallelSorter sorter;
+    private TodoServiceImpl service;
+    private String text;
+    private Priority priority;
+    private Boolean done;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // the list cache would turn every invocation after the first into a lookup
+        TodoRepository repo = "columnar".equals(layout)
+                ? Fixtures.fill(new ColumnarTodoRepository(), storeSize)
+                : Fixtures.repository(storeSize);
+        sorter = parallelism > 0 ? new ParallelSorter(parallelism, 10_000) : ParallelSorter.disabled();
+        service = new TodoServiceImpl(repo, new SimpleMeterRegistry(), ListQueryCache.disabled(), new ChangeLog(16), sorter);
+        text = filter.text ? Fixtures.NEEDLE : null;
+        priority = filter.priority ? Priority.HIGH : null;
+        done = filter.done ? Boolean.FALSE : null;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sorter.close();
+    }
+
+    @Benchmark
+    public PageResponse<TodoResponse> list() {
+        return service.list(pageNumber, pageSize, sortBy, sortDir, text, priority, done);
+    }
+}
@@ -0,0 +1,64 @@
+package com.encora.todo.benchmark;
+
+import com.encora.todo.domain.Todo;
+import com.encora.todo.dto.PageResponse;
+import com.encora.todo.dto.TodoResponse;
+import com.encora.todo.mapper.TodoMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Per-row mapping and the Jackson serialization of a whole page response. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MapperBenchmark {
+
+    @Param({"10", "100"})
+    int pageSize;
+
+    private Todo todo;
+    private PageResponse<TodoResponse> page;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        todo = Fixtures.todo(1L);
+        List<TodoResponse> content = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) content.add(TodoMapper.toResponse(Fixtures.todo(i + 1L)));
+        page = new PageResponse<>(content, 0, pageSize, 1_000_000L);
+        // Same date handling as Spring Boot's auto-configured mapper
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    @Benchmark
+    public TodoResponse toResponse() {
+        return TodoMapper.toResponse(todo);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
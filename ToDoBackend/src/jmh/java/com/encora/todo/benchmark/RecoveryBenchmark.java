@@ -0,0 +1,64 @@
+package com.encora.todo.benchmark;
+
+import com.encora.todo.repository.InMemoryTodoRepository;
+import com.encora.todo.repository.StreamSnapshotFormat;
+import com.encora.todo.repository.WalTodoRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cold start of a {@link WalTodoRepository} from a snapshot of {@code storeSize} todos and an empty log: reading
+ * the snapshot, filling the store and building every index, until the repository accepts reads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class RecoveryBenchmark {
+
+    @Param({"1000000"})
+    int storeSize;
+
+    private Path dir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("todo-recovery");
+        new StreamSnapshotFormat().write(dir.resolve("snapshot-000001.dat"),
+                Fixtures.fill(new InMemoryTodoRepository(), storeSize).findAll());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(p);
+        }
+    }
+
+    @Benchmark
+    public long recover() throws IOException {
+        try (WalTodoRepository repo = new WalTodoRepository(dir, new StreamSnapshotFormat(), Long.MAX_VALUE)) {
+            return repo.count();
+        }
+    }
+}
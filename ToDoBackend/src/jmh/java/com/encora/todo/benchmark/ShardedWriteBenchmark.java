@@ -0,0 +1,73 @@
+package com.encora.todo.benchmark;
+
+import com.encora.todo.domain.Priority;
+import com.encora.todo.domain.Todo;
+import com.encora.todo.repository.InMemoryTodoRepository;
+import com.encora.todo.repository.ShardedTodoRepository;
+import com.encora.todo.repository.TodoRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repository writes from one thread per core, against one store ({@code shards=1}) or a sharded one.
+ * Run once per thread count ({@code -t 1}, {@code -t 4}, ...; JMH takes one count per run) to see how
+ * throughput scales; on a single core the shards only add routing overhead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(Threads.MAX)
+public class ShardedWriteBenchmark {
+
+    @Param({"1", "4", "16"})
+    int shards;
+
+    @Param({"100000"})
+    int storeSize;
+
+    private TodoRepository repo;
+    private List<Todo> existing;
+    private Todo fresh;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        repo = Fixtures.fill(shards == 1 ? new InMemoryTodoRepository() : new ShardedTodoRepository(shards), storeSize);
+        existing = repo.findAll();
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        fresh = Todo.builder().title("review benchmark numbers").description("created under contention")
+                .priority(Priority.MEDIUM).createdAt(now).updatedAt(now).build();
+    }
+
+    @Benchmark
+    public Todo create() {
+        return repo.save(fresh);
+    }
+
+    /** Unconditional overwrite of a random todo, so lost compare-and-set races don't skew the count. */
+    @Benchmark
+    public Optional<Todo> update() {
+        Todo target = existing.get(ThreadLocalRandom.current().nextInt(existing.size()));
+        Todo current = repo.findById(target.getId()).orElseThrow();
+        return repo.replace(current, current.toBuilder().done(!current.isDone()).build());
+    }
+}
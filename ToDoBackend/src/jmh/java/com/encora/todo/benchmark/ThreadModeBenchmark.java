@@ -0,0 +1,111 @@
+package com.encora.todo.benchmark;
+
+import com.encora.todo.ToDoBackApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Load test of the running app over HTTP, platform-thread Tomcat pool vs virtual threads. The store is in
+ * WAL mode so every write blocks its request thread until the group-committed fsync; with more clients
+ * than {@code tomcatThreads} the platform pool queues them, virtual threads don't.
+ * Only platform threads run by default, since the project targets Java 17; compare with virtual threads on a
+ * Java 21 JVM: {@code mvn -Pjava21,benchmarks test-compile exec:exec -Djmh.args="ThreadModeBenchmark -p
+ * virtual=false,true"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+public class ThreadModeBenchmark {
+
+    private static final String TODO = "{\"title\":\"load test\",\"priority\":\"MEDIUM\"}";
+
+    /** {@code true} needs Java 21 ({@link com.encora.todo.config.ThreadingConfig} refuses to start otherwise). */
+    @Param({"false"})
+    boolean virtual;
+
+    /** Tomcat's platform pool size; ignored by the virtual-thread executor. */
+    @Param({"16"})
+    int tomcatThreads;
+
+    private Path dir;
+    private ConfigurableApplicationContext app;
+    private HttpClient client;
+    private URI todos;
+    private URI one;
+
+    @Setup
+    public void setUp() throws IOException, InterruptedException {
+        dir = Files.createTempDirectory("todo-threads");
+        app = new SpringApplicationBuilder(ToDoBackApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtual,
+                        "server.tomcat.threads.max=" + tomcatThreads,
+                        "todo.repository.mode=wal",
+                        "todo.repository.wal.dir=" + dir)
+                .run();
+        int port = app.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+        todos = URI.create("http://localhost:" + port + "/api/todos");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        String created = client.send(post(), HttpResponse.BodyHandlers.ofString()).body();
+        one = URI.create(todos + "/" + app.getBean(ObjectMapper.class).readTree(created).get("id").asLong());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        app.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(p);
+        }
+    }
+
+    private HttpRequest post() {
+        return HttpRequest.newBuilder(todos)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(TODO))
+                .build();
+    }
+
+    /** Waits on the WAL fsync inside the request. */
+    @Benchmark
+    public int create() throws IOException, InterruptedException {
+        return client.send(post(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    /** Served from memory; shows what the thread model costs when nothing blocks. */
+    @Benchmark
+    public int get() throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(one).GET().build(), HttpResponse.BodyHandlers.discarding())
+                .statusCode();
+    }
+}
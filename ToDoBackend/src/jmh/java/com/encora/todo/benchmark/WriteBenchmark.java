@@ -0,0 +1,63 @@
+package com.encora.todo.benchmark;
+
+import com.encora.todo.domain.Priority;
+import com.encora.todo.dto.TodoRequest;
+import com.encora.todo.dto.TodoResponse;
+import com.encora.todo.service.TodoServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/** {@code create} and {@code setDone} with several threads hitting the same store. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+public class WriteBenchmark {
+
+    @Param({"10000", "100000"})
+    int storeSize;
+
+    private TodoServiceImpl service;
+    private long firstId;
+    private TodoRequest request;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        // fresh store per iteration so create doesn't measure an ever-growing map
+        service = new TodoServiceImpl(Fixtures.repository(storeSize));
+        firstId = service.list(0, 1, "CREATION_DATE", "asc", null, null, null).getContent().get(0).getId();
+        request = new TodoRequest();
+        request.setTitle("review benchmark numbers");
+        request.setDescription("created under contention");
+        request.setPriority(Priority.MEDIUM);
+    }
+
+    @Benchmark
+    public TodoResponse create() {
+        return service.create(request);
+    }
+
+    @Benchmark
+    public Optional<TodoResponse> setDone() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return service.setDone(firstId + random.nextInt(storeSize), random.nextBoolean());
+    }
+}
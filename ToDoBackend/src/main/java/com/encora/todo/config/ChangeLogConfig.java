@@ -0,0 +1,15 @@
+package com.encora.todo.config;
+
+import com.encora.todo.service.ChangeLog;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ChangeLogConfig {
+
+    /** Shared by the service, which appends every write, and the change-feed endpoints. */
+    @Bean
+    public ChangeLog changeLog(TodoProperties props) {
+        return new ChangeLog(props.getChanges().getBufferSize());
+    }
+}
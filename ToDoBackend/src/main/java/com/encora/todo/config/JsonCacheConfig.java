@@ -0,0 +1,26 @@
+package com.encora.todo.config;
+
+import com.encora.todo.controller.TodoJsonCache;
+import com.encora.todo.controller.TodoPageConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@Configuration
+public class JsonCacheConfig {
+
+    /** {@code todo.json-cache.enabled=false} serializes every listed todo afresh. */
+    @Bean
+    public TodoJsonCache todoJsonCache(TodoProperties props) {
+        TodoProperties.JsonCache cfg = props.getJsonCache();
+        return cfg.isEnabled() ? new TodoJsonCache(cfg.getMaxSize().toBytes()) : TodoJsonCache.disabled();
+    }
+
+    /** Boot puts converter beans ahead of its defaults, so list pages skip the Jackson converter. */
+    @Bean
+    @Profile("!reactive")
+    public TodoPageConverter todoPageConverter(ObjectMapper objectMapper, TodoJsonCache cache) {
+        return new TodoPageConverter(objectMapper, cache);
+    }
+}
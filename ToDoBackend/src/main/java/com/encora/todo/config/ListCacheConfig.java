@@ -0,0 +1,16 @@
+package com.encora.todo.config;
+
+import com.encora.todo.service.ListQueryCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ListCacheConfig {
+
+    /** {@code todo.list-cache.enabled=false} turns caching off; every list then recomputes. */
+    @Bean
+    public ListQueryCache listQueryCache(TodoProperties props) {
+        TodoProperties.ListCache cfg = props.getListCache();
+        return cfg.isEnabled() ? new ListQueryCache(cfg.getMaxRows()) : ListQueryCache.disabled();
+    }
+}
@@ -0,0 +1,57 @@
+package com.encora.todo.config;
+
+import com.encora.todo.controller.TodoJsonCache;
+import com.encora.todo.repository.TodoRepository;
+import com.encora.todo.service.ChangeLog;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /** {@code todo.repository.size} and one {@code todo.repository.index.size} gauge per index. */
+    @Bean
+    public MeterBinder todoRepositoryMetrics(TodoRepository repo) {
+        return registry -> {
+            Gauge.builder("todo.repository.size", repo, TodoRepository::count)
+                    .description("Todos currently stored")
+                    .register(registry);
+            for (String index : repo.indexSizes().keySet()) {
+                Gauge.builder("todo.repository.index.size", repo, r -> r.indexSizes().getOrDefault(index, 0L))
+                        .description("Entries in a repository index")
+                        .tag("index", index)
+                        .register(registry);
+            }
+        };
+    }
+
+    /** {@code todo.changes.subscribers} connected to the change feed and {@code todo.changes.head} sequence. */
+    @Bean
+    public MeterBinder todoChangeMetrics(ChangeLog changes) {
+        return registry -> {
+            Gauge.builder("todo.changes.subscribers", changes, ChangeLog::subscriberCount)
+                    .description("Open change-feed subscriptions")
+                    .register(registry);
+            Gauge.builder("todo.changes.head", changes, ChangeLog::head)
+                    .description("Sequence number of the latest change")
+                    .register(registry);
+        };
+    }
+
+    /** {@code todo.json.cache} hit/miss/eviction counters and the bytes currently cached. */
+    @Bean
+    public MeterBinder todoJsonCacheMetrics(TodoJsonCache cache) {
+        return registry -> {
+            if (!cache.isEnabled()) return;
+            FunctionCounter.builder("todo.json.cache", cache, TodoJsonCache::hits).tag("result", "hit").register(registry);
+            FunctionCounter.builder("todo.json.cache", cache, TodoJsonCache::misses).tag("result", "miss").register(registry);
+            FunctionCounter.builder("todo.json.cache.evictions", cache, TodoJsonCache::evictions).register(registry);
+            Gauge.builder("todo.json.cache.bytes", cache, TodoJsonCache::bytes)
+                    .description("Serialized todos held for list responses, overhead included")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package com.encora.todo.config;
+
+import com.encora.todo.service.ParallelSorter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ParallelSortConfig {
+
+    /** One worker can't run alongside the request thread, so a single core gets no pool at all. */
+    @Bean
+    public ParallelSorter parallelSorter(TodoProperties props) {
+        TodoProperties.ParallelSort cfg = props.getParallelSort();
+        int parallelism = cfg.getParallelism() > 0
+                ? cfg.getParallelism() : Runtime.getRuntime().availableProcessors() / 2;
+        return cfg.isEnabled() && parallelism >= 2
+                ? new ParallelSorter(parallelism, cfg.getThreshold()) : ParallelSorter.disabled();
+    }
+}
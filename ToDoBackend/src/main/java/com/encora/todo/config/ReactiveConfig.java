@@ -0,0 +1,20 @@
+package com.encora.todo.config;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * {@code --spring.profiles.active=reactive}: serve the API from WebFlux. Tomcat is on the classpath for
+ * the servlet default and Boot would prefer it, so ask for Netty and its small pool of event loops.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
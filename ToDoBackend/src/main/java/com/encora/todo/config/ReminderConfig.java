@@ -0,0 +1,18 @@
+package com.encora.todo.config;
+
+import com.encora.todo.service.DueDateReminders;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ReminderConfig {
+
+    /** Ticks on its own daemon thread; the service feeds it every write and turns what fires into change events. */
+    @Bean
+    public DueDateReminders dueDateReminders(TodoProperties props) {
+        TodoProperties.Reminders cfg = props.getReminders();
+        DueDateReminders reminders = new DueDateReminders(cfg.getDueSoon(), cfg.getTick());
+        reminders.start();
+        return reminders;
+    }
+}
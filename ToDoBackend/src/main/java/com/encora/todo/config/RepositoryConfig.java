@@ -0,0 +1,30 @@
+package com.encora.todo.config;
+
+import com.encora.todo.repository.ColumnarTodoRepository;
+import com.encora.todo.repository.InMemoryTodoRepository;
+import com.encora.todo.repository.ShardedTodoRepository;
+import com.encora.todo.repository.StreamSnapshotFormat;
+import com.encora.todo.repository.TodoRepository;
+import com.encora.todo.repository.WalTodoRepository;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(TodoProperties.class)
+public class RepositoryConfig {
+
+    @Bean
+    public TodoRepository todoRepository(TodoProperties props) {
+        TodoProperties.Repository cfg = props.getRepository();
+        int tombstones = props.getSync().getTombstones();
+        return switch (cfg.getMode()) {
+            case WAL -> new WalTodoRepository(cfg.getWal().getDir(), new StreamSnapshotFormat(),
+                    cfg.getWal().getSnapshotAfterRecords(), tombstones);
+            case COLUMNAR -> new ColumnarTodoRepository(tombstones);
+            case MEMORY -> cfg.getShards() > 1
+                    ? new ShardedTodoRepository(cfg.getShards(), tombstones)
+                    : new InMemoryTodoRepository(tombstones);
+        };
+    }
+}
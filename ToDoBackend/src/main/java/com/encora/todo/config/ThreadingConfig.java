@@ -0,0 +1,22 @@
+package com.encora.todo.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * {@code spring.threads.virtual.enabled=true} runs Tomcat request handling (and async work such as the
+ * export stream) on virtual threads. Boot silently ignores the switch below Java 21, which would make a
+ * load test compare platform threads with themselves, so refuse to start instead.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class ThreadingConfig {
+
+    public ThreadingConfig() {
+        int feature = Runtime.version().feature();
+        if (feature < 21) {
+            throw new IllegalStateException("spring.threads.virtual.enabled needs Java 21 but this is Java "
+                    + feature + "; build and run with -Pjava21");
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.encora.todo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "todo")
+public class TodoProperties {
+
+    private final Repository repository = new Repository();
+    private final ListCache listCache = new ListCache();
+    private final JsonCache jsonCache = new JsonCache();
+    private final Changes changes = new Changes();
+    private final Sync sync = new Sync();
+    private final ParallelSort parallelSort = new ParallelSort();
+    private final Reminders reminders = new Reminders();
+
+    public Repository getRepository() { return repository; }
+
+    public ListCache getListCache() { return listCache; }
+
+    public JsonCache getJsonCache() { return jsonCache; }
+
+    public Changes getChanges() { return changes; }
+
+    public Sync getSync() { return sync; }
+
+    public ParallelSort getParallelSort() { return parallelSort; }
+
+    public Reminders getReminders() { return reminders; }
+
+    public static class Reminders {
+        /** How long before its due date an open todo gets a DUE_SOON event. */
+        private Duration dueSoon = Duration.ofHours(1);
+        /** Resolution of the timing wheel; reminders go out up to one tick late. */
+        private Duration tick = Duration.ofSeconds(1);
+
+        public Duration getDueSoon() { return dueSoon; }
+        public void setDueSoon(Duration dueSoon) { this.dueSoon = dueSoon; }
+
+        public Duration getTick() { return tick; }
+        public void setTick(Duration tick) { this.tick = tick; }
+    }
+
+    public static class ParallelSort {
+        /** Off unless set: the pool only pays off with cores to spare beside request handling. */
+        private boolean enabled = false;
+        /** Matches a list query needs before it is sorted on the pool rather than the request thread. */
+        private int threshold = 10_000;
+        /** Pool workers shared by all such queries; 0 means half the cores. Fewer than 2 turns it off. */
+        private int parallelism = 0;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public int getThreshold() { return threshold; }
+        public void setThreshold(int threshold) { this.threshold = threshold; }
+
+        public int getParallelism() { return parallelism; }
+        public void setParallelism(int parallelism) { this.parallelism = parallelism; }
+    }
+
+    public static class Sync {
+        /** Deletes remembered for {@code /sync}; a client last synced before the oldest one gets a full reset. */
+        private int tombstones = 10_000;
+
+        public int getTombstones() { return tombstones; }
+        public void setTombstones(int tombstones) { this.tombstones = tombstones; }
+    }
+
+    public static class Changes {
+        /** Events kept for resuming subscribers; one that falls further behind is told to refetch. */
+        private int bufferSize = 4096;
+
+        public int getBufferSize() { return bufferSize; }
+        public void setBufferSize(int bufferSize) { this.bufferSize = bufferSize; }
+    }
+
+    public static class JsonCache {
+        private boolean enabled = true;
+        /** Budget for the serialized todos spliced into list responses, overhead included. */
+        private DataSize maxSize = DataSize.ofMegabytes(16);
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public DataSize getMaxSize() { return maxSize; }
+        public void setMaxSize(DataSize maxSize) { this.maxSize = maxSize; }
+    }
+
+    public static class ListCache {
+        private boolean enabled = true;
+        /** Budget in cached todo rows across all pages, so a few huge pages can't crowd out memory. */
+        private int maxRows = 100_000;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public int getMaxRows() { return maxRows; }
+        public void setMaxRows(int maxRows) { this.maxRows = maxRows; }
+    }
+
+    public static class Repository {
+        /**
+         * memory: nothing survives a restart; columnar: the same, stored as primitive columns (smaller heap,
+         * timestamps to the millisecond); wal: write-ahead log plus snapshots under {@code wal.dir}.
+         */
+        private Mode mode = Mode.MEMORY;
+        /** memory mode only: stripes todos over shards with their own indexes, so concurrent writes don't share them. */
+        private int shards = 1;
+        private final Wal wal = new Wal();
+
+        public Mode getMode() { return mode; }
+        public void setMode(Mode mode) { this.mode = mode; }
+
+        public int getShards() { return shards; }
+        public void setShards(int shards) { this.shards = shards; }
+
+        public Wal getWal() { return wal; }
+    }
+
+    public enum Mode { MEMORY, COLUMNAR, WAL }
+
+    public static class Wal {
+        private Path dir = Path.of("data");
+        private long snapshotAfterRecords = 50_000;
+
+        public Path getDir() { return dir; }
+        public void setDir(Path dir) { this.dir = dir; }
+
+        public long getSnapshotAfterRecords() { return snapshotAfterRecords; }
+        public void setSnapshotAfterRecords(long snapshotAfterRecords) { this.snapshotAfterRecords = snapshotAfterRecords; }
+    }
+}
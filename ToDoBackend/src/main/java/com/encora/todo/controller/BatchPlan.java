@@ -0,0 +1,84 @@
+package com.encora.todo.controller;
+
+import com.encora.todo.dto.BatchOperation;
+import com.encora.todo.dto.BatchResult;
+import com.encora.todo.dto.TodoRequest;
+import com.encora.todo.exception.BatchTooLargeException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A batch request split into the operations that may be applied and 400 results for the rest.
+ * {@link #merge} puts the service's results back at their original positions.
+ */
+final class BatchPlan {
+
+    static final int MAX_BATCH = 1000;
+
+    private final BatchResult[] results;
+    private final List<BatchOperation> valid = new ArrayList<>();
+    private final List<Integer> positions = new ArrayList<>();
+
+    private BatchPlan(int size) {
+        this.results = new BatchResult[size];
+    }
+
+    static BatchPlan of(List<BatchOperation> operations, Validator validator) {
+        if (operations.size() > MAX_BATCH) {
+            throw new BatchTooLargeException("At most " + MAX_BATCH + " operations per batch");
+        }
+        BatchPlan plan = new BatchPlan(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            String error = validate(operations.get(i), validator);
+            if (error != null) {
+                plan.results[i] = new BatchResult(i, HttpStatus.BAD_REQUEST.value(), null, error);
+            } else {
+                plan.valid.add(operations.get(i));
+                plan.positions.add(i);
+            }
+        }
+        return plan;
+    }
+
+    List<BatchOperation> valid() {
+        return valid;
+    }
+
+    int invalidCount() {
+        return results.length - valid.size();
+    }
+
+    List<BatchResult> merge(List<BatchResult> applied) {
+        for (int j = 0; j < applied.size(); j++) {
+            BatchResult r = applied.get(j);
+            r.setIndex(positions.get(j));
+            results[r.getIndex()] = r;
+        }
+        return Arrays.asList(results);
+    }
+
+    /** Same rules as the single-item endpoints; null when the operation may be applied. */
+    private static String validate(BatchOperation op, Validator validator) {
+        if (op == null || op.getOp() == null) return "op is required";
+        if (op.getOp() != BatchOperation.Type.CREATE && op.getId() == null) return "id is required";
+        return switch (op.getOp()) {
+            case CREATE, UPDATE -> {
+                if (op.getTodo() == null) yield "todo is required";
+                Set<ConstraintViolation<TodoRequest>> violations = validator.validate(op.getTodo());
+                yield violations.isEmpty() ? null : violations.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", "));
+            }
+            case DONE -> op.getDone() == null ? "done is required" : null;
+            case DELETE -> null;
+        };
+    }
+}
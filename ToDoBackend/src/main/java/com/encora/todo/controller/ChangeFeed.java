@@ -0,0 +1,174 @@
+package com.encora.todo.controller;
+
+import com.encora.todo.service.ChangeLog;
+import jakarta.annotation.PreDestroy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servlet side of {@code GET /api/todos/changes}: one {@link SseEmitter} per client, fed from its own
+ * {@link ChangeLog.Subscription}. Sends happen on a fixed sender pool, at most one drain per client at a
+ * time. Clients that fall behind are dropped rather than waited for: one that falls a whole ring behind gets
+ * its reset event and is closed, and one whose send has been blocked for {@link #STALLED_SEND_SECONDS} gets
+ * no more work, its stream ending once the write returns. Idle streams get a comment every
+ * {@link #HEARTBEAT_SECONDS}, which is also how dead connections are noticed.
+ */
+@Component
+@Profile("!reactive")
+public class ChangeFeed {
+
+    static final int MAX_EVENTS_PER_SEND = 256;
+    static final long HEARTBEAT_SECONDS = 15;
+    static final long STALLED_SEND_SECONDS = 30;
+    static final int SENDER_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+    private static final long IDLE = Long.MIN_VALUE;
+
+    private final ChangeLog log;
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders = Executors.newFixedThreadPool(SENDER_THREADS, daemon("todo-sse"));
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(daemon("todo-sse-heartbeat"));
+
+    public ChangeFeed(ChangeLog log) {
+        this.log = log;
+        heartbeat.scheduleAtFixedRate(() -> clients.forEach(Client::heartbeat),
+                HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /** Streams changes after {@code lastEventId}, or from now on when it is null. */
+    public SseEmitter open(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(0L);  // no timeout; heartbeats find dead clients
+        Client client = new Client(emitter);
+        client.subscription = log.subscribe(lastEventId, client::schedule);
+        clients.add(client);
+        emitter.onCompletion(client::close);
+        emitter.onTimeout(client::close);
+        emitter.onError(e -> client.close());
+        client.schedule();
+        return emitter;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeat.shutdownNow();
+        clients.forEach(c -> c.emitter.complete());
+        senders.shutdown();
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    private final class Client {
+        final SseEmitter emitter;
+        ChangeLog.Subscription subscription;
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean heartbeatDue;
+        private volatile boolean closed;
+        /** nanoTime the send in progress started, or IDLE. */
+        private volatile long sendingSince = IDLE;
+        /** Only touched by drains, which never overlap. */
+        private boolean polled;
+
+        Client(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void heartbeat() {
+            long since = sendingSince;
+            if (since != IDLE && System.nanoTime() - since > TimeUnit.SECONDS.toNanos(STALLED_SEND_SECONDS)) {
+                close();
+                return;
+            }
+            heartbeatDue = true;
+            schedule();
+        }
+
+        void schedule() {
+            if (!closed && wip.getAndIncrement() == 0) senders.execute(this::drain);
+        }
+
+        private void drain() {
+            int missed = 1;
+            try {
+                do {
+                    sendAvailable();
+                    missed = wip.addAndGet(-missed);
+                } while (missed != 0);
+            } catch (IOException | IllegalStateException e) {
+                // client went away or the emitter already completed
+                close();
+                return;
+            }
+            if (closed) finish();
+        }
+
+        private void sendAvailable() throws IOException {
+            boolean sent = false;
+            while (!closed) {
+                ChangeLog.Batch batch = subscription.poll(MAX_EVENTS_PER_SEND);
+                boolean first = !polled;
+                polled = true;
+                if (batch.signal() != ChangeLog.Signal.NONE) {
+                    String id = log.eventId(batch.position());
+                    send(SseEmitter.event().name(batch.signal().name().toLowerCase(Locale.ROOT)).id(id).data(id));
+                    sent = true;
+                    // past the first poll a reset means the client fell a whole ring behind; it reconnects
+                    if (batch.signal() == ChangeLog.Signal.RESET && !first) close();
+                    continue;
+                }
+                if (batch.events().isEmpty()) break;
+                for (ChangeLog.Event e : batch.events()) {
+                    send(SseEmitter.event().name("todo").id(log.eventId(e.seq()))
+                            .data(e.change(), MediaType.APPLICATION_JSON));
+                }
+                sent = true;
+            }
+            if (heartbeatDue) {
+                heartbeatDue = false;
+                if (!sent && !closed) send(SseEmitter.event().comment("keep-alive"));
+            }
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) throws IOException {
+            sendingSince = System.nanoTime();
+            try {
+                emitter.send(event);
+            } finally {
+                sendingSince = IDLE;
+            }
+        }
+
+        /** Ends a stream this side dropped; harmless if the emitter already completed. */
+        private void finish() {
+            try {
+                emitter.complete();
+            } catch (IllegalStateException ignored) {
+                // already completed
+            }
+        }
+
+        void close() {
+            if (closed) return;
+            closed = true;
+            clients.remove(this);
+            subscription.close();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.encora.todo.controller;
+
+import com.encora.todo.service.ChangeLog;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reactive side of the change feed: a {@link ChangeLog.Subscription} polled only as far as the client has
+ * requested, so a slow reader applies backpressure to its own position in the log and nothing else.
+ */
+final class ChangeFlux {
+
+    static final int MAX_EVENTS_PER_POLL = 256;
+    static final Duration HEARTBEAT = Duration.ofSeconds(ChangeFeed.HEARTBEAT_SECONDS);
+
+    private ChangeFlux() {}
+
+    static Flux<ServerSentEvent<Object>> of(ChangeLog log, String lastEventId) {
+        Flux<ServerSentEvent<Object>> changes = Flux.create(sink -> {
+            Drain drain = new Drain(log, sink);
+            drain.subscription = log.subscribe(lastEventId, drain::schedule);
+            sink.onRequest(n -> drain.schedule());
+            sink.onDispose(drain.subscription::close);
+        });
+        Flux<ServerSentEvent<Object>> heartbeats = Flux.interval(HEARTBEAT)
+                .map(i -> ServerSentEvent.builder().comment("keep-alive").build());
+        return Flux.merge(changes, heartbeats);
+    }
+
+    private static final class Drain {
+        private final ChangeLog log;
+        private final FluxSink<ServerSentEvent<Object>> sink;
+        private final AtomicInteger wip = new AtomicInteger();
+        ChangeLog.Subscription subscription;
+
+        Drain(ChangeLog log, FluxSink<ServerSentEvent<Object>> sink) {
+            this.log = log;
+            this.sink = sink;
+        }
+
+        void schedule() {
+            if (wip.getAndIncrement() != 0) return;
+            int missed = 1;
+            do {
+                emitRequested();
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void emitRequested() {
+            long requested;
+            while (!sink.isCancelled() && (requested = sink.requestedFromDownstream()) > 0) {
+                ChangeLog.Batch batch = subscription.poll((int) Math.min(requested, MAX_EVENTS_PER_POLL));
+                if (batch.signal() != ChangeLog.Signal.NONE) {
+                    String id = log.eventId(batch.position());
+                    sink.next(ServerSentEvent.builder().event(batch.signal().name().toLowerCase(Locale.ROOT)).id(id).data(id).build());
+                    continue;
+                }
+                if (batch.events().isEmpty()) return;
+                for (ChangeLog.Event e : batch.events()) {
+                    sink.next(ServerSentEvent.builder().event("todo").id(log.eventId(e.seq())).data(e.change()).build());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.encora.todo.controller;
+
+import com.encora.todo.exception.NotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+
+/**
+ * Counts validation failures and not-found lookups. Runs ahead of the regular resolvers and never
+ * handles anything itself, so responses are unchanged.
+ */
+@Component
+public class ErrorMetrics implements HandlerExceptionResolver, Ordered {
+
+    private final MeterRegistry registry;
+    private final Counter notFound;
+
+    public ErrorMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.notFound = Counter.builder("todo.not.found")
+                .description("Requests for todos that do not exist")
+                .register(registry);
+    }
+
+    /** {@code source} is request, batch or import; batch and import report per-item failures. */
+    public void validationFailed(String source, long count) {
+        if (count <= 0) return;
+        Counter.builder("todo.validation.failures")
+                .description("Rejected todo payloads")
+                .tag("source", source)
+                .register(registry)
+                .increment(count);
+    }
+
+    @Override
+    public ModelAndView resolveException(HttpServletRequest request, HttpServletResponse response,
+                                         Object handler, Exception ex) {
+        if (ex instanceof NotFoundException) {
+            notFound.increment();
+        } else if (ex instanceof MethodArgumentNotValidException || ex instanceof HandlerMethodValidationException) {
+            validationFailed("request", 1);
+        }
+        return null;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
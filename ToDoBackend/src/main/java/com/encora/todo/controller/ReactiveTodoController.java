@@ -0,0 +1,206 @@
+package com.encora.todo.controller;
+
+import com.encora.todo.domain.Priority;
+import com.encora.todo.dto.BatchOperation;
+import com.encora.todo.dto.BatchResult;
+import com.encora.todo.dto.CompletionMetricsResponse;
+import com.encora.todo.dto.PageResponse;
+import com.encora.todo.dto.SyncResponse;
+import com.encora.todo.dto.TodoRequest;
+import com.encora.todo.dto.TodoResponse;
+import com.encora.todo.exception.NotFoundException;
+import com.encora.todo.exception.VersionConflictException;
+import com.encora.todo.service.ChangeLog;
+import com.encora.todo.service.ReactiveTodoService;
+import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * {@link TodoController}'s API on WebFlux, active with the {@code reactive} profile. Export bodies, and
+ * lists asked for as NDJSON, are {@link Flux}es written as they are produced, so a slow client holds no
+ * thread while it reads. Bulk import is not served in this profile: {@link TodoController}, which has
+ * it, is inactive here.
+ */
+@RestController
+@RequestMapping("/api/todos")
+@Profile("reactive")
+public class ReactiveTodoController {
+
+    static final String TOTAL_COUNT = "X-Total-Count";
+    static final String NEXT_CURSOR = "X-Next-Cursor";
+
+    private final ReactiveTodoService service;
+    private final Validator validator;
+    private final ErrorMetrics errorMetrics;
+    private final ChangeLog changeLog;
+
+    public ReactiveTodoController(ReactiveTodoService service, Validator validator, ErrorMetrics errorMetrics,
+                                  ChangeLog changeLog) {
+        this.service = service;
+        this.validator = validator;
+        this.errorMetrics = errorMetrics;
+        this.changeLog = changeLog;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<TodoResponse> create(@Valid @RequestBody TodoRequest request) {
+        return service.create(request);
+    }
+
+    /** WebFlux answers 304 itself when a GET response's ETag matches If-None-Match. */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<TodoResponse>> get(@PathVariable Long id) {
+        return service.getById(id)
+                .switchIfEmpty(notFound(id))
+                .map(todo -> ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(TodoETags.of(service.epoch(), todo)).body(todo));
+    }
+
+    /** The same {@link PageResponse} envelope and tag as {@link TodoController#list}. */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<PageResponse<TodoResponse>>> list(
+            @RequestParam(defaultValue = "0") int pageNumber,
+            @RequestParam(defaultValue = "10") int pageSize,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String text,
+            @RequestParam(required = false) Priority priority,
+            @RequestParam(required = false) Boolean done,
+            @RequestParam(required = false) String cursor,
+            ServerWebExchange exchange
+    ) {
+        String etag = TodoETags.ofList(service.dataVersion(), pageNumber, pageSize, sortBy, sortDir,
+                text, priority, done, cursor);
+        if (exchange.checkNotModified(etag)) return Mono.empty();
+        return page(pageNumber, pageSize, sortBy, sortDir, text, priority, done, cursor)
+                .map(p -> ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(etag).body(p));
+    }
+
+    /** One todo per line with {@code Accept: application/x-ndjson}; the paging totals go in headers. */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ResponseEntity<Flux<TodoResponse>>> listNdjson(
+            @RequestParam(defaultValue = "0") int pageNumber,
+            @RequestParam(defaultValue = "10") int pageSize,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String text,
+            @RequestParam(required = false) Priority priority,
+            @RequestParam(required = false) Boolean done,
+            @RequestParam(required = false) String cursor,
+            ServerWebExchange exchange
+    ) {
+        String etag = TodoETags.ofList(service.dataVersion(), pageNumber, pageSize, sortBy, sortDir,
+                text, priority, done, cursor);
+        if (exchange.checkNotModified(etag)) return Mono.empty();
+        return page(pageNumber, pageSize, sortBy, sortDir, text, priority, done, cursor).map(p -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .eTag(etag)
+                    .header(TOTAL_COUNT, Long.toString(p.getTotalElements()));
+            if (p.getNextCursor() != null) response.header(NEXT_CURSOR, p.getNextCursor());
+            return response.body(Flux.fromIterable(p.getContent()));
+        });
+    }
+
+    private Mono<PageResponse<TodoResponse>> page(int pageNumber, int pageSize, String sortBy, String sortDir,
+                                                  String text, Priority priority, Boolean done, String cursor) {
+        return cursor != null
+                ? service.listAfter(cursor, pageSize, sortBy, sortDir, text, priority, done)
+                : service.list(pageNumber, pageSize, sortBy, sortDir, text, priority, done);
+    }
+
+    @GetMapping(path = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TodoResponse> export(
+            @RequestParam(required = false) String text,
+            @RequestParam(required = false) Priority priority,
+            @RequestParam(required = false) Boolean done
+    ) {
+        return service.export(text, priority, done);
+    }
+
+    /** Same events and resume rules as {@link TodoController#changes}. */
+    @GetMapping(path = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> changes(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(value = "lastEventId", required = false) String resumeFrom) {
+        return ChangeFlux.of(changeLog, lastEventId != null ? lastEventId : resumeFrom);
+    }
+
+    @PostMapping("/batch")
+    public Mono<List<BatchResult>> batch(@RequestBody List<BatchOperation> operations) {
+        BatchPlan plan = BatchPlan.of(operations, validator);
+        errorMetrics.validationFailed("batch", plan.invalidCount());
+        return service.applyBatch(plan.valid()).map(plan::merge);
+    }
+
+    /**
+     * Delta since modification sequence {@code since} (the last {@code highWater}). 0, a position from
+     * before a restart, or one older than the retained tombstones answers with {@code reset} and the first
+     * page of every todo; {@code after} (the last {@code resumeAfter}) fetches the next.
+     */
+    @GetMapping("/sync")
+    public Mono<SyncResponse> sync(@RequestParam(defaultValue = "0") long since,
+                                   @RequestParam(required = false) Long after,
+                                   @RequestParam(defaultValue = "500") int limit) {
+        return service.sync(since, after, limit);
+    }
+
+    /** Open todos past their due date, longest overdue first, read off the reminder wheel. */
+    @GetMapping("/overdue")
+    public Flux<TodoResponse> overdue(@RequestParam(defaultValue = "100") int limit) {
+        return service.overdue(limit);
+    }
+
+    @GetMapping("/metrics")
+    public Mono<CompletionMetricsResponse> metrics() {
+        return service.completionMetrics();
+    }
+
+    /** Same If-Match and body-version rules as {@link TodoController#update}. */
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<TodoResponse>> update(@PathVariable Long id, @Valid @RequestBody TodoRequest request,
+                                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expected = ifMatch == null ? request.getVersion() : TodoETags.expectedVersion(service.epoch(), id, ifMatch);
+        return tagged(id, ifMatch, service.update(id, request, expected));
+    }
+
+    @PatchMapping("/{id}/done")
+    public Mono<ResponseEntity<TodoResponse>> setDone(@PathVariable Long id, @RequestParam boolean done,
+                                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expected = ifMatch == null ? null : TodoETags.expectedVersion(service.epoch(), id, ifMatch);
+        return tagged(id, ifMatch, service.setDone(id, done, expected));
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> delete(@PathVariable Long id) {
+        return service.delete(id)
+                .filter(Boolean::booleanValue)
+                .switchIfEmpty(notFound(id))
+                .then();
+    }
+
+    private Mono<ResponseEntity<TodoResponse>> tagged(Long id, String ifMatch, Mono<TodoResponse> write) {
+        return write
+                .onErrorMap(VersionConflictException.class, e -> TodoETags.translate(ifMatch, e))
+                .switchIfEmpty(notFound(id))
+                .map(todo -> ResponseEntity.ok().eTag(TodoETags.of(service.epoch(), todo)).body(todo));
+    }
+
+    private static <T> Mono<T> notFound(Long id) {
+        return Mono.error(() -> new NotFoundException("Todo " + id + " not found"));
+    }
+}
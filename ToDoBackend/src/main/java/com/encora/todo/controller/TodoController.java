@@ -1,23 +1,64 @@
 package com.encora.todo.controller;
 
 import com.encora.todo.domain.Priority;
+import com.encora.todo.dto.BatchOperation;
+import com.encora.todo.dto.BatchResult;
+import com.encora.todo.dto.CompletionMetricsResponse;
+import com.encora.todo.dto.ImportReport;
 import com.encora.todo.dto.PageResponse;
+import com.encora.todo.dto.SyncResponse;
 import com.encora.todo.dto.TodoRequest;
 import com.encora.todo.dto.TodoResponse;
 import com.encora.todo.exception.NotFoundException;
+import com.encora.todo.service.TodoImporter;
 import com.encora.todo.service.TodoService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/** Servlet endpoints; the {@code reactive} profile swaps in {@link ReactiveTodoController}. */
 @RestController
 @RequestMapping("/api/todos")
+@Profile("!reactive")
 public class TodoController {
 
+    static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final TodoService service;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TodoImporter importer;
+    private final ErrorMetrics errorMetrics;
+    private final ChangeFeed changeFeed;
 
-    public TodoController(TodoService service) {
+    public TodoController(TodoService service, Validator validator, ObjectMapper objectMapper,
+                          TodoImporter importer, ErrorMetrics errorMetrics, ChangeFeed changeFeed) {
         this.service = service;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.importer = importer;
+        this.errorMetrics = errorMetrics;
+        this.changeFeed = changeFeed;
     }
 
     @PostMapping
@@ -27,31 +68,137 @@ public class TodoController {
     }
 
     @GetMapping("/{id}")
-    public TodoResponse get(@PathVariable Long id) {
-        return service.getById(id).orElseThrow(() -> new NotFoundException("Todo " + id + " not found"));
+    public ResponseEntity<TodoResponse> get(@PathVariable Long id, WebRequest request) {
+        TodoResponse todo = service.getById(id).orElseThrow(() -> new NotFoundException("Todo " + id + " not found"));
+        String etag = TodoETags.of(service.epoch(), todo);
+        if (request.checkNotModified(etag)) return null;
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(etag).body(todo);
     }
 
+    /** Tagged with the data version plus a digest of the query; a match skips the query. */
     @GetMapping
-    public PageResponse<TodoResponse> list(
+    public ResponseEntity<PageResponse<TodoResponse>> list(
             @RequestParam(defaultValue = "0") int pageNumber,
             @RequestParam(defaultValue = "10") int pageSize,
             @RequestParam(defaultValue = "createdAt") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String text,
+            @RequestParam(required = false) Priority priority,
+            @RequestParam(required = false) Boolean done,
+            @RequestParam(required = false) String cursor,
+            WebRequest request
+    ) {
+        String etag = TodoETags.ofList(service.dataVersion(), pageNumber, pageSize, sortBy, sortDir,
+                text, priority, done, cursor);
+        if (request.checkNotModified(etag)) return null;
+        PageResponse<TodoResponse> page = cursor != null
+                ? service.listAfter(cursor, pageSize, sortBy, sortDir, text, priority, done)
+                : service.list(pageNumber, pageSize, sortBy, sortDir, text, priority, done);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(etag).body(page);
+    }
+
+    /** One JSON object per line, written as the repository iterator produces them. */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
             @RequestParam(required = false) String text,
             @RequestParam(required = false) Priority priority,
             @RequestParam(required = false) Boolean done
     ) {
-        return service.list(pageNumber, pageSize, sortBy, sortDir, text, priority, done);
+        StreamingResponseBody body = out -> {
+            ObjectWriter writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            BufferedOutputStream buffered = new BufferedOutputStream(out, 8192);
+            try (Stream<TodoResponse> todos = service.export(text, priority, done)) {
+                for (Iterator<TodoResponse> it = todos.iterator(); it.hasNext(); ) {
+                    writer.writeValue(buffered, it.next());
+                    buffered.write('\n');
+                }
+            }
+            buffered.flush();
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    /**
+     * Server-sent events: a {@code todo} event per write, carrying the change and the todo after it.
+     * Reconnecting with {@code Last-Event-ID} (or {@code lastEventId} where headers can't be set) resumes
+     * after that event; a {@code reset} event means it was too old and the client should refetch.
+     */
+    @GetMapping(path = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changes(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                              @RequestParam(value = "lastEventId", required = false) String resumeFrom) {
+        return changeFeed.open(lastEventId != null ? lastEventId : resumeFrom);
+    }
+
+    /** Reads the body incrementally; per-line failures are reported, not fatal. */
+    @PostMapping(path = "/import", consumes = "application/x-ndjson")
+    public ImportReport importNdjson(InputStream body) {
+        return counted(importer.importNdjson(new InputStreamReader(body, StandardCharsets.UTF_8)));
+    }
+
+    @PostMapping(path = "/import", consumes = "text/csv")
+    public ImportReport importCsv(InputStream body) {
+        return counted(importer.importCsv(new InputStreamReader(body, StandardCharsets.UTF_8)));
+    }
+
+    private ImportReport counted(ImportReport report) {
+        errorMetrics.validationFailed("import", report.getFailed());
+        return report;
+    }
+
+    /**
+     * Runs create/update/done/delete operations in one request. Invalid items get a 400 result
+     * and are skipped; the rest are written through the repository as a single batch.
+     */
+    @PostMapping("/batch")
+    public List<BatchResult> batch(@RequestBody List<BatchOperation> operations) {
+        BatchPlan plan = BatchPlan.of(operations, validator);
+        errorMetrics.validationFailed("batch", plan.invalidCount());
+        return plan.merge(service.applyBatch(plan.valid()));
+    }
+
+    /**
+     * Delta since modification sequence {@code since} (the last {@code highWater}). 0, a position from
+     * before a restart, or one older than the retained tombstones answers with {@code reset} and the first
+     * page of every todo; {@code after} (the last {@code resumeAfter}) fetches the next.
+     */
+    @GetMapping("/sync")
+    public SyncResponse sync(@RequestParam(defaultValue = "0") long since,
+                             @RequestParam(required = false) Long after,
+                             @RequestParam(defaultValue = "500") int limit) {
+        return service.sync(since, after, limit);
+    }
+
+    /** Open todos past their due date, longest overdue first, read off the reminder wheel. */
+    @GetMapping("/overdue")
+    public List<TodoResponse> overdue(@RequestParam(defaultValue = "100") int limit) {
+        return service.overdue(limit);
+    }
+
+    @GetMapping("/metrics")
+    public CompletionMetricsResponse metrics() {
+        return service.completionMetrics();
     }
 
+    /**
+     * Optimistic update: an {@code If-Match} ETag or a {@code version} in the body pins the version the
+     * client read. A stale If-Match is 412 Precondition Failed, a stale body version 409 Conflict.
+     */
     @PutMapping("/{id}")
-    public TodoResponse update(@PathVariable Long id, @Valid @RequestBody TodoRequest request) {
-        return service.update(id, request).orElseThrow(() -> new NotFoundException("Todo " + id + " not found"));
+    public ResponseEntity<TodoResponse> update(@PathVariable Long id, @Valid @RequestBody TodoRequest request,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expected = ifMatch == null ? request.getVersion() : TodoETags.expectedVersion(service.epoch(), id, ifMatch);
+        TodoResponse todo = TodoETags.precondition(ifMatch, () -> service.update(id, request, expected))
+                .orElseThrow(() -> new NotFoundException("Todo " + id + " not found"));
+        return ResponseEntity.ok().eTag(TodoETags.of(service.epoch(), todo)).body(todo);
     }
 
     @PatchMapping("/{id}/done")
-    public TodoResponse setDone(@PathVariable Long id, @RequestParam boolean done) {
-        return service.setDone(id, done).orElseThrow(() -> new NotFoundException("Todo " + id + " not found"));
+    public ResponseEntity<TodoResponse> setDone(@PathVariable Long id, @RequestParam boolean done,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expected = ifMatch == null ? null : TodoETags.expectedVersion(service.epoch(), id, ifMatch);
+        TodoResponse todo = TodoETags.precondition(ifMatch, () -> service.setDone(id, done, expected))
+                .orElseThrow(() -> new NotFoundException("Todo " + id + " not found"));
+        return ResponseEntity.ok().eTag(TodoETags.of(service.epoch(), todo)).body(todo);
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,79 @@
+package com.encora.todo.controller;
+
+import com.encora.todo.dto.TodoResponse;
+import com.encora.todo.exception.PreconditionFailedException;
+import com.encora.todo.exception.VersionConflictException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/** Entity tags and If-Match handling shared by the servlet and reactive controllers. */
+final class TodoETags {
+
+    private TodoETags() {}
+
+    /**
+     * Every write bumps the version, so (epoch, id, version) identifies one representation of a todo.
+     * The epoch is the service's, the same one that starts its data versions.
+     */
+    static String of(String epoch, TodoResponse todo) {
+        return "\"" + epoch + "-" + todo.getId() + "-" + todo.getVersion() + "\"";
+    }
+
+    /**
+     * Tag for a list query: the data version plus a digest of the query. Callers read the version
+     * before running the query, so a tag never claims a newer state than the body.
+     */
+    static String ofList(String dataVersion, Object... params) {
+        return "\"" + dataVersion + "-" + digest(params) + "\"";
+    }
+
+    /**
+     * Version named by an If-Match header, or null for {@code *}. Only strong tags for this todo from
+     * this process can match (RFC 9110 13.1.1), so anything else fails the precondition outright.
+     */
+    static Long expectedVersion(String epoch, Long id, String ifMatch) {
+        String tag = ifMatch.trim();
+        if (tag.equals("*")) return null;
+        String prefix = "\"" + epoch + "-" + id + "-";
+        if (tag.startsWith(prefix) && tag.endsWith("\"") && tag.length() > prefix.length() + 1) {
+            try {
+                return Long.parseLong(tag.substring(prefix.length(), tag.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // falls through to 412
+            }
+        }
+        throw new PreconditionFailedException("If-Match " + tag + " does not match todo " + id);
+    }
+
+    /** A version conflict is a failed precondition when the version came from If-Match. */
+    static RuntimeException translate(String ifMatch, RuntimeException e) {
+        if (ifMatch != null && e instanceof VersionConflictException) {
+            return new PreconditionFailedException(e.getMessage());
+        }
+        return e;
+    }
+
+    static <T> T precondition(String ifMatch, Supplier<T> write) {
+        try {
+            return write.get();
+        } catch (VersionConflictException e) {
+            throw translate(ifMatch, e);
+        }
+    }
+
+    /** 64 bits of SHA-256 over the request parameters; collisions would serve one query's 304 to another. */
+    private static String digest(Object... params) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(Arrays.toString(params).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
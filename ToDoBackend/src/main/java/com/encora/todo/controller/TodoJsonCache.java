@@ -0,0 +1,90 @@
+package com.encora.todo.controller;
+
+import com.encora.todo.dto.TodoResponse;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serialized JSON of recently listed todos, keyed by id, in an LRU bounded by total bytes. Every write bumps a
+ * todo's version and updatedAt, so a fragment cached at the same pair is exactly what Jackson would write now;
+ * an older one is replaced on the next lookup. Fragments are shared and must not be modified.
+ */
+public class TodoJsonCache {
+
+    /** Rough heap cost of an entry beyond its bytes: map node, record, array header. */
+    static final int ENTRY_OVERHEAD = 96;
+
+    private record Fragment(long version, LocalDateTime updatedAt, byte[] json) {
+        int weight() {
+            return json.length + ENTRY_OVERHEAD;
+        }
+    }
+
+    private final long maxBytes;
+    private final LinkedHashMap<Long, Fragment> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long bytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TodoJsonCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /** Never stores anything; every todo is serialized afresh. */
+    public static TodoJsonCache disabled() {
+        return new TodoJsonCache(0);
+    }
+
+    public boolean isEnabled() {
+        return maxBytes > 0;
+    }
+
+    /** {@code todo} as JSON, from the cache when it hasn't been written since, otherwise through {@code writer}. */
+    byte[] json(TodoResponse todo, ObjectWriter writer) throws IOException {
+        if (!isEnabled() || todo.getId() == null) return writer.writeValueAsBytes(todo);
+        synchronized (this) {
+            Fragment f = entries.get(todo.getId());
+            if (f != null && f.version() == todo.getVersion() && Objects.equals(f.updatedAt(), todo.getUpdatedAt())) {
+                hits.increment();
+                return f.json();
+            }
+        }
+        misses.increment();
+        // serialized outside the lock; two racing misses both serialize and the later one wins
+        Fragment f = new Fragment(todo.getVersion(), todo.getUpdatedAt(), writer.writeValueAsBytes(todo));
+        if (f.weight() <= maxBytes) {
+            synchronized (this) {
+                Fragment prev = entries.put(todo.getId(), f);
+                if (prev != null) bytes -= prev.weight();
+                bytes += f.weight();
+                evictOverBudget();
+            }
+        }
+        return f.json();
+    }
+
+    private void evictOverBudget() {
+        Iterator<Map.Entry<Long, Fragment>> it = entries.entrySet().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            bytes -= it.next().getValue().weight();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    public long hits() { return hits.sum(); }
+    public long misses() { return misses.sum(); }
+    public long evictions() { return evictions.sum(); }
+
+    public synchronized int size() { return entries.size(); }
+    public synchronized long bytes() { return bytes; }
+}
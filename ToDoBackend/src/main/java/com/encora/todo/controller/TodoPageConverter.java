@@ -0,0 +1,85 @@
+package com.encora.todo.controller;
+
+import com.encora.todo.dto.PageResponse;
+import com.encora.todo.dto.TodoResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes list pages ({@code PageResponse<TodoResponse>}) straight to the response stream, splicing each todo's
+ * JSON from {@link TodoJsonCache} into the page envelope, so only todos written since they were last listed go
+ * through Jackson. The bytes are the ones the Jackson converter would write for the same page.
+ */
+public class TodoPageConverter extends AbstractGenericHttpMessageConverter<PageResponse<TodoResponse>> {
+
+    private static final byte[] OPEN = "{\"content\":[".getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectWriter writer;
+    private final TodoJsonCache cache;
+
+    public TodoPageConverter(ObjectMapper objectMapper, TodoJsonCache cache) {
+        super(MediaType.APPLICATION_JSON);
+        this.writer = objectMapper.writer();
+        this.cache = cache;
+    }
+
+    /** Only when the declared type says what the page holds; a raw {@code PageResponse} goes to Jackson. */
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return type instanceof ParameterizedType p && p.getRawType() == PageResponse.class
+                && p.getActualTypeArguments()[0] == TodoResponse.class && canWrite(mediaType);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected void writeInternal(PageResponse<TodoResponse> page, Type type, HttpOutputMessage outputMessage)
+            throws IOException {
+        OutputStream out = outputMessage.getBody();
+        out.write(OPEN);
+        List<TodoResponse> content = page.getContent();
+        for (int i = 0; i < content.size(); i++) {
+            if (i > 0) out.write(',');
+            out.write(cache.json(content.get(i), writer));
+        }
+        String rest = "],\"pageNumber\":" + page.getPageNumber()
+                + ",\"pageSize\":" + page.getPageSize()
+                + ",\"totalElements\":" + page.getTotalElements()
+                + ",\"totalPages\":" + page.getTotalPages()
+                + ",\"nextCursor\":";
+        out.write(rest.getBytes(StandardCharsets.UTF_8));
+        out.write(writer.writeValueAsBytes(page.getNextCursor()));
+        out.write('}');
+    }
+
+    @Override
+    public PageResponse<TodoResponse> read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Pages are only written", inputMessage);
+    }
+
+    @Override
+    protected PageResponse<TodoResponse> readInternal(Class<? extends PageResponse<TodoResponse>> clazz,
+                                                      HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Pages are only written", inputMessage);
+    }
+}
@@ -1,5 +1,29 @@
 package com.encora.todo.domain;
 
+import java.util.function.Function;
+
 public enum SortField{
-    CREATION_DATE, DUE_DATE, PRIORITY, DONE
+    CREATION_DATE(Todo::getCreatedAt),
+    DUE_DATE(Todo::getDueDate),
+    PRIORITY(Todo::getPriority),
+    DONE(Todo::isDone);
+
+    private final Function<Todo, Comparable<?>> key;
+
+    SortField(Function<Todo, Comparable<?>> key) {
+        this.key = key;
+    }
+
+    /** Value this field sorts on; may be null (nulls sort last in ascending order). */
+    public Comparable<?> keyOf(Todo todo) {
+        return key.apply(todo);
+    }
+
+    /** Natural order with nulls last, as used by the repository's sort indexes and page cursors. */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static int compareKeys(Comparable<?> a, Comparable<?> b) {
+        if (a == null) return b == null ? 0 : 1;
+        if (b == null) return -1;
+        return ((Comparable) a).compareTo(b);
+    }
 }
@@ -4,22 +4,34 @@ package com.encora.todo.domain;
 import java.time.LocalDateTime;
 import java.util.Objects;
 
-public class Todo {
-    private Long id;
-    private String title;
-    private String description;
-    private Priority priority;
-    private LocalDateTime dueDate;
-    private boolean done;
-    private LocalDateTime doneDate;
-    private LocalDateTime createdAt;
-    private LocalDateTime updatedAt;
-
-    public Todo() {}
+/**
+ * Immutable snapshot of a todo. Changes produce a new instance (see {@link #toBuilder()}) that the
+ * repository swaps in only if the stored version is still the one the change was based on.
+ */
+public final class Todo {
+    private final Long id;
+    private final String title;
+    private final String description;
+    private final Priority priority;
+    private final LocalDateTime dueDate;
+    private final boolean done;
+    private final LocalDateTime doneDate;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+    /** 0 until first stored, then bumped by one on every successful replace. */
+    private final long version;
+    /** Repository-wide sequence of the write that stored this instance; 0 until stored, not persisted. */
+    private final long modSeq;
 
     public Todo(Long id, String title, String description, Priority priority,
                 LocalDateTime dueDate, boolean done, LocalDateTime doneDate,
-                LocalDateTime createdAt, LocalDateTime updatedAt) {
+                LocalDateTime createdAt, LocalDateTime updatedAt, long version) {
+        this(id, title, description, priority, dueDate, done, doneDate, createdAt, updatedAt, version, 0);
+    }
+
+    public Todo(Long id, String title, String description, Priority priority,
+                LocalDateTime dueDate, boolean done, LocalDateTime doneDate,
+                LocalDateTime createdAt, LocalDateTime updatedAt, long version, long modSeq) {
         this.id = id;
         this.title = title;
         this.description = description;
@@ -29,36 +41,43 @@ public class Todo {
         this.doneDate = doneDate;
         this.createdAt = createdAt;
         this.updatedAt = updatedAt;
+        this.version = version;
+        this.modSeq = modSeq;
+    }
+
+    public static Builder builder() { return new Builder(); }
+
+    public Builder toBuilder() {
+        return new Builder().id(id).title(title).description(description).priority(priority)
+                .dueDate(dueDate).done(done).doneDate(doneDate).createdAt(createdAt).updatedAt(updatedAt)
+                .version(version).modSeq(modSeq);
     }
 
-    // Getters/Setters
+    public Todo withId(Long id) { return toBuilder().id(id).build(); }
+
+    // Getters
 
     public Long getId() { return id; }
-    public void setId(Long id) { this.id = id; }
 
     public String getTitle() { return title; }
-    public void setTitle(String title) { this.title = title; }
 
     public String getDescription() { return description; }
-    public void setDescription(String description) { this.description = description; }
 
     public Priority getPriority() { return priority; }
-    public void setPriority(Priority priority) { this.priority = priority; }
 
     public LocalDateTime getDueDate() { return dueDate; }
-    public void setDueDate(LocalDateTime dueDate) { this.dueDate = dueDate; }
 
     public boolean isDone() { return done; }
-    public void setDone(boolean done) { this.done = done; }
 
     public LocalDateTime getDoneDate() { return doneDate; }
-    public void setDoneDate(LocalDateTime doneDate) { this.doneDate = doneDate; }
 
     public LocalDateTime getCreatedAt() { return createdAt; }
-    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
     public LocalDateTime getUpdatedAt() { return updatedAt; }
-    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public long getVersion() { return version; }
+
+    public long getModSeq() { return modSeq; }
 
     @Override
     public boolean equals(Object o) {
@@ -70,4 +89,36 @@ public class Todo {
 
     @Override
     public int hashCode() { return Objects.hash(id); }
+
+    public static final class Builder {
+        private Long id;
+        private String title;
+        private String description;
+        private Priority priority;
+        private LocalDateTime dueDate;
+        private boolean done;
+        private LocalDateTime doneDate;
+        private LocalDateTime createdAt;
+        private LocalDateTime updatedAt;
+        private long version;
+        private long modSeq;
+
+        private Builder() {}
+
+        public Builder id(Long id) { this.id = id; return this; }
+        public Builder title(String title) { this.title = title; return this; }
+        public Builder description(String description) { this.description = description; return this; }
+        public Builder priority(Priority priority) { this.priority = priority; return this; }
+        public Builder dueDate(LocalDateTime dueDate) { this.dueDate = dueDate; return this; }
+        public Builder done(boolean done) { this.done = done; return this; }
+        public Builder doneDate(LocalDateTime doneDate) { this.doneDate = doneDate; return this; }
+        public Builder createdAt(LocalDateTime createdAt) { this.createdAt = createdAt; return this; }
+        public Builder updatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; return this; }
+        public Builder version(long version) { this.version = version; return this; }
+        public Builder modSeq(long modSeq) { this.modSeq = modSeq; return this; }
+
+        public Todo build() {
+            return new Todo(id, title, description, priority, dueDate, done, doneDate, createdAt, updatedAt, version, modSeq);
+        }
+    }
 }
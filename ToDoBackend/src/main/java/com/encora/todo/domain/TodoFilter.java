@@ -0,0 +1,22 @@
+package com.encora.todo.domain;
+
+/** List filters; a null field matches every todo. */
+public class TodoFilter {
+    private final String text;
+    private final Priority priority;
+    private final Boolean done;
+
+    public TodoFilter(String text, Priority priority, Boolean done) {
+        this.text = text;
+        this.priority = priority;
+        this.done = done;
+    }
+
+    public String getText() { return text; }
+
+    public Priority getPriority() { return priority; }
+
+    public Boolean getDone() { return done; }
+
+    public boolean isEmpty() { return text == null && priority == null && done == null; }
+}
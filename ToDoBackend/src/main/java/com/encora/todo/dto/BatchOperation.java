@@ -0,0 +1,31 @@
+package com.encora.todo.dto;
+
+public class BatchOperation {
+
+    public enum Type { CREATE, UPDATE, DONE, DELETE }
+
+    private Type op;
+
+    // UPDATE, DONE, DELETE
+    private Long id;
+
+    // CREATE, UPDATE
+    private TodoRequest todo;
+
+    // DONE
+    private Boolean done;
+
+    public BatchOperation() {}
+
+    public Type getOp() { return op; }
+    public void setOp(Type op) { this.op = op; }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public TodoRequest getTodo() { return todo; }
+    public void setTodo(TodoRequest todo) { this.todo = todo; }
+
+    public Boolean getDone() { return done; }
+    public void setDone(Boolean done) { this.done = done; }
+}
@@ -0,0 +1,30 @@
+package com.encora.todo.dto;
+
+/** Outcome of one {@link BatchOperation}, carrying the HTTP status the single-item endpoint would return. */
+public class BatchResult {
+    private int index;
+    private int status;
+    private TodoResponse todo;
+    private String error;
+
+    public BatchResult() {}
+
+    public BatchResult(int index, int status, TodoResponse todo, String error) {
+        this.index = index;
+        this.status = status;
+        this.todo = todo;
+        this.error = error;
+    }
+
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+
+    public int getStatus() { return status; }
+    public void setStatus(int status) { this.status = status; }
+
+    public TodoResponse getTodo() { return todo; }
+    public void setTodo(TodoResponse todo) { this.todo = todo; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
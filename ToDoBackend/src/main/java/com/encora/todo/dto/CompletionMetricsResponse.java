@@ -0,0 +1,26 @@
+package com.encora.todo.dto;
+
+import com.encora.todo.domain.Priority;
+
+import java.util.Map;
+
+public class CompletionMetricsResponse {
+    private double averageMillis;
+    private long completedCount;
+    private Map<Priority, Double> averageMillisByPriority;
+    private Map<Priority, Long> completedCountByPriority;
+
+    public CompletionMetricsResponse() {}
+
+    public double getAverageMillis() { return averageMillis; }
+    public void setAverageMillis(double averageMillis) { this.averageMillis = averageMillis; }
+
+    public long getCompletedCount() { return completedCount; }
+    public void setCompletedCount(long completedCount) { this.completedCount = completedCount; }
+
+    public Map<Priority, Double> getAverageMillisByPriority() { return averageMillisByPriority; }
+    public void setAverageMillisByPriority(Map<Priority, Double> averageMillisByPriority) { this.averageMillisByPriority = averageMillisByPriority; }
+
+    public Map<Priority, Long> getCompletedCountByPriority() { return completedCountByPriority; }
+    public void setCompletedCountByPriority(Map<Priority, Long> completedCountByPriority) { this.completedCountByPriority = completedCountByPriority; }
+}
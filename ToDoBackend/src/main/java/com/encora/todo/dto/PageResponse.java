@@ -8,6 +8,7 @@ public class PageResponse<T> {
     private int pageSize;
     private long totalElements;
     private int totalPages;
+    private String nextCursor;
 
     public PageResponse() {}
 
@@ -33,4 +34,8 @@ public class PageResponse<T> {
 
     public int getTotalPages() { return totalPages; }
     public void setTotalPages(int totalPages) { this.totalPages = totalPages; }
+
+    /** Opaque keyset position of the next page; null on the last page. */
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
 }
@@ -0,0 +1,47 @@
+package com.encora.todo.dto;
+
+import java.util.List;
+
+/** Delta for {@code GET /api/todos/sync}: apply {@code changed} and {@code deleted}, then sync again from {@code highWater}. */
+public class SyncResponse {
+    private List<TodoResponse> changed;
+    private List<Long> deleted;
+    private long highWater;
+    private boolean reset;
+    private boolean hasMore;
+    private Long resumeAfter;
+
+    public SyncResponse() {}
+
+    public SyncResponse(List<TodoResponse> changed, List<Long> deleted, long highWater, boolean reset, boolean hasMore,
+                        Long resumeAfter) {
+        this.changed = changed;
+        this.deleted = deleted;
+        this.highWater = highWater;
+        this.reset = reset;
+        this.hasMore = hasMore;
+        this.resumeAfter = resumeAfter;
+    }
+
+    public List<TodoResponse> getChanged() { return changed; }
+    public void setChanged(List<TodoResponse> changed) { this.changed = changed; }
+
+    public List<Long> getDeleted() { return deleted; }
+    public void setDeleted(List<Long> deleted) { this.deleted = deleted; }
+
+    /** Modification sequence to send as {@code since} next time. */
+    public long getHighWater() { return highWater; }
+    public void setHighWater(long highWater) { this.highWater = highWater; }
+
+    /** The client's position was unknown or too old: drop local state, {@code changed} starts over from every todo. */
+    public boolean isReset() { return reset; }
+    public void setReset(boolean reset) { this.reset = reset; }
+
+    /** More changes are waiting past {@code highWater}. */
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+
+    /** Set while a reset is paged: send back as {@code after}, with {@code highWater} as {@code since}. */
+    public Long getResumeAfter() { return resumeAfter; }
+    public void setResumeAfter(Long resumeAfter) { this.resumeAfter = resumeAfter; }
+}
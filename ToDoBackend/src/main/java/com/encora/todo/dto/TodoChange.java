@@ -0,0 +1,31 @@
+package com.encora.todo.dto;
+
+/**
+ * One write as seen by change-feed subscribers; {@code todo} is the state after it, null for deletes.
+ * DUE_SOON and OVERDUE are reminders rather than writes and carry the todo as it is.
+ */
+public class TodoChange {
+
+    public enum Type { CREATED, UPDATED, DONE, DELETED, DUE_SOON, OVERDUE }
+
+    private Type type;
+    private Long id;
+    private TodoResponse todo;
+
+    public TodoChange() {}
+
+    public TodoChange(Type type, Long id, TodoResponse todo) {
+        this.type = type;
+        this.id = id;
+        this.todo = todo;
+    }
+
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public TodoResponse getTodo() { return todo; }
+    public void setTodo(TodoResponse todo) { this.todo = todo; }
+}
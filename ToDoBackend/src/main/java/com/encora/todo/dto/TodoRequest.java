@@ -20,6 +20,9 @@ public class TodoRequest {
     // Optional – can be null
     private LocalDateTime dueDate;
 
+    // Optional – when set, an update only applies if the todo is still at this version
+    private Long version;
+
     public TodoRequest() {}
 
     public String getTitle() { return title; }
@@ -33,4 +36,7 @@ public class TodoRequest {
 
     public LocalDateTime getDueDate() { return dueDate; }
     public void setDueDate(LocalDateTime dueDate) { this.dueDate = dueDate; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
@@ -14,6 +14,7 @@ public class TodoResponse {
     private LocalDateTime doneDate;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private long version;
 
     public TodoResponse() {}
 
@@ -45,4 +46,7 @@ public class TodoResponse {
 
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
 }
@@ -7,20 +7,23 @@ import com.encora.todo.dto.TodoResponse;
 public class TodoMapper {
 
     public static Todo toEntity(TodoRequest req) {
-        Todo t = new Todo();
-        t.setTitle(req.getTitle());
-        t.setDescription(req.getDescription());
-        t.setPriority(req.getPriority());
-        t.setDueDate(req.getDueDate());
-        t.setDone(false);
-        return t;
+        return Todo.builder()
+                .title(req.getTitle())
+                .description(req.getDescription())
+                .priority(req.getPriority())
+                .dueDate(req.getDueDate())
+                .done(false)
+                .build();
     }
 
-    public static void updateEntity(Todo t, TodoRequest req) {
-        if (req.getTitle() != null) t.setTitle(req.getTitle());
-        if (req.getDescription() != null) t.setDescription(req.getDescription());
-        if (req.getPriority() != null) t.setPriority(req.getPriority());
-        if (req.getDueDate() != null) t.setDueDate(req.getDueDate());
+    /** A copy of {@code t} with the request's non-null fields merged in. */
+    public static Todo updateEntity(Todo t, TodoRequest req) {
+        Todo.Builder b = t.toBuilder();
+        if (req.getTitle() != null) b.title(req.getTitle());
+        if (req.getDescription() != null) b.description(req.getDescription());
+        if (req.getPriority() != null) b.priority(req.getPriority());
+        if (req.getDueDate() != null) b.dueDate(req.getDueDate());
+        return b.build();
     }
 
     public static TodoResponse toResponse(Todo t) {
@@ -34,6 +37,7 @@ public class TodoMapper {
         r.setDoneDate(t.getDoneDate());
         r.setCreatedAt(t.getCreatedAt());
         r.setUpdatedAt(t.getUpdatedAt());
+        r.setVersion(t.getVersion());
         return r;
     }
 }
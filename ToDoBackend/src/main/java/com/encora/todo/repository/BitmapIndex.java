@@ -0,0 +1,229 @@
+package com.encora.todo.repository;
+
+import com.encora.todo.domain.Priority;
+import com.encora.todo.domain.Todo;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * One bitmap per {@link Priority} and per done state, addressed by a dense row number per todo.
+ * Rows of deleted todos are recycled, so the bitmaps stay as small as the live store.
+ * Todos are striped by id over {@value #STRIPES} sets of bitmaps, each with its own lock, so a write
+ * holds only its todo's stripe and writes to other todos go on in parallel.
+ */
+final class BitmapIndex {
+
+    static final int STRIPES = 16;
+
+    private static final int NO_ROW = -1;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    BitmapIndex() {
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe();
+    }
+
+    /** Callers must serialize writes per id (the repository does this inside {@code store.compute}). */
+    void put(Todo todo) {
+        stripeOf(todo.getId()).put(todo);
+    }
+
+    void remove(Long id) {
+        stripeOf(id).remove(id);
+    }
+
+    /** Fills an empty index, taking each stripe's lock once and numbering its rows in order. */
+    void load(Collection<Todo> todos) {
+        List<List<Todo>> byStripe = new ArrayList<>(STRIPES);
+        for (int i = 0; i < STRIPES; i++) byStripe.add(new ArrayList<>(todos.size() / STRIPES + 1));
+        for (Todo todo : todos) byStripe.get(stripe(todo.getId())).add(todo);
+        for (int i = 0; i < STRIPES; i++) stripes[i].load(byStripe.get(i));
+    }
+
+    /** Rows handed out so far, live or waiting to be recycled, over all stripes. */
+    int rowCount() {
+        int n = 0;
+        for (Stripe s : stripes) n += s.rowCount();
+        return n;
+    }
+
+    /**
+     * Rows matching both criteria (null matches all), as a private copy the caller may modify. Each stripe
+     * is copied under its own read lock, so a write to another stripe may land between two of the copies.
+     */
+    Rows rows(Priority priority, Boolean isDone) {
+        BitSet[] out = new BitSet[STRIPES];
+        for (int i = 0; i < STRIPES; i++) out[i] = stripes[i].rows(priority, isDone);
+        return new Rows(out);
+    }
+
+    /** Clears every row in {@code rows} whose id is not in {@code ids}. */
+    void retainIds(Rows rows, Collection<Long> ids) {
+        BitSet[] keep = new BitSet[STRIPES];
+        for (int i = 0; i < STRIPES; i++) keep[i] = new BitSet();
+        for (Long id : ids) {
+            int s = stripe(id);
+            int row = stripes[s].rowOf(id);
+            if (row != NO_ROW) keep[s].set(row);
+        }
+        for (int i = 0; i < STRIPES; i++) rows.byStripe[i].and(keep[i]);
+    }
+
+    /** Whether {@code id}'s current row is set in {@code rows}. */
+    boolean contains(Rows rows, Long id) {
+        int s = stripe(id);
+        int row = stripes[s].rowOf(id);
+        return row != NO_ROW && rows.byStripe[s].get(row);
+    }
+
+    /** Ids currently at the set rows of {@code rows}, stripe by stripe. */
+    long[] ids(Rows rows) {
+        long[] out = new long[(int) rows.count()];
+        int n = 0;
+        for (int i = 0; i < STRIPES; i++) n = stripes[i].ids(rows.byStripe[i], out, n);
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    private Stripe stripeOf(Long id) {
+        return stripes[stripe(id)];
+    }
+
+    private static int stripe(Long id) {
+        return Long.hashCode(id) & (STRIPES - 1);
+    }
+
+    /** Matching rows of every stripe, fixed when taken. */
+    static final class Rows {
+        private final BitSet[] byStripe;
+
+        private Rows(BitSet[] byStripe) {
+            this.byStripe = byStripe;
+        }
+
+        long count() {
+            long n = 0;
+            for (BitSet b : byStripe) n += b.cardinality();
+            return n;
+        }
+    }
+
+    private static final class Stripe {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        // concurrent so the per-row lookups made while walking a sort index don't take the lock
+        private final Map<Long, Integer> rowOf = new ConcurrentHashMap<>();
+        private final Deque<Integer> freeRows = new ArrayDeque<>();
+        private long[] idAt = new long[64];
+        private int rowCount;
+
+        private final BitSet live = new BitSet();
+        private final BitSet[] byPriority = new BitSet[Priority.values().length];
+        private final BitSet done = new BitSet();
+        private final BitSet open = new BitSet();
+
+        Stripe() {
+            for (int i = 0; i < byPriority.length; i++) byPriority[i] = new BitSet();
+        }
+
+        void put(Todo todo) {
+            lock.writeLock().lock();
+            try {
+                Integer row = rowOf.get(todo.getId());
+                if (row == null) {
+                    row = freeRows.isEmpty() ? rowCount++ : freeRows.pop();
+                    if (row >= idAt.length) idAt = Arrays.copyOf(idAt, idAt.length * 2);
+                    idAt[row] = todo.getId();
+                    rowOf.put(todo.getId(), row);
+                    live.set(row);
+                }
+                clear(row);
+                if (todo.getPriority() != null) byPriority[todo.getPriority().ordinal()].set(row);
+                (todo.isDone() ? done : open).set(row);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void load(List<Todo> todos) {
+            lock.writeLock().lock();
+            try {
+                if (rowCount + todos.size() > idAt.length) idAt = Arrays.copyOf(idAt, rowCount + todos.size());
+                for (Todo todo : todos) {
+                    int row = rowCount++;
+                    idAt[row] = todo.getId();
+                    rowOf.put(todo.getId(), row);
+                    live.set(row);
+                    if (todo.getPriority() != null) byPriority[todo.getPriority().ordinal()].set(row);
+                    (todo.isDone() ? done : open).set(row);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(Long id) {
+            lock.writeLock().lock();
+            try {
+                Integer row = rowOf.remove(id);
+                if (row == null) return;
+                clear(row);
+                live.clear(row);
+                freeRows.push(row);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        int rowCount() {
+            lock.readLock().lock();
+            try {
+                return rowCount;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        BitSet rows(Priority priority, Boolean isDone) {
+            lock.readLock().lock();
+            try {
+                BitSet out = (BitSet) (priority != null ? byPriority[priority.ordinal()] : live).clone();
+                if (isDone != null) out.and(isDone ? done : open);
+                return out;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        int rowOf(Long id) {
+            return rowOf.getOrDefault(id, NO_ROW);
+        }
+
+        /** Writes the ids at the set rows of {@code rows} into {@code out} from {@code n}; returns the new end. */
+        int ids(BitSet rows, long[] out, int n) {
+            lock.readLock().lock();
+            try {
+                for (int row = rows.nextSetBit(0); row >= 0 && n < out.length; row = rows.nextSetBit(row + 1)) {
+                    out[n++] = idAt[row];
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            return n;
+        }
+
+        private void clear(int row) {
+            for (BitSet b : byPriority) b.clear(row);
+            done.clear(row);
+            open.clear(row);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.encora.todo.repository;
+
+import com.encora.todo.domain.Todo;
+
+import java.util.List;
+
+/**
+ * What changed after a modification sequence, from {@link TodoRepository#changesSince}.
+ * With {@code reset} the sequence could not be honoured (tombstones already dropped, or it came from
+ * another process) and {@code changed} starts again from the live todos; {@code deleted} is then empty.
+ *
+ * @param highWater   pass back as {@code since} next time; everything up to it has been delivered unless
+ *                    {@code resumeAfter} is set
+ * @param hasMore     the limit was hit, ask again right away
+ * @param resumeAfter set while a reset is paged: pass back as {@code after}, with {@code highWater} as
+ *                    {@code since}, for the rest of the live todos
+ */
+public record ChangeSet(long highWater, boolean reset, boolean hasMore, List<Todo> changed, List<Long> deleted,
+                        Long resumeAfter) {
+}
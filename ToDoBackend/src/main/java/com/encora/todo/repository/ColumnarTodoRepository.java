@@ -0,0 +1,556 @@
+package com.encora.todo.repository;
+
+import com.encora.todo.domain.Priority;
+import com.encora.todo.domain.SortField;
+import com.encora.todo.domain.Todo;
+import com.encora.todo.domain.TodoFilter;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Stores todos as parallel primitive columns addressed by a dense row number: {@code long} id, version and
+ * modification sequence, a {@code byte} priority ordinal, a done bitset and four {@code long} epoch-millis
+ * timestamps, plus the two strings. No {@link Todo} is kept; one is built per row actually returned.
+ * <p>
+ * Timestamps are kept to the millisecond, so what comes back is truncated to that. Sort orders are sorted
+ * {@code int[]} rows compared straight from the columns, so a comparison allocates nothing and a walk is a
+ * binary search plus a scan. Writes take an exclusive lock; a single write shifts the orders with
+ * {@code arraycopy}, a batch takes its rows out in one pass and merges them back sorted. Text filters use a
+ * {@link RowTextIndex} over the same rows.
+ */
+public class ColumnarTodoRepository implements TodoRepository {
+
+    /** Stored for a missing timestamp; sorts after every real one, like nulls in {@link SortField}. */
+    private static final long NO_TIME = Long.MAX_VALUE;
+    private static final byte NO_PRIORITY = -1;
+    private static final Priority[] PRIORITIES = Priority.values();
+    /** Rows turned into todos per read-lock hold while a sorted walk is consumed: small for a first page, then doubling. */
+    private static final int FIRST_CHUNK = 8;
+    private static final int MAX_CHUNK = 256;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongIntMap rowOf = new LongIntMap();
+    private final BitSet live = new BitSet();
+    private final BitSet done = new BitSet();
+    private final BitSet[] byPriority = new BitSet[PRIORITIES.length];
+    private final RowTextIndex textIndex = new RowTextIndex();
+    private final SyncIndex syncIndex;
+    private final Map<SortField, Order> orders = new EnumMap<>(SortField.class);
+    private final AtomicLong modifications = new AtomicLong();
+
+    private int[] freeRows = new int[16];
+    private int freeCount;
+    private int rowCount;
+    private long lastId = 1000;
+
+    private long[] ids = new long[1024];
+    private long[] versions = new long[1024];
+    private long[] modSeqs = new long[1024];
+    private byte[] priorities = new byte[1024];
+    private long[] dueAt = new long[1024];
+    private long[] doneAt = new long[1024];
+    private long[] createdAt = new long[1024];
+    private long[] updatedAt = new long[1024];
+    private String[] titles = new String[1024];
+    private String[] descriptions = new String[1024];
+
+    public ColumnarTodoRepository() {
+        this(SyncIndex.DEFAULT_TOMBSTONES);
+    }
+
+    public ColumnarTodoRepository(int maxTombstones) {
+        this.syncIndex = new SyncIndex(maxTombstones, new SyncIndex.Sequence(), id -> findById(id).orElse(null));
+        for (SortField f : SortField.values()) orders.put(f, new Order(f));
+        for (int i = 0; i < byPriority.length; i++) byPriority[i] = new BitSet();
+    }
+
+    // ---- writes
+
+    @Override
+    public Todo save(Todo todo) {
+        return write(() -> view(store(todo, true)));
+    }
+
+    @Override
+    public List<Todo> saveAll(Collection<Todo> todos) {
+        return write(() -> {
+            BitSet batch = unorder(todos.stream().map(Todo::getId).filter(Objects::nonNull).toList());
+            List<Todo> stored = new ArrayList<>(todos.size());
+            for (Todo t : todos) {
+                int row = store(t, false);
+                batch.set(row);
+                stored.add(view(row));
+            }
+            reorder(batch);
+            return stored;
+        });
+    }
+
+    @Override
+    public Optional<Todo> replace(Todo current, Todo next) {
+        return Optional.ofNullable(write(() -> swap(current, next, true)));
+    }
+
+    @Override
+    public List<Todo> replaceAll(List<Todo> current, List<Todo> next) {
+        return write(() -> {
+            BitSet batch = unorder(current.stream().map(Todo::getId).toList());
+            List<Todo> stored = new ArrayList<>(current.size());
+            for (int i = 0; i < current.size(); i++) stored.add(swap(current.get(i), next.get(i), false));
+            reorder(batch);
+            return stored;
+        });
+    }
+
+    /** Takes the stored rows of {@code ids} out of every order in one pass; returns them. */
+    private BitSet unorder(List<Long> ids) {
+        BitSet rows = new BitSet();
+        for (Long id : ids) {
+            int row = rowOf.get(id);
+            if (row != LongIntMap.MISSING) rows.set(row);
+        }
+        if (!rows.isEmpty()) orders.values().forEach(o -> o.removeAll(rows));
+        return rows;
+    }
+
+    /** Puts {@code rows}, none of them in the orders, back in: each order sorts them and merges them in. */
+    private void reorder(BitSet rows) {
+        int[] batch = rows.stream().toArray();
+        orders.values().forEach(o -> o.insertAll(batch.clone()));
+    }
+
+    @Override
+    public Optional<Todo> deleteById(Long id) {
+        return Optional.ofNullable(write(() -> unstore(id)));
+    }
+
+    @Override
+    public List<Todo> deleteAllById(Collection<Long> ids) {
+        return write(() -> {
+            List<Todo> removed = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                Todo todo = unstore(id);
+                if (todo != null) removed.add(todo);
+            }
+            return removed;
+        });
+    }
+
+    private <T> T write(Supplier<T> op) {
+        lock.writeLock().lock();
+        long writing = syncIndex.begin();
+        try {
+            return op.get();
+        } finally {
+            syncIndex.end(writing);
+            lock.writeLock().unlock();
+            modifications.incrementAndGet();
+        }
+    }
+
+    /**
+     * Restored todos keep id and version; unversioned ones continue from what they replace. Without
+     * {@code reorder} the caller has taken the row out of the orders and puts it back.
+     */
+    private int store(Todo todo, boolean reorder) {
+        long id;
+        if (todo.getId() == null) {
+            id = ++lastId;
+        } else {
+            id = todo.getId();
+            lastId = Math.max(lastId, id);
+        }
+        int row = rowOf.get(id);
+        long version;
+        if (row == LongIntMap.MISSING) {
+            row = allocateRow(id);
+            version = todo.getVersion() > 0 ? todo.getVersion() : 1;
+        } else {
+            version = todo.getVersion() > 0 ? todo.getVersion() : versions[row] + 1;
+        }
+        setColumns(row, todo, version, reorder);
+        return row;
+    }
+
+    private Todo swap(Todo current, Todo next, boolean reorder) {
+        int row = rowOf.get(current.getId());
+        if (row == LongIntMap.MISSING || versions[row] != current.getVersion()) return null;
+        setColumns(row, next, versions[row] + 1, reorder);
+        return view(row);
+    }
+
+    /** Overwrites the columns of {@code row}, moving it in every index, and in every order if {@code reorder}. */
+    private void setColumns(int row, Todo todo, long version, boolean reorder) {
+        boolean existed = modSeqs[row] != 0;
+        if (reorder && existed) orders.values().forEach(o -> o.remove(row));
+        versions[row] = version;
+        modSeqs[row] = syncIndex.put(ids[row], modSeqs[row]);
+        if (priorities[row] != NO_PRIORITY) byPriority[priorities[row]].clear(row);
+        priorities[row] = todo.getPriority() == null ? NO_PRIORITY : (byte) todo.getPriority().ordinal();
+        if (priorities[row] != NO_PRIORITY) byPriority[priorities[row]].set(row);
+        done.set(row, todo.isDone());
+        dueAt[row] = millis(todo.getDueDate());
+        doneAt[row] = millis(todo.getDoneDate());
+        createdAt[row] = millis(todo.getCreatedAt());
+        updatedAt[row] = millis(todo.getUpdatedAt());
+        titles[row] = todo.getTitle();
+        descriptions[row] = todo.getDescription();
+        if (reorder) orders.values().forEach(o -> o.insert(row));
+        textIndex.put(row, titles[row], descriptions[row]);
+    }
+
+    /** The todo removed, or null if it was already gone. */
+    private Todo unstore(Long id) {
+        int row = rowOf.remove(id);
+        if (row == LongIntMap.MISSING) return null;
+        Todo removed = view(row);
+        orders.values().forEach(o -> o.remove(row));
+        textIndex.remove(row);
+        syncIndex.remove(id, modSeqs[row]);
+        live.clear(row);
+        done.clear(row);
+        if (priorities[row] != NO_PRIORITY) byPriority[priorities[row]].clear(row);
+        priorities[row] = NO_PRIORITY;
+        modSeqs[row] = 0;
+        titles[row] = null;
+        descriptions[row] = null;
+        if (freeCount == freeRows.length) freeRows = Arrays.copyOf(freeRows, freeCount * 2);
+        freeRows[freeCount++] = row;
+        return removed;
+    }
+
+    private int allocateRow(long id) {
+        int row = freeCount > 0 ? freeRows[--freeCount] : rowCount++;
+        if (row == ids.length) grow(ids.length * 2);
+        ids[row] = id;
+        priorities[row] = NO_PRIORITY;
+        rowOf.put(id, row);
+        live.set(row);
+        return row;
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        modSeqs = Arrays.copyOf(modSeqs, capacity);
+        priorities = Arrays.copyOf(priorities, capacity);
+        dueAt = Arrays.copyOf(dueAt, capacity);
+        doneAt = Arrays.copyOf(doneAt, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+        updatedAt = Arrays.copyOf(updatedAt, capacity);
+        titles = Arrays.copyOf(titles, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+    }
+
+    // ---- reads
+
+    @Override
+    public Optional<Todo> findById(Long id) {
+        lock.readLock().lock();
+        try {
+            int row = rowOf.get(id);
+            return row == LongIntMap.MISSING ? Optional.empty() : Optional.of(view(row));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Todo> findAll() {
+        lock.readLock().lock();
+        try {
+            List<Todo> all = new ArrayList<>(rowOf.size());
+            for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) all.add(view(row));
+            return all;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long count() {
+        lock.readLock().lock();
+        try {
+            return rowOf.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long modificationCount() { return modifications.get(); }
+
+    @Override
+    public ChangeSet changesSince(long since, Long after, int limit) {
+        return syncIndex.sequence().changesSince(since, after, limit);
+    }
+
+    @Override
+    public Stream<Todo> findAllSorted(SortField field, boolean descending) {
+        return walk(orders.get(field), descending, false, 0, 0);
+    }
+
+    @Override
+    public Stream<Todo> findAllSortedAfter(SortField field, boolean descending, Comparable<?> key, long id) {
+        return walk(orders.get(field), descending, true, encode(key), id);
+    }
+
+    /** Rows matching the filter: the priority and done bitsets intersected with the text index's matches. */
+    @Override
+    public TodoSelection select(TodoFilter filter) {
+        lock.readLock().lock();
+        try {
+            BitSet rows = (BitSet) (filter.getPriority() != null ? byPriority[filter.getPriority().ordinal()] : live).clone();
+            if (filter.getDone() != null) {
+                if (filter.getDone()) rows.and(done); else rows.andNot(done);
+            }
+            if (filter.getText() != null) rows.and(textIndex.matching(filter.getText()));
+            return new ColumnSelection(filter, rows);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<String, Long> indexSizes() {
+        Map<String, Long> sizes = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            orders.forEach((field, order) -> sizes.put("sort." + field.name().toLowerCase(Locale.ROOT), (long) order.size));
+            sizes.put("column.rows", (long) rowCount);
+            sizes.put("text.trigrams", (long) textIndex.gramCount());
+        } finally {
+            lock.readLock().unlock();
+        }
+        sizes.put("sync.entries", (long) syncIndex.size());
+        return sizes;
+    }
+
+    /**
+     * Lazily walks an order in chunks. Each chunk is a fresh seek past the last row emitted, so a walk
+     * holds no lock between chunks and later writes are seen the way a skip-list walk would see them.
+     */
+    private Stream<Todo> walk(Order order, boolean descending, boolean seek, long fromKey, long fromId) {
+        Iterator<Todo> it = new Iterator<>() {
+            final ArrayDeque<Todo> chunk = new ArrayDeque<>(FIRST_CHUNK);
+            int chunkSize = FIRST_CHUNK;
+            boolean positioned = seek;
+            long key = fromKey;
+            long id = fromId;
+            boolean exhausted;
+
+            @Override
+            public boolean hasNext() {
+                if (chunk.isEmpty() && !exhausted) fill();
+                return !chunk.isEmpty();
+            }
+
+            @Override
+            public Todo next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return chunk.poll();
+            }
+
+            private void fill() {
+                lock.readLock().lock();
+                try {
+                    int pos = positioned ? order.after(key, id, descending) : descending ? order.size - 1 : 0;
+                    int step = descending ? -1 : 1;
+                    for (; pos >= 0 && pos < order.size && chunk.size() < chunkSize; pos += step) {
+                        int row = order.rows[pos];
+                        chunk.add(view(row));
+                        key = order.key(row);
+                        id = ids[row];
+                    }
+                    positioned = true;
+                    exhausted = chunk.size() < chunkSize;
+                    chunkSize = Math.min(chunkSize * 2, MAX_CHUNK);
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(it, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /** Rows sorted by one field's primitive key, ties broken by id. Guarded by the repository lock. */
+    private final class Order {
+        final SortField field;
+        int[] rows = new int[1024];
+        int size;
+
+        Order(SortField field) {
+            this.field = field;
+        }
+
+        long key(int row) {
+            return switch (field) {
+                case CREATION_DATE -> createdAt[row];
+                case DUE_DATE -> dueAt[row];
+                case PRIORITY -> priorities[row] == NO_PRIORITY ? Long.MAX_VALUE : priorities[row];
+                case DONE -> done.get(row) ? 1 : 0;
+            };
+        }
+
+        /** Orders two rows by (key, id). */
+        int compare(int a, int b) {
+            int c = Long.compare(key(a), key(b));
+            return c != 0 ? c : Long.compare(ids[a], ids[b]);
+        }
+
+        /** First position whose (key, id) is not below the given one. */
+        int lowerBound(long key, long id) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                int row = rows[mid];
+                long k = key(row);
+                if (k < key || (k == key && ids[row] < id)) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+
+        /** Position of the first row strictly past (key, id) in walk order; may be out of range. */
+        int after(long key, long id, boolean descending) {
+            int lower = lowerBound(key, id);
+            if (descending) return lower - 1;
+            boolean present = lower < size && key(rows[lower]) == key && ids[rows[lower]] == id;
+            return present ? lower + 1 : lower;
+        }
+
+        void insert(int row) {
+            int at = lowerBound(key(row), ids[row]);
+            if (size == rows.length) rows = Arrays.copyOf(rows, size * 2);
+            System.arraycopy(rows, at, rows, at + 1, size - at);
+            rows[at] = row;
+            size++;
+        }
+
+        /** Must run before the row's columns change, while its key still finds it. */
+        void remove(int row) {
+            int at = lowerBound(key(row), ids[row]);
+            System.arraycopy(rows, at + 1, rows, at, size - at - 1);
+            size--;
+        }
+
+        /** Drops every row in {@code drop}, compacting in one pass; must run before their columns change. */
+        void removeAll(BitSet drop) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (!drop.get(rows[i])) rows[kept++] = rows[i];
+            }
+            size = kept;
+        }
+
+        /** Sorts {@code add}, none of it already here, and merges it in from the back. */
+        void insertAll(int[] add) {
+            sort(add, new int[add.length], 0, add.length);
+            if (size + add.length > rows.length) rows = Arrays.copyOf(rows, Math.max(rows.length * 2, size + add.length));
+            int i = size - 1;
+            int j = add.length - 1;
+            for (int k = size + add.length - 1; j >= 0; k--) {
+                rows[k] = i >= 0 && compare(rows[i], add[j]) > 0 ? rows[i--] : add[j--];
+            }
+            size += add.length;
+        }
+
+        /** Merge sort of {@code a[from, to)} by {@link #compare}, through {@code tmp}. */
+        private void sort(int[] a, int[] tmp, int from, int to) {
+            if (to - from < 2) return;
+            int mid = (from + to) >>> 1;
+            sort(a, tmp, from, mid);
+            sort(a, tmp, mid, to);
+            // already in order, as appended batches usually are
+            if (compare(a[mid - 1], a[mid]) <= 0) return;
+            System.arraycopy(a, from, tmp, from, to - from);
+            for (int k = from, i = from, j = mid; k < to; k++) {
+                a[k] = j == to || (i < mid && compare(tmp[i], tmp[j]) <= 0) ? tmp[i++] : tmp[j++];
+            }
+        }
+    }
+
+    /**
+     * Point-in-time rows matching a filter. Rows are recycled after deletes, so a row read later is
+     * re-checked against the filter by its columns.
+     */
+    private final class ColumnSelection implements TodoSelection {
+        private final TodoFilter filter;
+        private final String needle;
+        private final BitSet rows;
+        private final long count;
+
+        ColumnSelection(TodoFilter filter, BitSet rows) {
+            this.filter = filter;
+            this.needle = filter.getText() == null ? null : TextIndex.lower(filter.getText());
+            this.rows = rows;
+            this.count = rows.cardinality();
+        }
+
+        @Override
+        public long count() { return count; }
+
+        @Override
+        public boolean contains(Todo todo) {
+            lock.readLock().lock();
+            try {
+                int row = rowOf.get(todo.getId());
+                return row != LongIntMap.MISSING && rows.get(row) && matches(row);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public Stream<Todo> stream() {
+            return rows.stream().mapToObj(row -> {
+                lock.readLock().lock();
+                try {
+                    return live.get(row) && matches(row) ? view(row) : null;
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }).filter(Objects::nonNull);
+        }
+
+        private boolean matches(int row) {
+            return (filter.getPriority() == null || priorities[row] == filter.getPriority().ordinal())
+                    && (filter.getDone() == null || done.get(row) == filter.getDone())
+                    && (needle == null || textIndex.contains(row, needle));
+        }
+    }
+
+    // ---- conversions
+
+    private Todo view(int row) {
+        byte p = priorities[row];
+        return new Todo(ids[row], titles[row], descriptions[row], p == NO_PRIORITY ? null : PRIORITIES[p],
+                time(dueAt[row]), done.get(row), time(doneAt[row]), time(createdAt[row]), time(updatedAt[row]),
+                versions[row], modSeqs[row]);
+    }
+
+    private static long millis(LocalDateTime t) {
+        return t == null ? NO_TIME : t.toEpochSecond(ZoneOffset.UTC) * 1000 + t.getNano() / 1_000_000;
+    }
+
+    private static LocalDateTime time(long millis) {
+        if (millis == NO_TIME) return null;
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000), Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    /** A cursor key in the same primitive form the orders compare. */
+    private static long encode(Comparable<?> key) {
+        if (key == null) return Long.MAX_VALUE;
+        if (key instanceof LocalDateTime t) return millis(t);
+        if (key instanceof Priority p) return p.ordinal();
+        if (key instanceof Boolean b) return b ? 1 : 0;
+        throw new IllegalArgumentException("Unsupported sort key " + key.getClass().getSimpleName());
+    }
+}
@@ -1,22 +1,164 @@
 package com.encora.todo.repository;
 
+import com.encora.todo.domain.SortField;
 import com.encora.todo.domain.Todo;
+import com.encora.todo.domain.TodoFilter;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 public class InMemoryTodoRepository implements TodoRepository {
 
     private final Map<Long, Todo> store = new ConcurrentHashMap<>();
     private final AtomicLong seq = new AtomicLong(1000);
+    private final AtomicLong modifications = new AtomicLong();
+    private final Map<SortField, SortIndex> sortIndexes = new EnumMap<>(SortField.class);
+    private final TextIndex textIndex = new TextIndex();
+    private final BitmapIndex bitmaps = new BitmapIndex();
+    private final SyncIndex syncIndex;
+
+    public InMemoryTodoRepository() {
+        this(SyncIndex.DEFAULT_TOMBSTONES);
+    }
+
+    /** {@code maxTombstones}: deletes remembered for {@link #changesSince}; older sync positions get a reset. */
+    public InMemoryTodoRepository(int maxTombstones) {
+        this(maxTombstones, new SyncIndex.Sequence());
+    }
+
+    /** A shard: modification sequences come from {@code sequence}, shared with the other shards. */
+    InMemoryTodoRepository(int maxTombstones, SyncIndex.Sequence sequence) {
+        this.syncIndex = new SyncIndex(maxTombstones, sequence, store::get);
+        for (SortField f : SortField.values()) sortIndexes.put(f, new SortIndex(f));
+    }
 
     @Override
     public Todo save(Todo todo) {
-        if (todo.getId() == null) {
-            todo.setId(seq.incrementAndGet());
+        Todo stored = write(() -> index(todo));
+        modifications.incrementAndGet();
+        return stored;
+    }
+
+    /** Same as saving one by one, but counts as a single modification. */
+    @Override
+    public List<Todo> saveAll(Collection<Todo> todos) {
+        List<Todo> stored = new ArrayList<>(todos.size());
+        write(() -> todos.forEach(t -> stored.add(index(t))));
+        modifications.incrementAndGet();
+        return stored;
+    }
+
+    @Override
+    public Optional<Todo> replace(Todo current, Todo next) {
+        Todo stored = write(() -> swap(current, next));
+        if (stored != null) modifications.incrementAndGet();
+        return Optional.ofNullable(stored);
+    }
+
+    @Override
+    public List<Todo> replaceAll(List<Todo> current, List<Todo> next) {
+        List<Todo> stored = new ArrayList<>(current.size());
+        write(() -> {
+            for (int i = 0; i < current.size(); i++) stored.add(swap(current.get(i), next.get(i)));
+        });
+        modifications.incrementAndGet();
+        return stored;
+    }
+
+    /**
+     * Runs a write inside a sync-index bracket that keeps readers from seeing its modification sequences
+     * until every lower one is in place. There is no repository-wide lock: {@code store.compute} serializes
+     * the writes to one todo, and the version check inside it is the compare-and-set. The indexes it updates
+     * there are concurrent or, for the bitmaps, lock only that todo's stripe.
+     */
+    private <T> T write(Supplier<T> op) {
+        long writing = syncIndex.begin();
+        try {
+            return op.get();
+        } finally {
+            syncIndex.end(writing);
         }
-        store.put(todo.getId(), todo);
+    }
+
+    private void write(Runnable op) {
+        write(() -> {
+            op.run();
+            return null;
+        });
+    }
+
+    /**
+     * Fills an empty store with restored todos (distinct ids, versions kept), building each index once over all
+     * of them instead of updating every index per todo. Counts as one modification. Call before the repository
+     * is shared, as recovery does.
+     */
+    void load(List<Todo> todos) {
+        if (!store.isEmpty()) throw new IllegalStateException("Bulk load needs an empty store");
+        long[] ids = new long[todos.size()];
+        for (int i = 0; i < ids.length; i++) ids[i] = todos.get(i).getId();
+        long modSeq = syncIndex.load(ids);
+
+        List<Todo> stored = new ArrayList<>(todos.size());
+        long maxId = 0;
+        for (Todo todo : todos) {
+            Todo s = todo.toBuilder().version(Math.max(1, todo.getVersion())).modSeq(modSeq++).build();
+            store.put(s.getId(), s);
+            stored.add(s);
+            maxId = Math.max(maxId, s.getId());
+        }
+        if (store.size() != stored.size()) throw new IllegalArgumentException("Bulk load has duplicate ids");
+        seq.accumulateAndGet(maxId, Math::max);
+
+        sortIndexes.values().forEach(index -> index.load(stored));
+        textIndex.load(stored);
+        bitmaps.load(stored);
+        modifications.incrementAndGet();
+    }
+
+    /** Issues an id ahead of the save, for a caller that must log the todo before storing it. */
+    long nextId() {
+        return seq.incrementAndGet();
+    }
+
+    private Todo index(Todo todo) {
+        Long id = todo.getId();
+        if (id == null) {
+            id = seq.incrementAndGet();
+        } else {
+            // restored todos (snapshot/log replay) must never collide with freshly issued ids
+            seq.accumulateAndGet(id, Math::max);
+        }
+        Todo[] stored = new Todo[1];
+        // compute() locks the id's bin, so index updates for the same todo never interleave
+        store.compute(id, (k, prev) -> {
+            // restored todos keep their version; unversioned ones continue from what they replace
+            long version = todo.getVersion() > 0 ? todo.getVersion() : prev == null ? 1 : prev.getVersion() + 1;
+            long modSeq = syncIndex.put(k, prev == null ? 0 : prev.getModSeq());
+            stored[0] = putIndexes(todo.toBuilder().id(k).version(version).modSeq(modSeq).build());
+            return stored[0];
+        });
+        return stored[0];
+    }
+
+    /** The compare-and-set: {@code next} goes in only if {@code current}'s version is still the stored one. */
+    private Todo swap(Todo current, Todo next) {
+        Todo[] stored = new Todo[1];
+        store.computeIfPresent(current.getId(), (id, prev) -> {
+            if (prev.getVersion() != current.getVersion()) return prev;
+            long modSeq = syncIndex.put(id, prev.getModSeq());
+            stored[0] = putIndexes(next.toBuilder().id(id).version(prev.getVersion() + 1).modSeq(modSeq).build());
+            return stored[0];
+        });
+        return stored[0];
+    }
+
+    private Todo putIndexes(Todo todo) {
+        sortIndexes.values().forEach(i -> i.put(todo));
+        textIndex.put(todo);
+        bitmaps.put(todo);
         return todo;
     }
 
@@ -31,10 +173,135 @@ public class InMemoryTodoRepository implements TodoRepository {
     }
 
     @Override
-    public void deleteById(Long id) {
-        store.remove(id);
+    public Optional<Todo> deleteById(Long id) {
+        Todo removed = write(() -> unindex(id));
+        modifications.incrementAndGet();
+        return Optional.ofNullable(removed);
+    }
+
+    @Override
+    public List<Todo> deleteAllById(Collection<Long> ids) {
+        List<Todo> removed = new ArrayList<>(ids.size());
+        write(() -> ids.forEach(id -> {
+            Todo todo = unindex(id);
+            if (todo != null) removed.add(todo);
+        }));
+        modifications.incrementAndGet();
+        return removed;
+    }
+
+    /** The todo removed, or null if it was already gone. */
+    private Todo unindex(Long id) {
+        Todo[] removed = new Todo[1];
+        store.computeIfPresent(id, (k, prev) -> {
+            sortIndexes.values().forEach(i -> i.remove(k));
+            textIndex.remove(k);
+            bitmaps.remove(k);
+            syncIndex.remove(k, prev.getModSeq());
+            removed[0] = prev;
+            return null;
+        });
+        return removed[0];
     }
 
     @Override
     public long count() { return store.size(); }
+
+    @Override
+    public long modificationCount() { return modifications.get(); }
+
+    @Override
+    public ChangeSet changesSince(long since, Long after, int limit) {
+        return syncIndex.sequence().changesSince(since, after, limit);
+    }
+
+    /**
+     * Walks the sort index as it changes (see {@link SortIndex} for what a concurrent write can do to it),
+     * reading each todo as stored when the walk reaches it.
+     */
+    @Override
+    public Stream<Todo> findAllSorted(SortField field, boolean descending) {
+        return resolve(sortIndexes.get(field).ids(descending));
+    }
+
+    @Override
+    public Stream<Todo> findAllSortedAfter(SortField field, boolean descending, Comparable<?> key, long id) {
+        return resolve(sortIndexes.get(field).idsAfter(descending, key, id));
+    }
+
+    /** The sort index's (key, id) walk without resolving todos, for {@link ShardedTodoRepository} to merge. */
+    Stream<SortIndex.Entry> sortedEntries(SortField field, boolean descending) {
+        return sortIndexes.get(field).entries(descending);
+    }
+
+    Stream<SortIndex.Entry> sortedEntriesAfter(SortField field, boolean descending, Comparable<?> key, long id) {
+        return sortIndexes.get(field).entriesAfter(descending, key, id);
+    }
+
+    @Override
+    public Map<String, Long> indexSizes() {
+        Map<String, Long> sizes = new LinkedHashMap<>();
+        sortIndexes.forEach((field, index) -> sizes.put("sort." + field.name().toLowerCase(Locale.ROOT), (long) index.size()));
+        sizes.put("text.trigrams", (long) textIndex.gramCount());
+        sizes.put("bitmap.rows", (long) bitmaps.rowCount());
+        sizes.put("sync.entries", (long) syncIndex.size());
+        return sizes;
+    }
+
+    @Override
+    public TodoSelection select(TodoFilter filter) {
+        if (filter.isEmpty()) return new AllSelection();
+        BitmapIndex.Rows rows = bitmaps.rows(filter.getPriority(), filter.getDone());
+        if (filter.getText() != null) bitmaps.retainIds(rows, textIndex.matching(filter.getText()));
+        return new BitmapSelection(filter, rows);
+    }
+
+    private Stream<Todo> resolve(Stream<Long> ids) {
+        return ids.map(store::get).filter(Objects::nonNull);
+    }
+
+    private final class AllSelection implements TodoSelection {
+        @Override public long count() { return store.size(); }
+        @Override public boolean contains(Todo todo) { return true; }
+        @Override public Stream<Todo> stream() { return store.values().stream(); }
+    }
+
+    /**
+     * Point-in-time set of matching rows. Rows are recycled after deletes, so anything read
+     * through a row is re-checked against the filter (field compares plus the pre-lowered text).
+     */
+    private final class BitmapSelection implements TodoSelection {
+        private final TodoFilter filter;
+        private final String needle;
+        private final BitmapIndex.Rows rows;
+        private final long count;
+
+        BitmapSelection(TodoFilter filter, BitmapIndex.Rows rows) {
+            this.filter = filter;
+            this.needle = filter.getText() == null ? null : TextIndex.lower(filter.getText());
+            this.rows = rows;
+            this.count = rows.count();
+        }
+
+        @Override
+        public long count() { return count; }
+
+        @Override
+        public boolean contains(Todo todo) {
+            return bitmaps.contains(rows, todo.getId()) && recheck(todo);
+        }
+
+        @Override
+        public Stream<Todo> stream() {
+            return Arrays.stream(bitmaps.ids(rows))
+                    .mapToObj(store::get)
+                    .filter(t -> t != null && recheck(t));
+        }
+
+        private boolean recheck(Todo t) {
+            return (filter.getPriority() == null || t.getPriority() == filter.getPriority())
+                    && (filter.getDone() == null || t.isDone() == filter.getDone())
+                    && (needle == null || textIndex.contains(t.getId(), needle));
+        }
+    }
 }
@@ -0,0 +1,190 @@
+package com.encora.todo.repository;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Trigram index over the rows of {@link ColumnarTodoRepository}, with no boxing: grams map through a
+ * {@link LongIntMap} to postings of row numbers, kept as a sorted {@code int[]} while sparse and as a
+ * {@link BitSet} once that is smaller. Needles of three or more chars are answered from the smallest posting;
+ * every candidate is re-checked against the lower-cased fields, so results match a plain substring scan exactly.
+ * Not thread-safe; the repository's lock guards it.
+ */
+final class RowTextIndex {
+
+    private static final int GRAM = 3;
+    private static final long[] NO_GRAMS = {};
+
+    /** Lower-cased title and description per row; null for a row not indexed. */
+    private String[] titles = new String[1024];
+    private String[] descriptions = new String[1024];
+    private int rowLimit;
+
+    private final LongIntMap slotOf = new LongIntMap();
+    private Posting[] postings = new Posting[64];
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int slotCount;
+
+    /** Row numbers holding one gram. */
+    private static final class Posting {
+        int[] rows = new int[4];
+        BitSet dense;
+        int size;
+
+        void add(int row, int rowLimit) {
+            if (dense != null) {
+                dense.set(row);
+                size++;
+                return;
+            }
+            int at = -Arrays.binarySearch(rows, 0, size, row) - 1;
+            if (size == rows.length) {
+                // a bitset costs rowLimit / 8 bytes, the array four per row
+                if (size * 32L >= rowLimit) {
+                    dense = new BitSet(rowLimit);
+                    for (int i = 0; i < size; i++) dense.set(rows[i]);
+                    dense.set(row);
+                    rows = null;
+                    size++;
+                    return;
+                }
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            System.arraycopy(rows, at, rows, at + 1, size - at);
+            rows[at] = row;
+            size++;
+        }
+
+        void remove(int row) {
+            if (dense != null) {
+                dense.clear(row);
+            } else {
+                int at = Arrays.binarySearch(rows, 0, size, row);
+                System.arraycopy(rows, at + 1, rows, at, size - at - 1);
+            }
+            size--;
+        }
+    }
+
+    /** Indexes {@code row} with the given text, replacing whatever it held. */
+    void put(int row, String title, String description) {
+        String nextTitle = TextIndex.lower(title);
+        String nextDescription = TextIndex.lower(description);
+        if (row >= titles.length) {
+            titles = Arrays.copyOf(titles, Math.max(titles.length * 2, row + 1));
+            descriptions = Arrays.copyOf(descriptions, titles.length);
+        }
+        rowLimit = Math.max(rowLimit, row + 1);
+        String prevTitle = titles[row];
+        if (prevTitle != null && prevTitle.equals(nextTitle) && descriptions[row].equals(nextDescription)) return;
+        long[] prev = prevTitle == null ? NO_GRAMS : grams(prevTitle, descriptions[row]);
+        titles[row] = nextTitle;
+        descriptions[row] = nextDescription;
+        long[] next = grams(nextTitle, nextDescription);
+
+        // both sorted: unlink what's only in prev, link what's only in next
+        int i = 0;
+        int j = 0;
+        while (i < prev.length || j < next.length) {
+            if (j == next.length || (i < prev.length && prev[i] < next[j])) {
+                unlink(prev[i++], row);
+            } else if (i == prev.length || next[j] < prev[i]) {
+                link(next[j++], row);
+            } else {
+                i++;
+                j++;
+            }
+        }
+    }
+
+    void remove(int row) {
+        if (row >= titles.length || titles[row] == null) return;
+        for (long g : grams(titles[row], descriptions[row])) unlink(g, row);
+        titles[row] = null;
+        descriptions[row] = null;
+    }
+
+    /** Rows whose title or description contains {@code text}, ignoring case. */
+    BitSet matching(String text) {
+        String needle = TextIndex.lower(text);
+        BitSet out = new BitSet();
+
+        if (needle.length() < GRAM) {
+            for (int row = 0; row < rowLimit; row++) {
+                if (contains(row, needle)) out.set(row);
+            }
+            return out;
+        }
+
+        Posting smallest = null;
+        for (int i = 0; i + GRAM <= needle.length(); i++) {
+            int slot = slotOf.get(gram(needle, i));
+            if (slot == LongIntMap.MISSING) return out;
+            if (smallest == null || postings[slot].size < smallest.size) smallest = postings[slot];
+        }
+        if (smallest.dense != null) {
+            for (int row = smallest.dense.nextSetBit(0); row >= 0; row = smallest.dense.nextSetBit(row + 1)) {
+                if (contains(row, needle)) out.set(row);
+            }
+        } else {
+            for (int i = 0; i < smallest.size; i++) {
+                if (contains(smallest.rows[i], needle)) out.set(smallest.rows[i]);
+            }
+        }
+        return out;
+    }
+
+    /** Distinct trigrams with at least one posting. */
+    int gramCount() {
+        return slotOf.size();
+    }
+
+    /** Whether the indexed text of {@code row} contains an already lower-cased needle. */
+    boolean contains(int row, String loweredNeedle) {
+        return row < titles.length && titles[row] != null
+                && (titles[row].contains(loweredNeedle) || descriptions[row].contains(loweredNeedle));
+    }
+
+    private void link(long gram, int row) {
+        int slot = slotOf.get(gram);
+        if (slot == LongIntMap.MISSING) {
+            slot = freeCount > 0 ? freeSlots[--freeCount] : slotCount++;
+            if (slot == postings.length) postings = Arrays.copyOf(postings, slot * 2);
+            postings[slot] = new Posting();
+            slotOf.put(gram, slot);
+        }
+        postings[slot].add(row, rowLimit);
+    }
+
+    private void unlink(long gram, int row) {
+        int slot = slotOf.get(gram);
+        Posting p = postings[slot];
+        p.remove(row);
+        if (p.size > 0) return;
+        slotOf.remove(gram);
+        postings[slot] = null;
+        if (freeCount == freeSlots.length) freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        freeSlots[freeCount++] = slot;
+    }
+
+    /** Distinct grams of both fields, sorted. */
+    private static long[] grams(String title, String description) {
+        long[] out = new long[Math.max(0, title.length() - 2) + Math.max(0, description.length() - 2)];
+        int n = 0;
+        for (String s : new String[] { title, description }) {
+            for (int i = 0; i + GRAM <= s.length(); i++) out[n++] = gram(s, i);
+        }
+        Arrays.sort(out);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (distinct == 0 || out[i] != out[distinct - 1]) out[distinct++] = out[i];
+        }
+        return distinct == out.length ? out : Arrays.copyOf(out, distinct);
+    }
+
+    /** Same packing as {@link TextIndex}: three UTF-16 chars in one long. */
+    private static long gram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+}
@@ -0,0 +1,268 @@
+package com.encora.todo.repository;
+
+import com.encora.todo.domain.SortField;
+import com.encora.todo.domain.Todo;
+import com.encora.todo.domain.TodoFilter;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Stripes todos over independent {@link InMemoryTodoRepository} shards, each with its own indexes and
+ * sync-index segment, so writes to different shards share no index structure at all. A todo's shard is a pure function of its
+ * id: ids are dealt in blocks of {@value #BLOCK}, block {@code b} belonging to shard {@code b % shards}, and
+ * each shard issues ids from its own blocks with its own counter. New todos go to a random shard.
+ * Sorted walks merge the shards' index walks; modification sequences come from one shared counter.
+ */
+public class ShardedTodoRepository implements TodoRepository {
+
+    static final int BLOCK = 256;
+    private static final long ID_BASE = 1000;
+
+    private final Shard[] shards;
+    private final SyncIndex.Sequence sequence = new SyncIndex.Sequence();
+
+    public ShardedTodoRepository(int shards) {
+        this(shards, SyncIndex.DEFAULT_TOMBSTONES);
+    }
+
+    /** {@code maxTombstones} is per shard. */
+    public ShardedTodoRepository(int shards, int maxTombstones) {
+        if (shards < 1) throw new IllegalArgumentException("shards must be at least 1");
+        this.shards = new Shard[shards];
+        for (int i = 0; i < shards; i++) {
+            this.shards[i] = new Shard(i, new InMemoryTodoRepository(maxTombstones, sequence));
+        }
+    }
+
+    private final class Shard {
+        final int index;
+        final InMemoryTodoRepository repo;
+        /** Ids issued from this shard's blocks so far, including the positions of restored ids. */
+        final AtomicLong issued = new AtomicLong();
+
+        Shard(int index, InMemoryTodoRepository repo) {
+            this.index = index;
+            this.repo = repo;
+        }
+
+        long nextId() {
+            long n = issued.getAndIncrement();
+            long block = (n / BLOCK) * shards.length + index;
+            return ID_BASE + 1 + block * BLOCK + n % BLOCK;
+        }
+
+        /** Restored ids (snapshot, replay, imports with ids) must never be issued again. */
+        void observe(long id) {
+            long offset = id - ID_BASE - 1;
+            if (offset < 0) return;
+            long n = (offset / BLOCK / shards.length) * BLOCK + offset % BLOCK;
+            issued.accumulateAndGet(n + 1, Math::max);
+        }
+    }
+
+    private Shard shardOf(long id) {
+        return shards[(int) Math.floorMod(Math.floorDiv(id - ID_BASE - 1, BLOCK), (long) shards.length)];
+    }
+
+    /** Gives a new todo an id from a random shard; restored ones are routed by theirs. */
+    private Todo routed(Todo todo) {
+        if (todo.getId() != null) {
+            shardOf(todo.getId()).observe(todo.getId());
+            return todo;
+        }
+        return todo.withId(shards[ThreadLocalRandom.current().nextInt(shards.length)].nextId());
+    }
+
+    int shardCount() {
+        return shards.length;
+    }
+
+    @Override
+    public Todo save(Todo todo) {
+        Todo routed = routed(todo);
+        return shardOf(routed.getId()).repo.save(routed);
+    }
+
+    /** One {@code saveAll} per shard touched; the result keeps the input order. */
+    @Override
+    public List<Todo> saveAll(Collection<Todo> todos) {
+        List<Todo> routed = todos.stream().map(this::routed).toList();
+        return scatter(routed, Todo::getId, (repo, part) -> repo.saveAll(part));
+    }
+
+    @Override
+    public Optional<Todo> replace(Todo current, Todo next) {
+        return shardOf(current.getId()).repo.replace(current, next);
+    }
+
+    @Override
+    public List<Todo> replaceAll(List<Todo> current, List<Todo> next) {
+        List<Integer> positions = new ArrayList<>(current.size());
+        for (int i = 0; i < current.size(); i++) positions.add(i);
+        return scatter(positions, i -> current.get(i).getId(), (repo, part) -> repo.replaceAll(
+                part.stream().map(current::get).toList(), part.stream().map(next::get).toList()));
+    }
+
+    @Override
+    public Optional<Todo> findById(Long id) {
+        return shardOf(id).repo.findById(id);
+    }
+
+    @Override
+    public List<Todo> findAll() {
+        List<Todo> all = new ArrayList<>();
+        for (Shard s : shards) all.addAll(s.repo.findAll());
+        return all;
+    }
+
+    @Override
+    public Optional<Todo> deleteById(Long id) {
+        return shardOf(id).repo.deleteById(id);
+    }
+
+    @Override
+    public List<Todo> deleteAllById(Collection<Long> ids) {
+        Map<Shard, List<Long>> byShard = new LinkedHashMap<>();
+        for (Long id : ids) byShard.computeIfAbsent(shardOf(id), k -> new ArrayList<>()).add(id);
+        List<Todo> removed = new ArrayList<>();
+        byShard.forEach((shard, part) -> removed.addAll(shard.repo.deleteAllById(part)));
+        return removed;
+    }
+
+    @Override
+    public long count() {
+        long n = 0;
+        for (Shard s : shards) n += s.repo.count();
+        return n;
+    }
+
+    /** Each shard's count only grows, so their sum does too. */
+    @Override
+    public long modificationCount() {
+        long n = 0;
+        for (Shard s : shards) n += s.repo.modificationCount();
+        return n;
+    }
+
+    @Override
+    public ChangeSet changesSince(long since, Long after, int limit) {
+        return sequence.changesSince(since, after, limit);
+    }
+
+    @Override
+    public Stream<Todo> findAllSorted(SortField field, boolean descending) {
+        return merge(descending, s -> s.repo.sortedEntries(field, descending));
+    }
+
+    @Override
+    public Stream<Todo> findAllSortedAfter(SortField field, boolean descending, Comparable<?> key, long id) {
+        return merge(descending, s -> s.repo.sortedEntriesAfter(field, descending, key, id));
+    }
+
+    @Override
+    public TodoSelection select(TodoFilter filter) {
+        List<TodoSelection> parts = new ArrayList<>(shards.length);
+        for (Shard s : shards) parts.add(s.repo.select(filter));
+        return new TodoSelection() {
+            @Override
+            public long count() {
+                return parts.stream().mapToLong(TodoSelection::count).sum();
+            }
+
+            @Override
+            public boolean contains(Todo todo) {
+                return parts.get(shardOf(todo.getId()).index).contains(todo);
+            }
+
+            @Override
+            public Stream<Todo> stream() {
+                return parts.stream().flatMap(TodoSelection::stream);
+            }
+        };
+    }
+
+    /** Sums of the per-shard index sizes. */
+    @Override
+    public Map<String, Long> indexSizes() {
+        Map<String, Long> sizes = new LinkedHashMap<>();
+        for (Shard s : shards) s.repo.indexSizes().forEach((name, size) -> sizes.merge(name, size, Long::sum));
+        return sizes;
+    }
+
+    private interface ShardWrite<T> {
+        List<Todo> apply(InMemoryTodoRepository repo, List<T> part);
+    }
+
+    /** Splits {@code items} by shard, writes each part, and puts the results back in input order. */
+    private <T> List<Todo> scatter(List<T> items, Function<T, Long> idOf, ShardWrite<T> write) {
+        Map<Shard, List<Integer>> byShard = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            byShard.computeIfAbsent(shardOf(idOf.apply(items.get(i))), k -> new ArrayList<>()).add(i);
+        }
+        Todo[] results = new Todo[items.size()];
+        byShard.forEach((shard, positions) -> {
+            List<Todo> written = write.apply(shard.repo, positions.stream().map(items::get).toList());
+            for (int i = 0; i < positions.size(); i++) results[positions.get(i)] = written.get(i);
+        });
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Lazy k-way merge of the shards' sort-index walks on the indexes' own (key, id) entries, in index order
+     * (reversed when descending). Only one entry per shard is read ahead, and a todo is looked up only once
+     * its entry comes out of the merge.
+     */
+    private Stream<Todo> merge(boolean descending, Function<Shard, Stream<SortIndex.Entry>> walk) {
+        Comparator<SortIndex.Entry> walkOrder = descending ? SortIndex.ORDER.reversed() : SortIndex.ORDER;
+
+        List<Stream<SortIndex.Entry>> streams = new ArrayList<>(shards.length);
+        for (Shard s : shards) streams.add(walk.apply(s));
+        PriorityQueue<Head> heads = new PriorityQueue<>((x, y) -> walkOrder.compare(x.entry, y.entry));
+        Iterator<SortIndex.Entry> merged = new Iterator<>() {
+            boolean started;
+
+            @Override
+            public boolean hasNext() {
+                if (!started) {
+                    started = true;
+                    for (Stream<SortIndex.Entry> s : streams) new Head(s.iterator()).offerTo(heads);
+                }
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public SortIndex.Entry next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                Head head = heads.poll();
+                SortIndex.Entry entry = head.entry;
+                head.offerTo(heads);
+                return entry;
+            }
+        };
+        Stream<Todo> result = StreamSupport.stream(
+                        Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .map(e -> shardOf(e.id).repo.findById(e.id).orElse(null))
+                .filter(Objects::nonNull);
+        return result.onClose(() -> streams.forEach(Stream::close));
+    }
+
+    private static final class Head {
+        final Iterator<SortIndex.Entry> rest;
+        SortIndex.Entry entry;
+
+        Head(Iterator<SortIndex.Entry> rest) {
+            this.rest = rest;
+        }
+
+        void offerTo(PriorityQueue<Head> heads) {
+            if (!rest.hasNext()) return;
+            entry = rest.next();
+            heads.add(this);
+        }
+    }
+}
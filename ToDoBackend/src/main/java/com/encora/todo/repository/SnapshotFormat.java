@@ -0,0 +1,16 @@
+package com.encora.todo.repository;
+
+import com.encora.todo.domain.Todo;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/** On-disk image of the whole store, written by {@link WalTodoRepository} when it compacts its log. */
+public interface SnapshotFormat {
+
+    void write(Path file, Collection<Todo> todos) throws IOException;
+
+    void read(Path file, Consumer<Todo> sink) throws IOException;
+}
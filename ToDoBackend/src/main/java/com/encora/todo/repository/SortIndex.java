@@ -0,0 +1,103 @@
+package com.encora.todo.repository;
+
+import com.encora.todo.domain.SortField;
+import com.encora.todo.domain.Todo;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * Ordered ids for one {@link SortField}, ties broken by id.
+ * Walks are weakly consistent, not snapshots. A todo whose key doesn't change while a walk runs is met exactly
+ * once. A re-keyed one gets its new entry before losing the old, so a walk may meet it at both positions, and
+ * misses it only if it moved from ahead of the walk to behind it, as a paged client would.
+ */
+final class SortIndex {
+
+    /** Index order: key with nulls last, then id. */
+    static final Comparator<Entry> ORDER = SortIndex::compare;
+
+    private final SortField field;
+    private final NavigableSet<Entry> entries = new ConcurrentSkipListSet<>(ORDER);
+    private final Map<Long, Entry> byId = new ConcurrentHashMap<>();
+
+    SortIndex(SortField field) {
+        this.field = field;
+    }
+
+    /** Callers must serialize writes per id (the repository does this inside {@code store.compute}). */
+    void put(Todo todo) {
+        Entry next = new Entry(field.keyOf(todo), todo.getId());
+        Entry prev = byId.get(todo.getId());
+        // an equal entry stays put: removing and re-adding it would open a gap a walk could fall through
+        if (prev != null && compare(prev, next) == 0) return;
+        entries.add(next);
+        byId.put(todo.getId(), next);
+        if (prev != null) entries.remove(prev);
+    }
+
+    /** Fills an empty index with {@code todos}, sorted once and added in order, before the repository is shared. */
+    void load(Collection<Todo> todos) {
+        Entry[] sorted = new Entry[todos.size()];
+        int n = 0;
+        for (Todo todo : todos) {
+            Entry e = new Entry(field.keyOf(todo), todo.getId());
+            sorted[n++] = e;
+            byId.put(todo.getId(), e);
+        }
+        Arrays.sort(sorted, 0, n, ORDER);
+        for (int i = 0; i < n; i++) entries.add(sorted[i]);
+    }
+
+    void remove(Long id) {
+        Entry prev = byId.remove(id);
+        if (prev != null) entries.remove(prev);
+    }
+
+    int size() {
+        return byId.size();
+    }
+
+    Stream<Long> ids(boolean descending) {
+        return entries(descending).map(e -> e.id);
+    }
+
+    /** Ids strictly after the (key, id) position, in walk order. */
+    Stream<Long> idsAfter(boolean descending, Comparable<?> key, long id) {
+        return entriesAfter(descending, key, id).map(e -> e.id);
+    }
+
+    /** The (key, id) entries themselves in walk order, for merging several indexes on their own keys. */
+    Stream<Entry> entries(boolean descending) {
+        return (descending ? entries.descendingSet() : entries).stream();
+    }
+
+    Stream<Entry> entriesAfter(boolean descending, Comparable<?> key, long id) {
+        Entry probe = new Entry(key, id);
+        NavigableSet<Entry> view = descending
+                ? entries.headSet(probe, false).descendingSet()
+                : entries.tailSet(probe, false);
+        return view.stream();
+    }
+
+    private static int compare(Entry a, Entry b) {
+        int c = SortField.compareKeys(a.key, b.key);
+        return c != 0 ? c : Long.compare(a.id, b.id);
+    }
+
+    static final class Entry {
+        final Comparable<?> key;
+        final long id;
+
+        Entry(Comparable<?> key, long id) {
+            this.key = key;
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.encora.todo.repository;
+
+import com.encora.todo.domain.Todo;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/** Row-by-row snapshot: a header and count followed by {@link TodoRecordCodec} records. */
+public class StreamSnapshotFormat implements SnapshotFormat {
+
+    private static final int MAGIC = 0x54444f56; // "TDOV"
+
+    @Override
+    public void write(Path file, Collection<Todo> todos) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(todos.size());
+            for (Todo t : todos) TodoRecordCodec.write(out, t);
+        }
+    }
+
+    @Override
+    public void read(Path file, Consumer<Todo> sink) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not a todo snapshot: " + file);
+            int n = in.readInt();
+            for (int i = 0; i < n; i++) sink.accept(TodoRecordCodec.read(in));
+        }
+    }
+}
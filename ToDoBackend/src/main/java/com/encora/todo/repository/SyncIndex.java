@@ -0,0 +1,218 @@
+package com.encora.todo.repository;
+
+import com.encora.todo.domain.Todo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+/**
+ * The latest write of every todo keyed by modification sequence, plus a bounded run of tombstones for
+ * deletes, so {@link TodoRepository#changesSince} costs the number of changes rather than the store size.
+ * Writes to one todo must be serialized; writes to different todos may run at once, each bracketed with
+ * {@link #begin()} / {@link #end(long)}. Readers take no lock.
+ */
+final class SyncIndex {
+
+    static final int DEFAULT_TOMBSTONES = 10_000;
+
+    /**
+     * Issues modification sequences to one or more indexes (one per shard) and reads them back merged.
+     * Starts at the process's start second shifted left 20 bits: a sequence handed out by an earlier process
+     * is below this one's start (unless it averaged a million writes a second), and values stay under 2^53
+     * so JavaScript clients can hold them as numbers.
+     */
+    static final class Sequence {
+        private final long start = (System.currentTimeMillis() / 1000) << 20;
+        private final AtomicLong last = new AtomicLong(start);
+        private final List<SyncIndex> indexes = new CopyOnWriteArrayList<>();
+
+        /**
+         * Highest sequence with every one up to it in its index. A write in progress has published its lower
+         * bound in {@code writing} before taking its sequence, so reading {@code last} first can't miss it.
+         */
+        long highWater() {
+            long high = last.get();
+            for (SyncIndex index : indexes) high = Math.min(high, index.lowestWriting() - 1);
+            return high;
+        }
+
+        /**
+         * Up to {@code limit} changes after {@code since} across all indexes, in sequence order. A position this
+         * process can't answer from starts a reset, which is paged like a delta: see {@link #resetPage}. With
+         * {@code after}, {@code since} is the high-water mark of a reset in progress and the page continues it.
+         * A todo deleted while being read is skipped; its tombstone is past the returned high-water mark.
+         */
+        ChangeSet changesSince(long since, Long after, int limit) {
+            long high = highWater();
+            long horizon = start;
+            for (SyncIndex index : indexes) horizon = Math.max(horizon, index.horizon.get());
+            if (since < horizon || since > high) return resetPage(high, Long.MIN_VALUE, true, limit);
+            if (after != null) return resetPage(since, Math.min(after, since), false, limit);
+
+            PriorityQueue<Cursor> cursors = cursors(since, high);
+            List<Todo> changed = new ArrayList<>();
+            List<Long> deleted = new ArrayList<>();
+            long last = since;
+            while (!cursors.isEmpty()) {
+                if (changed.size() + deleted.size() == limit) {
+                    return new ChangeSet(last, false, true, changed, deleted, null);
+                }
+                Cursor c = cursors.poll();
+                Entry entry = c.current.getValue();
+                if (!entry.deleted()) {
+                    Todo todo = c.index.lookup.apply(entry.id());
+                    if (todo != null) changed.add(todo);
+                } else {
+                    deleted.add(entry.id());
+                }
+                last = c.seq();
+                if (c.advance()) cursors.add(c);
+            }
+            return new ChangeSet(high, false, false, changed, deleted, null);
+        }
+
+        /**
+         * Live todos last written in {@code (after, upTo]}, at most {@code limit}. Every page of one reset keeps
+         * {@code upTo} as its high-water mark, so the next page is checked against the tombstone horizon like a
+         * delta from there: deletes of todos already sent are either still retained past it or force a new
+         * reset. Writes during the walk land past {@code upTo} and come with the first delta after it.
+         */
+        private ChangeSet resetPage(long upTo, long after, boolean first, int limit) {
+            PriorityQueue<Cursor> cursors = cursors(after, upTo);
+            List<Todo> changed = new ArrayList<>();
+            long last = after;
+            while (!cursors.isEmpty()) {
+                if (changed.size() == limit) return new ChangeSet(upTo, first, true, changed, List.of(), last);
+                Cursor c = cursors.poll();
+                Entry entry = c.current.getValue();
+                if (!entry.deleted()) {
+                    Todo todo = c.index.lookup.apply(entry.id());
+                    if (todo != null) changed.add(todo);
+                }
+                last = c.seq();
+                if (c.advance()) cursors.add(c);
+            }
+            return new ChangeSet(upTo, first, false, changed, List.of(), null);
+        }
+
+        private PriorityQueue<Cursor> cursors(long after, long upTo) {
+            PriorityQueue<Cursor> cursors = new PriorityQueue<>(Comparator.comparingLong(Cursor::seq));
+            for (SyncIndex index : indexes) {
+                Cursor c = new Cursor(index, index.entries.subMap(after, false, upTo, true));
+                if (c.advance()) cursors.add(c);
+            }
+            return cursors;
+        }
+    }
+
+    private record Entry(long id, boolean deleted) {}
+
+    private static final class Cursor {
+        final SyncIndex index;
+        final Iterator<Map.Entry<Long, Entry>> it;
+        Map.Entry<Long, Entry> current;
+
+        Cursor(SyncIndex index, NavigableMap<Long, Entry> range) {
+            this.index = index;
+            this.it = range.entrySet().iterator();
+        }
+
+        boolean advance() {
+            current = it.hasNext() ? it.next() : null;
+            return current != null;
+        }
+
+        long seq() { return current.getKey(); }
+    }
+
+    private final Sequence sequence;
+    private final LongFunction<Todo> lookup;
+    private final NavigableMap<Long, Entry> entries = new ConcurrentSkipListMap<>();
+    private final Queue<Long> tombstones = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger tombstoneCount = new AtomicInteger();
+    private final int maxTombstones;
+    /** Lower bounds of the sequences the writes in progress take, with how many writes share each. */
+    private final ConcurrentNavigableMap<Long, Integer> writing = new ConcurrentSkipListMap<>();
+    /** Sequences below this may have missed deletes whose tombstones were dropped. */
+    private final AtomicLong horizon;
+
+    /** {@code lookup} resolves an id to the stored todo, or null once it is gone. */
+    SyncIndex(int maxTombstones, Sequence sequence, LongFunction<Todo> lookup) {
+        this.maxTombstones = maxTombstones;
+        this.sequence = sequence;
+        this.lookup = lookup;
+        this.horizon = new AtomicLong(sequence.start);
+        sequence.indexes.add(this);
+    }
+
+    Sequence sequence() {
+        return sequence;
+    }
+
+    /** Opens a write; pass the returned bound to {@link #end(long)} once its sequences are all in place. */
+    long begin() {
+        long from = sequence.last.get() + 1;
+        writing.merge(from, 1, Integer::sum);
+        return from;
+    }
+
+    void end(long from) {
+        writing.computeIfPresent(from, (k, n) -> n == 1 ? null : n - 1);
+    }
+
+    private long lowestWriting() {
+        Map.Entry<Long, Integer> first = writing.firstEntry();
+        return first == null ? Long.MAX_VALUE : first.getKey();
+    }
+
+    /**
+     * Fills an empty index with todos {@code ids}, giving them consecutive fresh sequences added in ascending
+     * order; returns the first, which goes to {@code ids[0]}. Runs before the repository is shared.
+     */
+    long load(long[] ids) {
+        int n = ids.length;
+        long first = sequence.last.getAndAdd(n) + 1;
+        for (int i = 0; i < n; i++) entries.put(first + i, new Entry(ids[i], false));
+        return first;
+    }
+
+    /** Takes the sequence for a write of todo {@code id}, dropping the entry of its previous write (0 if new). */
+    long put(long id, long previousSeq) {
+        long seq = sequence.last.incrementAndGet();
+        entries.remove(previousSeq);
+        entries.put(seq, new Entry(id, false));
+        return seq;
+    }
+
+    void remove(long id, long previousSeq) {
+        long seq = sequence.last.incrementAndGet();
+        entries.remove(previousSeq);
+        entries.put(seq, new Entry(id, true));
+        tombstones.add(seq);
+        if (tombstoneCount.incrementAndGet() > maxTombstones) {
+            Long dropped = tombstones.poll();
+            if (dropped == null) return;
+            tombstoneCount.decrementAndGet();
+            // raise the horizon first, so a reader never walks past the gap the removal leaves
+            horizon.accumulateAndGet(dropped, Math::max);
+            entries.remove(dropped);
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+}
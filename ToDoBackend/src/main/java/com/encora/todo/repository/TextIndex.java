@@ -0,0 +1,133 @@
+package com.encora.todo.repository;
+
+import com.encora.todo.domain.Todo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Trigram index over lower-cased title and description.
+ * Needles of three or more chars are answered from the smallest posting list; every candidate is
+ * re-checked with {@code contains} so results match a plain substring scan exactly.
+ */
+final class TextIndex {
+
+    private static final int GRAM = 3;
+
+    private final Map<Long, String[]> lowered = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    /** Callers must serialize writes per id. */
+    void put(Todo todo) {
+        Long id = todo.getId();
+        String[] next = { lower(todo.getTitle()), lower(todo.getDescription()) };
+        String[] prev = lowered.put(id, next);
+        if (prev != null && prev[0].equals(next[0]) && prev[1].equals(next[1])) return;
+
+        Set<Long> nextGrams = grams(next);
+        if (prev != null) {
+            for (Long g : grams(prev)) {
+                if (!nextGrams.contains(g)) unlink(g, id);
+            }
+        }
+        for (Long g : nextGrams) {
+            postings.compute(g, (k, ids) -> {
+                if (ids == null) ids = ConcurrentHashMap.newKeySet();
+                ids.add(id);
+                return ids;
+            });
+        }
+    }
+
+    /** Fills an empty index, grouping postings by trigram so each set is created once at its final size. */
+    void load(Collection<Todo> todos) {
+        Map<Long, List<Long>> grouped = new HashMap<>();
+        for (Todo todo : todos) {
+            String[] fields = { lower(todo.getTitle()), lower(todo.getDescription()) };
+            lowered.put(todo.getId(), fields);
+            for (Long g : grams(fields)) grouped.computeIfAbsent(g, k -> new ArrayList<>()).add(todo.getId());
+        }
+        grouped.forEach((g, ids) -> {
+            Set<Long> set = ConcurrentHashMap.newKeySet(ids.size());
+            set.addAll(ids);
+            postings.put(g, set);
+        });
+    }
+
+    void remove(Long id) {
+        String[] prev = lowered.remove(id);
+        if (prev == null) return;
+        for (Long g : grams(prev)) unlink(g, id);
+    }
+
+    /** Ids whose title or description contains {@code text}, ignoring case. */
+    Set<Long> matching(String text) {
+        String needle = lower(text);
+        Set<Long> out = new HashSet<>();
+
+        if (needle.length() < GRAM) {
+            lowered.forEach((id, fields) -> {
+                if (matches(fields, needle)) out.add(id);
+            });
+            return out;
+        }
+
+        Set<Long> smallest = null;
+        for (int i = 0; i + GRAM <= needle.length(); i++) {
+            Set<Long> ids = postings.get(gram(needle, i));
+            if (ids == null) return out;
+            if (smallest == null || ids.size() < smallest.size()) smallest = ids;
+        }
+        for (Long id : smallest) {
+            String[] fields = lowered.get(id);
+            if (fields != null && matches(fields, needle)) out.add(id);
+        }
+        return out;
+    }
+
+    /** Distinct trigrams with at least one posting. */
+    int gramCount() {
+        return postings.size();
+    }
+
+    /** Whether the indexed text of {@code id} contains an already lower-cased needle. */
+    boolean contains(Long id, String loweredNeedle) {
+        String[] fields = lowered.get(id);
+        return fields != null && matches(fields, loweredNeedle);
+    }
+
+    private void unlink(Long gram, Long id) {
+        postings.computeIfPresent(gram, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static boolean matches(String[] fields, String needle) {
+        return fields[0].contains(needle) || fields[1].contains(needle);
+    }
+
+    private static Set<Long> grams(String[] fields) {
+        Set<Long> out = new HashSet<>();
+        for (String s : fields) {
+            for (int i = 0; i + GRAM <= s.length(); i++) out.add(gram(s, i));
+        }
+        return out;
+    }
+
+    /** Packs three UTF-16 chars into one long so postings are keyed without substring allocation. */
+    private static long gram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    static String lower(String s) {
+        return s == null ? "" : s.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,80 @@
+package com.encora.todo.repository;
+
+import com.encora.todo.domain.Priority;
+import com.encora.todo.domain.Todo;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/** Compact binary form of one {@link Todo}, shared by the write-ahead log and stream snapshots. */
+final class TodoRecordCodec {
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private TodoRecordCodec() {}
+
+    static void write(DataOutput out, Todo t) throws IOException {
+        out.writeLong(t.getId());
+        writeString(out, t.getTitle());
+        writeString(out, t.getDescription());
+        out.writeByte(t.getPriority() == null ? -1 : t.getPriority().ordinal());
+        out.writeBoolean(t.isDone());
+        writeTime(out, t.getDueDate());
+        writeTime(out, t.getDoneDate());
+        writeTime(out, t.getCreatedAt());
+        writeTime(out, t.getUpdatedAt());
+        out.writeLong(t.getVersion());
+    }
+
+    static Todo read(DataInput in) throws IOException {
+        Todo.Builder t = Todo.builder();
+        t.id(in.readLong());
+        t.title(readString(in));
+        t.description(readString(in));
+        byte p = in.readByte();
+        t.priority(p < 0 ? null : PRIORITIES[p]);
+        t.done(in.readBoolean());
+        t.dueDate(readTime(in));
+        t.doneDate(readTime(in));
+        t.createdAt(readTime(in));
+        t.updatedAt(readTime(in));
+        t.version(in.readLong());
+        return t.build();
+    }
+
+    private static void writeString(DataOutput out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int len = in.readInt();
+        if (len < 0) return null;
+        byte[] bytes = new byte[len];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeTime(DataOutput out, LocalDateTime time) throws IOException {
+        out.writeBoolean(time != null);
+        if (time == null) return;
+        out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(time.getNano());
+    }
+
+    private static LocalDateTime readTime(DataInput in) throws IOException {
+        if (!in.readBoolean()) return null;
+        long seconds = in.readLong();
+        int nanos = in.readInt();
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+}
@@ -1,14 +1,62 @@
 package com.encora.todo.repository;
 
+import com.encora.todo.domain.SortField;
 import com.encora.todo.domain.Todo;
+import com.encora.todo.domain.TodoFilter;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface TodoRepository {
+    /**
+     * Stores {@code todo} unconditionally and returns the stored instance: new todos get an id, and
+     * a version of 0 becomes one past whatever it replaces. Restored todos keep their version.
+     */
     Todo save(Todo todo);
+    /** Saves a batch, paying index and durability costs once rather than per todo. */
+    List<Todo> saveAll(Collection<Todo> todos);
+    /**
+     * Compare-and-set: stores {@code next} under {@code current}'s id with the version bumped, but
+     * only while the stored version still equals {@code current}'s. Empty if it moved on or is gone.
+     */
+    Optional<Todo> replace(Todo current, Todo next);
+    /** {@link #replace} for pairs of a batch; the result lines up with the input, null where it failed. */
+    List<Todo> replaceAll(List<Todo> current, List<Todo> next);
     Optional<Todo> findById(Long id);
     List<Todo> findAll();
-    void deleteById(Long id);
+    /** Removes the todo and returns the instance removed; empty if it was gone, so of racing deletes one wins. */
+    Optional<Todo> deleteById(Long id);
+    /** {@link #deleteById} for a batch: the todos this call removed, each once, missing ids skipped. */
+    List<Todo> deleteAllById(Collection<Long> ids);
     long count();
+    /** Grows with every write, after the write is visible; starts over when the process does. */
+    long modificationCount();
+
+    /**
+     * Todos written and ids deleted after modification sequence {@code since}, in sequence order and at
+     * most {@code limit} of them, read from a sequence-ordered index rather than by scanning the store.
+     * {@code after} continues a paged reset (see {@link ChangeSet#resumeAfter()}); null otherwise.
+     */
+    ChangeSet changesSince(long since, Long after, int limit);
+
+    default ChangeSet changesSince(long since, int limit) {
+        return changesSince(since, null, limit);
+    }
+
+    /** Lazily walks all todos ordered by {@code field} (ties by id); stop consuming once you have enough. */
+    Stream<Todo> findAllSorted(SortField field, boolean descending);
+
+    /** Same walk as {@link #findAllSorted}, seeking to just past the given (key, id) position. */
+    Stream<Todo> findAllSortedAfter(SortField field, boolean descending, Comparable<?> key, long id);
+
+    /** Resolves a filter against the repository's indexes without scanning the store. */
+    TodoSelection select(TodoFilter filter);
+
+    /** Entry counts of the repository's indexes, by name, for monitoring; cheap enough to poll. */
+    default Map<String, Long> indexSizes() {
+        return Map.of();
+    }
 }
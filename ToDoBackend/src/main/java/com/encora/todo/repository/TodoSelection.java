@@ -0,0 +1,17 @@
+package com.encora.todo.repository;
+
+import com.encora.todo.domain.Todo;
+
+import java.util.stream.Stream;
+
+/** Todos matching a {@link com.encora.todo.domain.TodoFilter}, resolved from the repository's indexes. */
+public interface TodoSelection {
+
+    /** Number of matches, known without touching any Todo. */
+    long count();
+
+    boolean contains(Todo todo);
+
+    /** Matching todos in no particular order. */
+    Stream<Todo> stream();
+}
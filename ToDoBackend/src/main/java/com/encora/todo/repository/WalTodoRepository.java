@@ -0,0 +1,445 @@
+package com.encora.todo.repository;
+
+import com.encora.todo.domain.SortField;
+import com.encora.todo.domain.Todo;
+import com.encora.todo.domain.TodoFilter;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Durable repository: writes go to a {@link WriteAheadLog} and reach the in-memory store only once they are on
+ * disk, so readers never see a write that could be lost; reads never touch disk. A write whose log append
+ * fails leaves memory untouched, and the log then rejects every later write.
+ * After {@code snapshotAfterRecords} log records the store is written to {@code snapshot-<gen>.dat} and the
+ * log generations it covers are deleted. Startup loads the newest snapshot and replays the log after it.
+ */
+public class WalTodoRepository implements TodoRepository, Closeable {
+
+    private static final byte DELETE = 2;
+    private static final byte DELETE_ALL = 4;
+    private static final byte PUT = 5;
+    private static final byte PUT_ALL = 6;
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".dat";
+
+    private final InMemoryTodoRepository memory;
+    private final Path dir;
+    private final SnapshotFormat snapshotFormat;
+    private final long snapshotAfterRecords;
+    private final WriteAheadLog log;
+
+    // held while preparing and enqueueing, so each write is checked against every write logged before it.
+    // Locks rather than monitors: a virtual thread waiting on one unmounts instead of pinning its carrier.
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private final AtomicLong sinceSnapshot = new AtomicLong();
+    private final AtomicBoolean snapshotQueued = new AtomicBoolean();
+    /** Latest logged state of each todo whose write has not reached memory yet; a null todo is a delete. */
+    private final Map<Long, Logged> unapplied = new ConcurrentHashMap<>();
+    private final ExecutorService snapshotter = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "todo-snapshot");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public WalTodoRepository(Path dir, SnapshotFormat snapshotFormat, long snapshotAfterRecords) {
+        this(dir, snapshotFormat, snapshotAfterRecords, SyncIndex.DEFAULT_TOMBSTONES);
+    }
+
+    /**
+     * Modification sequences are not logged: recovery stamps fresh ones, and sync positions from before the
+     * restart are answered with a reset.
+     */
+    public WalTodoRepository(Path dir, SnapshotFormat snapshotFormat, long snapshotAfterRecords, int maxTombstones) {
+        this.memory = new InMemoryTodoRepository(maxTombstones);
+        this.dir = dir;
+        this.snapshotFormat = snapshotFormat;
+        this.snapshotAfterRecords = snapshotAfterRecords;
+        try {
+            Files.createDirectories(dir);
+            this.log = new WriteAheadLog(dir, recover() + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open todo store in " + dir, e);
+        }
+    }
+
+    @Override
+    public Todo save(Todo todo) {
+        CompletableFuture<Todo> applied;
+        appendLock.lock();
+        try {
+            Map<Long, Logged> batch = new HashMap<>();
+            Todo prepared = prepare(todo, batch);
+            applied = append(encodePut(prepared), batch, () -> memory.save(prepared));
+        } finally {
+            appendLock.unlock();
+        }
+        return awaitDurable(applied, 1);
+    }
+
+    /** A failed compare-and-set writes nothing to the log. */
+    @Override
+    public Optional<Todo> replace(Todo current, Todo next) {
+        CompletableFuture<Todo> applied;
+        appendLock.lock();
+        try {
+            Map<Long, Logged> batch = new HashMap<>();
+            Todo prepared = swap(current, next, batch);
+            if (prepared == null) return Optional.empty();
+            applied = append(encodePut(prepared), batch, () -> memory.save(prepared));
+        } finally {
+            appendLock.unlock();
+        }
+        return Optional.of(awaitDurable(applied, 1));
+    }
+
+    @Override
+    public List<Todo> replaceAll(List<Todo> current, List<Todo> next) {
+        CompletableFuture<List<Todo>> applied;
+        List<Todo> prepared = new ArrayList<>(current.size());
+        List<Todo> swapped;
+        appendLock.lock();
+        try {
+            Map<Long, Logged> batch = new HashMap<>();
+            for (int i = 0; i < current.size(); i++) prepared.add(swap(current.get(i), next.get(i), batch));
+            swapped = prepared.stream().filter(Objects::nonNull).toList();
+            if (swapped.isEmpty()) return prepared;
+            applied = append(encodePutAll(swapped), batch, () -> memory.saveAll(swapped));
+        } finally {
+            appendLock.unlock();
+        }
+        Iterator<Todo> stored = awaitDurable(applied, swapped.size()).iterator();
+        List<Todo> out = new ArrayList<>(prepared.size());
+        for (Todo p : prepared) out.add(p == null ? null : stored.next());
+        return out;
+    }
+
+    @Override
+    public Optional<Todo> deleteById(Long id) {
+        CompletableFuture<Optional<Todo>> applied;
+        appendLock.lock();
+        try {
+            Map<Long, Logged> batch = new HashMap<>();
+            if (current(id, batch) == null) return Optional.empty();
+            batch.put(id, new Logged(null));
+            applied = append(encodeDelete(id), batch, () -> memory.deleteById(id));
+        } finally {
+            appendLock.unlock();
+        }
+        return awaitDurable(applied, 1);
+    }
+
+    /** One log record and one fsync wait for the whole batch. */
+    @Override
+    public List<Todo> saveAll(Collection<Todo> todos) {
+        if (todos.isEmpty()) return List.of();
+        CompletableFuture<List<Todo>> applied;
+        appendLock.lock();
+        try {
+            Map<Long, Logged> batch = new HashMap<>();
+            List<Todo> prepared = new ArrayList<>(todos.size());
+            for (Todo todo : todos) prepared.add(prepare(todo, batch));
+            applied = append(encodePutAll(prepared), batch, () -> memory.saveAll(prepared));
+        } finally {
+            appendLock.unlock();
+        }
+        return awaitDurable(applied, todos.size());
+    }
+
+    @Override
+    public List<Todo> deleteAllById(Collection<Long> ids) {
+        CompletableFuture<List<Todo>> applied;
+        List<Long> present = new ArrayList<>();
+        appendLock.lock();
+        try {
+            Map<Long, Logged> batch = new HashMap<>();
+            for (Long id : ids) {
+                if (current(id, batch) == null) continue;
+                present.add(id);
+                batch.put(id, new Logged(null));
+            }
+            if (present.isEmpty()) return List.of();
+            applied = append(encode(out -> {
+                out.writeByte(DELETE_ALL);
+                out.writeInt(present.size());
+                for (Long id : present) out.writeLong(id);
+            }), batch, () -> memory.deleteAllById(present));
+        } finally {
+            appendLock.unlock();
+        }
+        return awaitDurable(applied, present.size());
+    }
+
+    /**
+     * The todo as the log has it: this batch's changes first, then writes still in flight, then memory.
+     * Call under the append lock.
+     */
+    private Todo current(Long id, Map<Long, Logged> batch) {
+        Logged logged = batch.get(id);
+        if (logged == null) logged = unapplied.get(id);
+        return logged != null ? logged.todo : memory.findById(id).orElse(null);
+    }
+
+    /** {@code todo} exactly as {@link InMemoryTodoRepository#save} will store it: id issued, version settled. */
+    private Todo prepare(Todo todo, Map<Long, Logged> batch) {
+        long id = todo.getId() != null ? todo.getId() : memory.nextId();
+        Todo prev = current(id, batch);
+        long version = todo.getVersion() > 0 ? todo.getVersion() : prev == null ? 1 : prev.getVersion() + 1;
+        Todo prepared = todo.toBuilder().id(id).version(version).build();
+        batch.put(id, new Logged(prepared));
+        return prepared;
+    }
+
+    /** The compare-and-set against the logged state; null, with nothing added to the batch, if it fails. */
+    private Todo swap(Todo current, Todo next, Map<Long, Logged> batch) {
+        Todo prev = current(current.getId(), batch);
+        if (prev == null || prev.getVersion() != current.getVersion()) return null;
+        Todo prepared = next.toBuilder().id(prev.getId()).version(prev.getVersion() + 1).build();
+        batch.put(prepared.getId(), new Logged(prepared));
+        return prepared;
+    }
+
+    /**
+     * Marks {@code batch} in flight and logs {@code record}; {@code apply} runs on the log's writer thread once
+     * the record is on disk, in log order, so memory (and every reader) only ever holds durable writes.
+     */
+    private <T> CompletableFuture<T> append(byte[] record, Map<Long, Logged> batch, Supplier<T> apply) {
+        unapplied.putAll(batch);
+        try {
+            return log.append(record, () -> {
+                try {
+                    return apply.get();
+                } finally {
+                    // the record is on disk even if memory refused it; later writes must not build on it either way
+                    batch.forEach(unapplied::remove);
+                }
+            });
+        } catch (RuntimeException e) {
+            batch.forEach(unapplied::remove);
+            throw e;
+        }
+    }
+
+    @Override
+    public Optional<Todo> findById(Long id) { return memory.findById(id); }
+
+    @Override
+    public List<Todo> findAll() { return memory.findAll(); }
+
+    @Override
+    public long count() { return memory.count(); }
+
+    @Override
+    public long modificationCount() { return memory.modificationCount(); }
+
+    @Override
+    public ChangeSet changesSince(long since, Long after, int limit) { return memory.changesSince(since, after, limit); }
+
+    @Override
+    public Stream<Todo> findAllSorted(SortField field, boolean descending) {
+        return memory.findAllSorted(field, descending);
+    }
+
+    @Override
+    public Stream<Todo> findAllSortedAfter(SortField field, boolean descending, Comparable<?> key, long id) {
+        return memory.findAllSortedAfter(field, descending, key, id);
+    }
+
+    @Override
+    public TodoSelection select(TodoFilter filter) { return memory.select(filter); }
+
+    @Override
+    public Map<String, Long> indexSizes() { return memory.indexSizes(); }
+
+    /** Writes the whole store to a new snapshot and deletes the log generations it replaces. */
+    public void snapshot() throws IOException {
+        snapshotLock.lock();
+        try {
+            CompletableFuture<Long> rolled;
+            appendLock.lock();
+            try {
+                rolled = log.roll();
+                sinceSnapshot.set(0);
+            } finally {
+                appendLock.unlock();
+            }
+            // once the roll is through, every write logged before the new generation is in memory. Some logged
+            // after it may be too; replaying them over the snapshot at startup changes nothing, since each
+            // record holds a whole todo or a delete
+            long gen = join(rolled);
+            List<Todo> todos = memory.findAll();
+            Path tmp = dir.resolve(SNAPSHOT_PREFIX + "tmp");
+            snapshotFormat.write(tmp, todos);
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                ch.force(true);
+            }
+            Files.move(tmp, snapshotFile(gen), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            deleteBefore(gen);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        snapshotter.shutdown();
+        try {
+            snapshotter.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.close();
+    }
+
+    /** Loads the newest snapshot and replays later log generations; returns the last generation seen. */
+    private long recover() throws IOException {
+        long base = 0;
+        List<Long> snapshots = WriteAheadLog.generations(dir, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        if (!snapshots.isEmpty()) {
+            base = snapshots.get(snapshots.size() - 1);
+            // read whole, then indexed in one pass per index rather than once per todo
+            List<Todo> restored = new ArrayList<>();
+            snapshotFormat.read(snapshotFile(base), restored::add);
+            memory.load(restored);
+        }
+        long last = base;
+        for (long gen : WriteAheadLog.generations(dir, "wal-", ".log")) {
+            if (gen < base) continue;
+            WriteAheadLog.replay(WriteAheadLog.file(dir, gen), this::apply);
+            last = Math.max(last, gen);
+        }
+        deleteBefore(base);
+        return last;
+    }
+
+    private void apply(byte[] frame) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame));
+            byte op = in.readByte();
+            switch (op) {
+                case PUT -> memory.save(TodoRecordCodec.read(in));
+                case DELETE -> memory.deleteById(in.readLong());
+                case PUT_ALL -> {
+                    List<Todo> todos = new ArrayList<>();
+                    for (int n = in.readInt(); n > 0; n--) todos.add(TodoRecordCodec.read(in));
+                    memory.saveAll(todos);
+                }
+                case DELETE_ALL -> {
+                    List<Long> ids = new ArrayList<>();
+                    for (int n = in.readInt(); n > 0; n--) ids.add(in.readLong());
+                    memory.deleteAllById(ids);
+                }
+                default -> throw new IOException("Unknown log record type " + op);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private <T> T awaitDurable(CompletableFuture<T> applied, int records) {
+        T result = join(applied);
+        if (sinceSnapshot.addAndGet(records) >= snapshotAfterRecords && snapshotQueued.compareAndSet(false, true)) {
+            snapshotter.execute(() -> {
+                snapshotQueued.set(false);
+                try {
+                    snapshot();
+                } catch (IOException | UncheckedIOException e) {
+                    // the log still holds everything; the next threshold crossing retries
+                    sinceSnapshot.set(snapshotAfterRecords / 2);
+                }
+            });
+        }
+        return result;
+    }
+
+    private static <T> T join(CompletableFuture<T> f) {
+        try {
+            return f.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+    }
+
+    private void deleteBefore(long gen) throws IOException {
+        for (long g : WriteAheadLog.generations(dir, "wal-", ".log")) {
+            if (g < gen) Files.deleteIfExists(WriteAheadLog.file(dir, g));
+        }
+        for (long g : WriteAheadLog.generations(dir, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (g < gen) Files.deleteIfExists(snapshotFile(g));
+        }
+    }
+
+    private Path snapshotFile(long gen) {
+        return dir.resolve(String.format("%s%06d%s", SNAPSHOT_PREFIX, gen, SNAPSHOT_SUFFIX));
+    }
+
+    private static byte[] encodePut(Todo todo) {
+        return encode(out -> {
+            out.writeByte(PUT);
+            TodoRecordCodec.write(out, todo);
+        });
+    }
+
+    private static byte[] encodePutAll(List<Todo> todos) {
+        return encode(out -> {
+            out.writeByte(PUT_ALL);
+            out.writeInt(todos.size());
+            for (Todo t : todos) TodoRecordCodec.write(out, t);
+        });
+    }
+
+    private static byte[] encodeDelete(Long id) {
+        return encode(out -> {
+            out.writeByte(DELETE);
+            out.writeLong(id);
+        });
+    }
+
+    /** Identity matters: an entry is cleared only by the write that put it. */
+    private static final class Logged {
+        final Todo todo;
+
+        Logged(Todo todo) {
+            this.todo = todo;
+        }
+    }
+
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static byte[] encode(RecordWriter writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writer.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
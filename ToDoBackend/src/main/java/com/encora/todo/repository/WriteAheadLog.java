@@ -0,0 +1,255 @@
+package com.encora.todo.repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log split into numbered generation files ({@code wal-<gen>.log}).
+ * A single writer thread drains every queued frame, writes them together and fsyncs once,
+ * so concurrent appenders share one disk sync (group commit). Frames are
+ * {@code [int length][int crc32][payload]}; replay stops at the first torn or corrupt frame.
+ * The first IO error fails the log for good: that batch and every later append are rejected.
+ */
+final class WriteAheadLog implements Closeable {
+
+    private static final int HEADER = 8;
+    private static final int MAX_BATCH = 4096;
+    private static final long POLL_MILLIS = 50;
+
+    private final Path dir;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    // makes enqueue's closed check and its add one step against close()
+    private final Object lifecycle = new Object();
+    private FileChannel channel;
+    private long generation;
+    private volatile boolean closed;
+    private volatile UncheckedIOException failure;
+
+    WriteAheadLog(Path dir, long generation) throws IOException {
+        this.dir = dir;
+        open(generation);
+        this.writer = new Thread(this::run, "todo-wal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    static Path file(Path dir, long generation) {
+        return dir.resolve(String.format("wal-%06d.log", generation));
+    }
+
+    /**
+     * Queues a frame. Once it is on disk the writer thread runs {@code onDurable}, in log order with the
+     * other frames' callbacks, and the future completes with its result.
+     */
+    <T> CompletableFuture<T> append(byte[] payload, Supplier<T> onDurable) {
+        CompletableFuture<T> done = new CompletableFuture<>();
+        enqueue(new Pending(payload, () -> done.complete(onDurable.get()), done));
+        return done;
+    }
+
+    /** Closes the current file after every frame queued so far; completes with the new generation. */
+    CompletableFuture<Long> roll() {
+        CompletableFuture<Long> done = new CompletableFuture<>();
+        enqueue(new Pending(null, () -> done.complete(generation), done));
+        return done;
+    }
+
+    /** Feeds every intact frame to {@code sink} and cuts off a torn tail left by a crash. */
+    static void replay(Path file, Consumer<byte[]> sink) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            long pos = 0, size = ch.size();
+            while (pos + HEADER <= size) {
+                header.clear();
+                ch.read(header, pos);
+                header.flip();
+                int len = header.getInt();
+                int crc = header.getInt();
+                if (len < 0 || pos + HEADER + len > size) break;
+                ByteBuffer payload = ByteBuffer.allocate(len);
+                ch.read(payload, pos + HEADER);
+                if (crc(payload.array()) != crc) break;
+                sink.accept(payload.array());
+                pos += HEADER + len;
+            }
+            if (pos < size) ch.truncate(pos);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (lifecycle) {
+            closed = true;
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // only left if the writer died or we were interrupted waiting for it; never leave a caller hanging
+        List<Pending> left = new ArrayList<>();
+        queue.drainTo(left);
+        IllegalStateException closedError = new IllegalStateException("Write-ahead log is closed");
+        for (Pending p : left) p.done.completeExceptionally(closedError);
+        channel.close();
+    }
+
+    private void enqueue(Pending p) {
+        synchronized (lifecycle) {
+            if (failure != null) throw failure;
+            if (closed) throw new IllegalStateException("Write-ahead log is closed");
+            queue.add(p);
+        }
+    }
+
+    private void open(long gen) throws IOException {
+        this.channel = FileChannel.open(file(dir, gen),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.generation = gen;
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>();
+        while (true) {
+            Pending first;
+            try {
+                // poll rather than interrupt on close: an interrupt mid-write would close the channel
+                first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (first == null) {
+                // nothing can be queued once closed is set, so an empty queue after it stays empty
+                if (closed && queue.isEmpty()) return;
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, MAX_BATCH - 1);
+            // appends that raced the failure are rejected like the batch that hit it
+            if (failure == null) writeBatch(batch);
+            else fail(batch, 0);
+            batch.clear();
+        }
+    }
+
+    private void writeBatch(List<Pending> batch) {
+        List<ByteBuffer> buffers = new ArrayList<>(batch.size());
+        int from = 0;
+        long start = -1;
+        try {
+            start = channel.position();
+            for (int i = 0; i < batch.size(); i++) {
+                Pending p = batch.get(i);
+                if (p.payload != null) {
+                    buffers.add(frame(p.payload));
+                    continue;
+                }
+                // roll marker: everything before it belongs to the current generation
+                flush(buffers);
+                complete(batch, from, i);
+                channel.close();
+                start = -1;
+                open(generation + 1);
+                start = channel.position();
+                p.onDurable.run();
+                from = i + 1;
+            }
+            flush(buffers);
+            complete(batch, from, batch.size());
+        } catch (IOException e) {
+            failure = new UncheckedIOException("Write-ahead log failed; no further writes are accepted", e);
+            // frames of the failed batch may have reached the file; none of their writers were told so
+            if (start >= 0) {
+                try {
+                    channel.truncate(start);
+                } catch (IOException ignored) {
+                    // replay may bring them back; nothing more can be done on a failing disk
+                }
+            }
+            fail(batch, from);
+        }
+    }
+
+    private void fail(List<Pending> batch, int from) {
+        for (int i = from; i < batch.size(); i++) batch.get(i).done.completeExceptionally(failure);
+    }
+
+    private void flush(List<ByteBuffer> buffers) throws IOException {
+        if (buffers.isEmpty()) return;
+        ByteBuffer[] array = buffers.toArray(new ByteBuffer[0]);
+        long remaining = 0;
+        for (ByteBuffer b : array) remaining += b.remaining();
+        while (remaining > 0) remaining -= channel.write(array);
+        channel.force(false);
+        buffers.clear();
+    }
+
+    private void complete(List<Pending> batch, int from, int to) {
+        for (int i = from; i < to; i++) {
+            Pending p = batch.get(i);
+            try {
+                p.onDurable.run();
+            } catch (RuntimeException e) {
+                p.done.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static ByteBuffer frame(byte[] payload) {
+        ByteBuffer b = ByteBuffer.allocate(HEADER + payload.length);
+        b.putInt(payload.length).putInt(crc(payload)).put(payload).flip();
+        return b;
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    static List<Long> generations(Path dir, String prefix, String suffix) throws IOException {
+        List<Long> out = new ArrayList<>();
+        try (var files = Files.list(dir)) {
+            files.map(p -> p.getFileName().toString())
+                    .filter(n -> n.startsWith(prefix) && n.endsWith(suffix))
+                    .forEach(n -> {
+                        try {
+                            out.add(Long.parseLong(n.substring(prefix.length(), n.length() - suffix.length())));
+                        } catch (NumberFormatException ignore) {
+                            // not one of ours
+                        }
+                    });
+        }
+        out.sort(null);
+        return out;
+    }
+
+    private static final class Pending {
+        /** Null for a roll marker. */
+        final byte[] payload;
+        final Runnable onDurable;
+        final CompletableFuture<?> done;
+
+        Pending(byte[] payload, Runnable onDurable, CompletableFuture<?> done) {
+            this.payload = payload;
+            this.onDurable = onDurable;
+            this.done = done;
+        }
+    }
+}
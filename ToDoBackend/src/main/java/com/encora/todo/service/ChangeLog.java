@@ -0,0 +1,154 @@
+package com.encora.todo.service;
+
+import com.encora.todo.dto.TodoChange;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Recent writes in a fixed-size ring, numbered by a sequence that only grows. Writers claim a slot and
+ * overwrite whatever was there; each subscriber keeps its own position and reads at its own pace, so a
+ * slow one only falls behind. One that falls a whole ring behind is told to reset: refetch, then
+ * continue from the head. Event ids carry a per-process epoch so ids from a previous run never resume.
+ */
+public class ChangeLog {
+
+    public record Event(long seq, TodoChange change) {}
+
+    /** READY opens a fresh subscription, RESET means events were lost and the client must refetch. */
+    public enum Signal { NONE, READY, RESET }
+
+    public record Batch(Signal signal, List<Event> events, long position) {}
+
+    private final int mask;
+    private final AtomicReferenceArray<Event> ring;
+    private final AtomicLong head = new AtomicLong();
+    private final String epoch = Long.toHexString(System.currentTimeMillis());
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean wakePending = new AtomicBoolean();
+    // wakes subscribers off the writer's thread; writers only ever pay for one CAS
+    private final Executor dispatcher = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "todo-changes");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** {@code capacity} is rounded up to a power of two. */
+    public ChangeLog(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.mask = size - 1;
+        this.ring = new AtomicReferenceArray<>(size);
+    }
+
+    public void append(TodoChange change) {
+        long seq = head.incrementAndGet();
+        ring.set((int) (seq & mask), new Event(seq, change));
+        if (!subscriptions.isEmpty() && wakePending.compareAndSet(false, true)) {
+            dispatcher.execute(this::wakeAll);
+        }
+    }
+
+    private void wakeAll() {
+        wakePending.set(false);
+        subscriptions.forEach(s -> s.wake.run());
+    }
+
+    public long head() {
+        return head.get();
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    public String eventId(long seq) {
+        return epoch + "-" + seq;
+    }
+
+    /**
+     * Subscribes after {@code lastEventId} (as sent back by an SSE client), or at the head when it is null.
+     * {@code wake} is called, on another thread, whenever there may be something new to poll.
+     */
+    public Subscription subscribe(String lastEventId, Runnable wake) {
+        Signal first = Signal.READY;
+        long position = head.get();
+        if (lastEventId != null) {
+            long resumed = parse(lastEventId);
+            if (resumed >= 0 && resumed <= position) {
+                first = Signal.NONE;
+                position = resumed;
+            } else {
+                first = Signal.RESET;
+            }
+        }
+        Subscription s = new Subscription(position, first, wake);
+        subscriptions.add(s);
+        return s;
+    }
+
+    private long parse(String eventId) {
+        String prefix = epoch + "-";
+        if (!eventId.startsWith(prefix)) return -1;
+        try {
+            return Long.parseLong(eventId.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /** Up to {@code max} events after {@code after}; a RESET batch when some of them were overwritten. */
+    Batch readAfter(long after, int max) {
+        long last = head.get();
+        if (last - after > mask + 1) return new Batch(Signal.RESET, List.of(), last);
+        List<Event> events = new ArrayList<>((int) Math.max(0, Math.min(max, last - after)));
+        for (long seq = after + 1; seq <= last && events.size() < max; seq++) {
+            Event e = ring.get((int) (seq & mask));
+            // slot claimed but not written yet: stop here, its writer will wake us
+            if (e == null || e.seq() < seq) break;
+            if (e.seq() > seq) return new Batch(Signal.RESET, List.of(), head.get());
+            events.add(e);
+        }
+        return new Batch(Signal.NONE, events, after + events.size());
+    }
+
+    /** One reader's position. Polls must not run concurrently with each other. */
+    public final class Subscription implements AutoCloseable {
+        private final Runnable wake;
+        private volatile long position;
+        private volatile Signal pending;
+
+        private Subscription(long position, Signal first, Runnable wake) {
+            this.position = position;
+            this.pending = first;
+            this.wake = wake;
+        }
+
+        public Batch poll(int max) {
+            if (pending != Signal.NONE) {
+                Signal signal = pending;
+                pending = Signal.NONE;
+                if (signal == Signal.RESET) position = head.get();
+                return new Batch(signal, List.of(), position);
+            }
+            Batch batch = readAfter(position, max);
+            position = batch.position();
+            return batch;
+        }
+
+        @Override
+        public void close() {
+            subscriptions.remove(this);
+        }
+    }
+}
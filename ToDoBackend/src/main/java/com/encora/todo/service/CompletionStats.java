@@ -0,0 +1,68 @@
+package com.encora.todo.service;
+
+import com.encora.todo.domain.Priority;
+import com.encora.todo.domain.Todo;
+import com.encora.todo.dto.CompletionMetricsResponse;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running sum and count of {@code doneDate - createdAt} overall and per priority.
+ * Callers {@link #remove} a todo's old state and {@link #add} its new one around every change,
+ * so reading the averages never touches the store.
+ */
+final class CompletionStats {
+
+    private final Bucket all = new Bucket();
+    private final Map<Priority, Bucket> byPriority = new EnumMap<>(Priority.class);
+
+    CompletionStats() {
+        for (Priority p : Priority.values()) byPriority.put(p, new Bucket());
+    }
+
+    void add(Todo t) { apply(t, 1); }
+
+    void remove(Todo t) { apply(t, -1); }
+
+    CompletionMetricsResponse snapshot() {
+        Map<Priority, Double> averages = new EnumMap<>(Priority.class);
+        Map<Priority, Long> counts = new EnumMap<>(Priority.class);
+        byPriority.forEach((p, b) -> {
+            averages.put(p, b.average());
+            counts.put(p, b.count.sum());
+        });
+
+        CompletionMetricsResponse r = new CompletionMetricsResponse();
+        r.setAverageMillis(all.average());
+        r.setCompletedCount(all.count.sum());
+        r.setAverageMillisByPriority(averages);
+        r.setCompletedCountByPriority(counts);
+        return r;
+    }
+
+    private void apply(Todo t, int sign) {
+        if (!t.isDone() || t.getDoneDate() == null || t.getCreatedAt() == null) return;
+        long ms = Duration.between(t.getCreatedAt(), t.getDoneDate()).toMillis();
+        if (ms <= 0) return;
+        all.add(ms, sign);
+        if (t.getPriority() != null) byPriority.get(t.getPriority()).add(ms, sign);
+    }
+
+    private static final class Bucket {
+        final LongAdder sumMs = new LongAdder();
+        final LongAdder count = new LongAdder();
+
+        void add(long ms, int sign) {
+            sumMs.add(sign * ms);
+            count.add(sign);
+        }
+
+        double average() {
+            long c = count.sum();
+            return c == 0 ? 0 : (double) sumMs.sum() / c;
+        }
+    }
+}
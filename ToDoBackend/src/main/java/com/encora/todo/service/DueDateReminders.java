@@ -0,0 +1,254 @@
+package com.encora.todo.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Due dates of open todos on a {@link TimingWheel}. Each one fires "due soon" {@code dueSoon} before its due
+ * date (straight away if that has passed) and "overdue" at it, then sits in a set ordered by due date until it
+ * is done, deleted or moved. The service keeps it in step with every write; a ticker advances the wheel so
+ * reminders go out on time, and {@link #overdue} advances it too, so it is exact without one.
+ * Writers only queue their updates and apply the queue if nobody holds the wheel; otherwise the holder, or
+ * the next tick or read, applies it, so writes never wait on each other or on a tick.
+ */
+public class DueDateReminders implements AutoCloseable {
+
+    public record Reminder(long id, Kind kind, LocalDateTime due) {
+        public enum Kind { DUE_SOON, OVERDUE }
+    }
+
+    private static final class Tracked extends TimingWheel.Timer {
+        final long id;
+        long version;
+        final LocalDateTime due;
+        final long dueMillis;
+        Reminder.Kind next;
+
+        Tracked(long id, long version, LocalDateTime due, long dueMillis) {
+            this.id = id;
+            this.version = version;
+            this.due = due;
+            this.dueMillis = dueMillis;
+        }
+    }
+
+    /** A write as the service reported it; {@code version} is {@link #CANCELLED} for a delete. */
+    private record Update(long id, long version, LocalDateTime due, boolean done) {}
+
+    /** Far enough for any real due date, near enough that millis don't overflow. */
+    private static final long FAR_SECONDS = 1L << 40;
+    /** Ids are never reused, so nothing reported after a delete may schedule the todo again. */
+    private static final long CANCELLED = Long.MAX_VALUE;
+    /** Untracked ids remembered with the version that untracked them, so a late older write is still ignored. */
+    static final int RETIRED = 10_000;
+
+    private final Clock clock;
+    private final long tickMillis;
+    private final long dueSoonMillis;
+    private final TimingWheel wheel;
+    private final Queue<Update> pending = new ConcurrentLinkedQueue<>();
+    /** Guards the wheel and everything below; a lock so writers can skip it when it's taken. */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Long, Tracked> tracked = new HashMap<>();
+    private final Map<Long, Long> retired = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+            return size() > RETIRED;
+        }
+    };
+    private final NavigableSet<Tracked> overdue = new TreeSet<>(
+            Comparator.comparingLong((Tracked t) -> t.dueMillis).thenComparingLong(t -> t.id));
+    private volatile Consumer<Reminder> listener = r -> {};
+    private ScheduledExecutorService ticker;
+
+    public DueDateReminders(Duration dueSoon, Duration tick) {
+        this(dueSoon, tick, Clock.systemDefaultZone());
+    }
+
+    /** Due dates are local times in {@code clock}'s zone, like the ones the service stamps. */
+    public DueDateReminders(Duration dueSoon, Duration tick, Clock clock) {
+        this.clock = clock;
+        this.tickMillis = Math.max(1, tick.toMillis());
+        this.dueSoonMillis = dueSoon.toMillis();
+        this.wheel = new TimingWheel(clock.millis() / tickMillis);
+    }
+
+    /** Receives every reminder, on whichever thread advanced the wheel. */
+    void listen(Consumer<Reminder> listener) {
+        this.listener = listener;
+    }
+
+    /** Advances the wheel every tick on a daemon thread until {@link #close()}. */
+    public synchronized void start() {
+        if (ticker != null) return;
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "todo-reminders");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (ticker != null) ticker.shutdownNow();
+        ticker = null;
+    }
+
+    /**
+     * The todo's state after a write: an open one with a due date is (re)scheduled, anything else is dropped.
+     * Writers report after storing, so a version older than the one last applied lost a race and is ignored.
+     */
+    public void track(long id, long version, LocalDateTime due, boolean done) {
+        pending.add(new Update(id, version, due, done));
+        applyPending();
+    }
+
+    /** The todo was deleted; any write of it reported later is ignored. */
+    public void cancel(long id) {
+        pending.add(new Update(id, CANCELLED, null, true));
+        applyPending();
+    }
+
+    /** Fires everything due by now. */
+    public void advance() {
+        List<Reminder> reminders = new ArrayList<>();
+        lock.lock();
+        try {
+            drain();
+            long now = clock.millis() / tickMillis;
+            List<TimingWheel.Timer> fired = new ArrayList<>();
+            // a second pass picks up overdue timers for due-soon ones that fired late
+            do {
+                fired.clear();
+                wheel.advance(now, fired);
+                for (TimingWheel.Timer timer : fired) {
+                    Tracked t = (Tracked) timer;
+                    reminders.add(new Reminder(t.id, t.next, t.due));
+                    if (t.next == Reminder.Kind.DUE_SOON) {
+                        t.next = Reminder.Kind.OVERDUE;
+                        t.tick = Math.floorDiv(t.dueMillis + tickMillis - 1, tickMillis);
+                        wheel.add(t);
+                    } else {
+                        overdue.add(t);
+                    }
+                }
+            } while (!fired.isEmpty());
+        } finally {
+            lock.unlock();
+        }
+        Consumer<Reminder> l = listener;
+        reminders.forEach(l);
+    }
+
+    /** Ids of up to {@code limit} overdue todos, longest overdue first. */
+    public List<Long> overdue(int limit) {
+        advance();
+        lock.lock();
+        try {
+            List<Long> ids = new ArrayList<>(Math.min(limit, overdue.size()));
+            for (Tracked t : overdue) {
+                if (ids.size() == limit) break;
+                ids.add(t.id);
+            }
+            return ids;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int scheduled() {
+        lock.lock();
+        try {
+            drain();
+            return wheel.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int overdueCount() {
+        lock.lock();
+        try {
+            drain();
+            return overdue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Applies the queue now unless another thread holds the wheel; it, or the next holder, will. */
+    private void applyPending() {
+        if (!lock.tryLock()) return;
+        try {
+            drain();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Applies queued updates in the order they were reported. Needs the lock. */
+    private void drain() {
+        for (Update u = pending.poll(); u != null; u = pending.poll()) apply(u);
+    }
+
+    private void apply(Update u) {
+        Long untrackedAt = retired.get(u.id());
+        if (untrackedAt != null && untrackedAt >= u.version()) return;
+        Tracked current = tracked.get(u.id());
+        if (current != null && current.version > u.version()) return;
+        // an edit that leaves the due date alone doesn't repeat reminders already sent
+        if (current != null && !u.done() && Objects.equals(current.due, u.due())) {
+            current.version = u.version();
+            return;
+        }
+        untrack(u.id());
+        if (u.done() || u.due() == null) {
+            retired.put(u.id(), u.version());
+            return;
+        }
+        retired.remove(u.id());
+        Tracked t = new Tracked(u.id(), u.version(), u.due(), millis(u.due()));
+        long now = clock.millis();
+        if (t.dueMillis > now) {
+            t.next = Reminder.Kind.DUE_SOON;
+            t.tick = Math.max(now, t.dueMillis - dueSoonMillis) / tickMillis;
+        } else {
+            t.next = Reminder.Kind.OVERDUE;
+            t.tick = now / tickMillis;
+        }
+        tracked.put(u.id(), t);
+        wheel.add(t);
+    }
+
+    private void untrack(long id) {
+        Tracked t = tracked.remove(id);
+        if (t == null) return;
+        wheel.cancel(t);
+        overdue.remove(t);
+    }
+
+    private long millis(LocalDateTime due) {
+        Instant at = due.atZone(clock.getZone()).toInstant();
+        long seconds = Math.max(-FAR_SECONDS, Math.min(FAR_SECONDS, at.getEpochSecond()));
+        return seconds * 1000 + at.getNano() / 1_000_000;
+    }
+}
@@ -0,0 +1,87 @@
+package com.encora.todo.service;
+
+import com.encora.todo.domain.Priority;
+import com.encora.todo.domain.SortField;
+import com.encora.todo.dto.PageResponse;
+import com.encora.todo.dto.TodoResponse;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * LRU cache of list results, bounded by the total number of cached rows. Each entry remembers the
+ * write version it was computed at; any write bumps the version, so stale entries are simply
+ * never served and age out. Cached responses are shared between callers and must not be mutated.
+ */
+public class ListQueryCache {
+
+    /** Normalised query: parsed sort, lower-cased text, and the cursor for keyset pages. */
+    record Key(String cursor, long pageNumber, int pageSize, SortField field, boolean descending,
+               String text, Priority priority, Boolean done) {}
+
+    private record Entry(long version, PageResponse<TodoResponse> page, int weight) {}
+
+    private final int maxRows;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private int rows;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ListQueryCache(int maxRows) {
+        this.maxRows = maxRows;
+    }
+
+    /** Never stores anything; every lookup is a miss. */
+    public static ListQueryCache disabled() {
+        return new ListQueryCache(0);
+    }
+
+    public boolean isEnabled() {
+        return maxRows > 0;
+    }
+
+    PageResponse<TodoResponse> get(Key key, long version, Supplier<PageResponse<TodoResponse>> compute) {
+        if (!isEnabled()) return compute.get();
+        synchronized (this) {
+            Entry e = entries.get(key);
+            if (e != null && e.version() == version) {
+                hits.increment();
+                return e.page();
+            }
+        }
+        misses.increment();
+        // computed outside the lock; two racing misses both compute and the later one wins
+        PageResponse<TodoResponse> page = compute.get();
+        int weight = page.getContent().size() + 1;
+        if (weight <= maxRows) {
+            synchronized (this) {
+                Entry prev = entries.put(key, new Entry(version, page, weight));
+                if (prev != null) rows -= prev.weight();
+                rows += weight;
+                evictOverBudget();
+            }
+        }
+        return page;
+    }
+
+    private void evictOverBudget() {
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (rows > maxRows && it.hasNext()) {
+            rows -= it.next().getValue().weight();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    long hits() { return hits.sum(); }
+    long misses() { return misses.sum(); }
+    long evictions() { return evictions.sum(); }
+
+    synchronized int size() { return entries.size(); }
+    synchronized int rows() { return rows; }
+}
@@ -0,0 +1,84 @@
+package com.encora.todo.service;
+
+import com.encora.todo.domain.Priority;
+import com.encora.todo.domain.SortField;
+import com.encora.todo.domain.Todo;
+import com.encora.todo.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Keyset position: the sort order plus the (sort key, id) of the last todo on a page.
+ * Encoded as opaque url-safe base64 so clients just echo {@code nextCursor} back.
+ */
+final class PageCursor {
+
+    private static final String VERSION = "1";
+    private static final String SEP = "|";
+
+    private final SortField field;
+    private final boolean descending;
+    private final Comparable<?> key;
+    private final long id;
+
+    private PageCursor(SortField field, boolean descending, Comparable<?> key, long id) {
+        this.field = field;
+        this.descending = descending;
+        this.key = key;
+        this.id = id;
+    }
+
+    static PageCursor after(SortField field, boolean descending, Todo last) {
+        return new PageCursor(field, descending, field.keyOf(last), last.getId());
+    }
+
+    SortField getField() { return field; }
+    boolean isDescending() { return descending; }
+    Comparable<?> getKey() { return key; }
+    long getId() { return id; }
+
+    /** Whether {@code t} comes strictly after this position in the cursor's sort order. */
+    boolean precedes(Todo t) {
+        int c = SortField.compareKeys(field.keyOf(t), key);
+        if (c == 0) c = Long.compare(t.getId(), id);
+        return descending ? c < 0 : c > 0;
+    }
+
+    String encode() {
+        String raw = String.join(SEP, VERSION, field.name(), descending ? "desc" : "asc",
+                key == null ? "" : key.toString(), Long.toString(id));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static PageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 5 || !VERSION.equals(parts[0])) throw new IllegalArgumentException(raw);
+            SortField field = SortField.valueOf(parts[1]);
+            boolean descending = switch (parts[2]) {
+                case "asc" -> false;
+                case "desc" -> true;
+                default -> throw new IllegalArgumentException(parts[2]);
+            };
+            return new PageCursor(field, descending, parseKey(field, parts[3]), Long.parseLong(parts[4]));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+    }
+
+    private static Comparable<?> parseKey(SortField field, String s) {
+        if (s.isEmpty()) return null;
+        return switch (field) {
+            case PRIORITY -> Priority.valueOf(s);
+            case DONE -> switch (s) {
+                case "true" -> Boolean.TRUE;
+                case "false" -> Boolean.FALSE;
+                default -> throw new IllegalArgumentException(s);
+            };
+            default -> LocalDateTime.parse(s);
+        };
+    }
+}
@@ -0,0 +1,113 @@
+package com.encora.todo.service;
+
+import com.encora.todo.domain.Todo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+/**
+ * Filters and sorts large list queries on a dedicated fork-join pool: the matches are split into chunks, each
+ * worker runs the filter over its chunk and sorts (or heap-selects) what passes, and the sorted runs are merged
+ * pairwise as the tasks join. The pool is bounded and shared by all queries, so concurrent heavy searches
+ * queue for it rather than taking every core from request handling. Smaller queries stay on the caller.
+ */
+public class ParallelSorter implements AutoCloseable {
+
+    /** Below this a chunk isn't worth a task of its own. */
+    static final int MIN_CHUNK = 512;
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    /** {@code parallelism} workers, used for queries with at least {@code threshold} matches. */
+    public ParallelSorter(int parallelism, int threshold) {
+        this.pool = new ForkJoinPool(parallelism, p -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            t.setName("todo-sort-" + t.getPoolIndex());
+            t.setDaemon(true);
+            return t;
+        }, null, false);
+        this.threshold = threshold;
+    }
+
+    private ParallelSorter() {
+        this.pool = null;
+        this.threshold = Integer.MAX_VALUE;
+    }
+
+    /** Never applies; every query sorts on its own thread. */
+    public static ParallelSorter disabled() {
+        return new ParallelSorter();
+    }
+
+    boolean appliesTo(long matches) {
+        return pool != null && matches >= threshold;
+    }
+
+    /**
+     * The first {@code limit} of {@code todos} in {@code cmp} order. {@code cmp} must be total (end on the id):
+     * chunks are merged in whatever order they finish splitting, and ties would otherwise come out either way.
+     */
+    List<Todo> sorted(Stream<Todo> todos, long estimate, Comparator<Todo> cmp, int limit) {
+        long chunk = Math.max(MIN_CHUNK, estimate / (pool.getParallelism() * 4L));
+        return pool.invoke(new Chunk(todos.spliterator(), chunk, cmp, limit));
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) pool.shutdown();
+    }
+
+    private static final class Chunk extends RecursiveTask<List<Todo>> {
+        private final Spliterator<Todo> rows;
+        private final long chunk;
+        private final Comparator<Todo> cmp;
+        private final int limit;
+
+        Chunk(Spliterator<Todo> rows, long chunk, Comparator<Todo> cmp, int limit) {
+            this.rows = rows;
+            this.chunk = chunk;
+            this.cmp = cmp;
+            this.limit = limit;
+        }
+
+        @Override
+        protected List<Todo> compute() {
+            // filtered and flat-mapped sources may not know their size; they split until they can't
+            Spliterator<Todo> prefix = rows.estimateSize() > chunk ? rows.trySplit() : null;
+            if (prefix == null) return leaf();
+            Chunk left = new Chunk(prefix, chunk, cmp, limit);
+            left.fork();
+            List<Todo> right = new Chunk(rows, chunk, cmp, limit).compute();
+            return merge(left.join(), right);
+        }
+
+        private List<Todo> leaf() {
+            List<Todo> run = new ArrayList<>();
+            rows.forEachRemaining(run::add);
+            if (run.size() > limit) return TodoServiceImpl.topK(run.stream(), cmp, limit);
+            run.sort(cmp);
+            return run;
+        }
+
+        private List<Todo> merge(List<Todo> a, List<Todo> b) {
+            int n = Math.min(limit, a.size() + b.size());
+            List<Todo> merged = new ArrayList<>(n);
+            int i = 0, j = 0;
+            while (merged.size() < n) {
+                if (j == b.size() || (i < a.size() && cmp.compare(a.get(i), b.get(j)) <= 0)) {
+                    merged.add(a.get(i++));
+                } else {
+                    merged.add(b.get(j++));
+                }
+            }
+            return merged;
+        }
+    }
+}
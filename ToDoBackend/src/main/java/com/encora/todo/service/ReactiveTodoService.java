@@ -0,0 +1,53 @@
+package com.encora.todo.service;
+
+import com.encora.todo.domain.Priority;
+import com.encora.todo.dto.BatchOperation;
+import com.encora.todo.dto.BatchResult;
+import com.encora.todo.dto.CompletionMetricsResponse;
+import com.encora.todo.dto.PageResponse;
+import com.encora.todo.dto.SyncResponse;
+import com.encora.todo.dto.TodoRequest;
+import com.encora.todo.dto.TodoResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking view of {@link TodoService} for the reactive endpoints. Nothing here may park an
+ * event-loop thread: work that can wait on I/O is moved off it, and missing todos complete empty.
+ */
+public interface ReactiveTodoService {
+
+    Mono<TodoResponse> create(TodoRequest request);
+
+    Mono<TodoResponse> getById(Long id);
+
+    Mono<PageResponse<TodoResponse>> list(int pageNumber, int pageSize, String sortBy, String sortDir,
+                                          String textFilter, Priority priorityFilter, Boolean doneFilter);
+
+    Mono<PageResponse<TodoResponse>> listAfter(String cursor, int pageSize, String sortBy, String sortDir,
+                                               String textFilter, Priority priorityFilter, Boolean doneFilter);
+
+    /** Emits matches as the subscriber asks for them; cancelling closes the underlying iteration. */
+    Flux<TodoResponse> export(String textFilter, Priority priorityFilter, Boolean doneFilter);
+
+    Mono<TodoResponse> update(Long id, TodoRequest request, Long expectedVersion);
+
+    Mono<TodoResponse> setDone(Long id, boolean done, Long expectedVersion);
+
+    /** Completes with false when there was nothing to delete. */
+    Mono<Boolean> delete(Long id);
+
+    Mono<List<BatchResult>> applyBatch(List<BatchOperation> operations);
+
+    Mono<SyncResponse> sync(long since, Long after, int limit);
+
+    Flux<TodoResponse> overdue(int limit);
+
+    Mono<CompletionMetricsResponse> completionMetrics();
+
+    String epoch();
+
+    String dataVersion();
+}
@@ -0,0 +1,123 @@
+package com.encora.todo.service;
+
+import com.encora.todo.domain.Priority;
+import com.encora.todo.dto.BatchOperation;
+import com.encora.todo.dto.BatchResult;
+import com.encora.todo.dto.CompletionMetricsResponse;
+import com.encora.todo.dto.PageResponse;
+import com.encora.todo.dto.SyncResponse;
+import com.encora.todo.dto.TodoRequest;
+import com.encora.todo.dto.TodoResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * Lookups by id run on the subscribing thread. Queries go to {@code reads} (parallel by default, one
+ * worker per core): they can walk and sort many rows, which would stall an event loop. Writes go to
+ * {@code writes} (bounded elastic by default) because a durable repository parks the writer until its fsync.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveTodoServiceImpl implements ReactiveTodoService {
+
+    private final TodoService service;
+    private final Scheduler reads;
+    private final Scheduler writes;
+
+    @Autowired
+    public ReactiveTodoServiceImpl(TodoService service) {
+        this(service, Schedulers.parallel(), Schedulers.boundedElastic());
+    }
+
+    public ReactiveTodoServiceImpl(TodoService service, Scheduler reads, Scheduler writes) {
+        this.service = service;
+        this.reads = reads;
+        this.writes = writes;
+    }
+
+    @Override
+    public Mono<TodoResponse> create(TodoRequest request) {
+        return Mono.fromCallable(() -> service.create(request)).subscribeOn(writes);
+    }
+
+    @Override
+    public Mono<TodoResponse> getById(Long id) {
+        return Mono.defer(() -> Mono.justOrEmpty(service.getById(id)));
+    }
+
+    @Override
+    public Mono<PageResponse<TodoResponse>> list(int pageNumber, int pageSize, String sortBy, String sortDir,
+                                                 String textFilter, Priority priorityFilter, Boolean doneFilter) {
+        return Mono.fromSupplier(() -> service.list(pageNumber, pageSize, sortBy, sortDir,
+                textFilter, priorityFilter, doneFilter)).subscribeOn(reads);
+    }
+
+    @Override
+    public Mono<PageResponse<TodoResponse>> listAfter(String cursor, int pageSize, String sortBy, String sortDir,
+                                                      String textFilter, Priority priorityFilter, Boolean doneFilter) {
+        return Mono.fromSupplier(() -> service.listAfter(cursor, pageSize, sortBy, sortDir,
+                textFilter, priorityFilter, doneFilter)).subscribeOn(reads);
+    }
+
+    @Override
+    public Flux<TodoResponse> export(String textFilter, Priority priorityFilter, Boolean doneFilter) {
+        // fromStream pulls only as much as downstream requested and closes the stream when done or cancelled
+        return Flux.fromStream(() -> service.export(textFilter, priorityFilter, doneFilter));
+    }
+
+    @Override
+    public Mono<TodoResponse> update(Long id, TodoRequest request, Long expectedVersion) {
+        return Mono.fromCallable(() -> service.update(id, request, expectedVersion))
+                .subscribeOn(writes)
+                .flatMap(Mono::justOrEmpty);
+    }
+
+    @Override
+    public Mono<TodoResponse> setDone(Long id, boolean done, Long expectedVersion) {
+        return Mono.fromCallable(() -> service.setDone(id, done, expectedVersion))
+                .subscribeOn(writes)
+                .flatMap(Mono::justOrEmpty);
+    }
+
+    @Override
+    public Mono<Boolean> delete(Long id) {
+        return Mono.fromCallable(() -> service.delete(id)).subscribeOn(writes);
+    }
+
+    @Override
+    public Mono<List<BatchResult>> applyBatch(List<BatchOperation> operations) {
+        return Mono.fromCallable(() -> service.applyBatch(operations)).subscribeOn(writes);
+    }
+
+    @Override
+    public Mono<SyncResponse> sync(long since, Long after, int limit) {
+        return Mono.fromSupplier(() -> service.sync(since, after, limit)).subscribeOn(reads);
+    }
+
+    @Override
+    public Flux<TodoResponse> overdue(int limit) {
+        return Flux.defer(() -> Flux.fromIterable(service.overdue(limit))).subscribeOn(reads);
+    }
+
+    @Override
+    public Mono<CompletionMetricsResponse> completionMetrics() {
+        return Mono.fromSupplier(service::completionMetrics);
+    }
+
+    @Override
+    public String epoch() {
+        return service.epoch();
+    }
+
+    @Override
+    public String dataVersion() {
+        return service.dataVersion();
+    }
+}
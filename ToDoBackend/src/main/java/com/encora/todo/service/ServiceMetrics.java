@@ -0,0 +1,70 @@
+package com.encora.todo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers for {@link TodoServiceImpl}: {@code todo.service} per method and {@code todo.list.phase}
+ * for the filter/sort/page/map steps of a list query, plus {@code todo.list.strategy} counting how each
+ * query ordered its rows. Histograms are switched on in configuration.
+ */
+final class ServiceMetrics {
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> methods = new ConcurrentHashMap<>();
+    private final Map<String, Timer> phases = new ConcurrentHashMap<>();
+    private final Map<String, Counter> strategies = new ConcurrentHashMap<>();
+
+    ServiceMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    Timer method(String name) {
+        return methods.computeIfAbsent(name, n -> Timer.builder("todo.service")
+                .description("TodoService method latency")
+                .tag("method", n)
+                .register(registry));
+    }
+
+    /** {@code todo.list.cache} hit/miss/eviction counters and the rows currently cached. */
+    void bind(ListQueryCache cache) {
+        if (!cache.isEnabled()) return;
+        FunctionCounter.builder("todo.list.cache", cache, ListQueryCache::hits).tag("result", "hit").register(registry);
+        FunctionCounter.builder("todo.list.cache", cache, ListQueryCache::misses).tag("result", "miss").register(registry);
+        FunctionCounter.builder("todo.list.cache.evictions", cache, ListQueryCache::evictions).register(registry);
+        Gauge.builder("todo.list.cache.rows", cache, ListQueryCache::rows).register(registry);
+    }
+
+    /** Counts a list query ordered by {@code strategy}: index walk, full sort of the matches, or top-K heap. */
+    void strategy(String strategy) {
+        strategies.computeIfAbsent(strategy, n -> Counter.builder("todo.list.strategy")
+                        .description("How list queries ordered their rows")
+                        .tag("strategy", n)
+                        .register(registry))
+                .increment();
+    }
+
+    /** {@code todo.reminders.scheduled} and {@code todo.reminders.overdue}: todos on the wheel and past due. */
+    void bind(DueDateReminders reminders) {
+        Gauge.builder("todo.reminders.scheduled", reminders, DueDateReminders::scheduled).register(registry);
+        Gauge.builder("todo.reminders.overdue", reminders, DueDateReminders::overdueCount).register(registry);
+    }
+
+    /** Records the time since {@code since} (a nanoTime) under {@code phase} and returns now. */
+    long lap(String phase, long since) {
+        long now = System.nanoTime();
+        phases.computeIfAbsent(phase, p -> Timer.builder("todo.list.phase")
+                        .description("Time spent in each step of a list query")
+                        .tag("phase", p)
+                        .register(registry))
+                .record(now - since, TimeUnit.NANOSECONDS);
+        return now;
+    }
+}
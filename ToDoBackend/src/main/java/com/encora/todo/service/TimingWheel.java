@@ -0,0 +1,137 @@
+package com.encora.todo.service;
+
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel: {@value #LEVELS} levels of {@value #SLOTS} slots, level {@code n} covering
+ * {@code 64^(n+1)} ticks. A timer goes into the coarsest level its distance needs and moves down a level
+ * each time the wheel reaches its slot, so adding, cancelling and firing cost O(1) and advancing costs the
+ * ticks passed plus the timers moved, however many timers are waiting; stretches in which only coarse
+ * levels hold timers are skipped to their next slot. Slots are intrusive lists.
+ * Not thread-safe.
+ */
+final class TimingWheel {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    /** 64^7 one-second ticks is over a hundred thousand years; anything further is parked at the far end. */
+    private static final int LEVELS = 7;
+    /** Timers already due when added wait here for the next advance. */
+    private static final int DUE = LEVELS * SLOTS;
+
+    /** Something to fire at {@link #tick}; subclasses carry what it is about. */
+    static class Timer {
+        long tick;
+        private Timer prev;
+        private Timer next;
+        private int index = -1;
+
+        boolean isScheduled() {
+            return index >= 0;
+        }
+    }
+
+    private final Timer[] heads = new Timer[DUE + 1];
+    /** Timers per level, the last entry being the due list. */
+    private final int[] counts = new int[LEVELS + 1];
+    /** Last tick fired. */
+    private long current;
+
+    TimingWheel(long startTick) {
+        this.current = startTick;
+    }
+
+    void add(Timer timer) {
+        long delta = timer.tick - current;
+        if (delta <= 0) {
+            link(timer, DUE);
+            return;
+        }
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (BITS * (level + 1))) level++;
+        long tick = Math.min(timer.tick, current + (1L << (BITS * LEVELS)) - 1);
+        link(timer, level * SLOTS + (int) ((tick >>> (BITS * level)) & MASK));
+    }
+
+    void cancel(Timer timer) {
+        if (!timer.isScheduled()) return;
+        if (timer.prev != null) timer.prev.next = timer.next;
+        else heads[timer.index] = timer.next;
+        if (timer.next != null) timer.next.prev = timer.prev;
+        counts[timer.index / SLOTS]--;
+        timer.prev = timer.next = null;
+        timer.index = -1;
+    }
+
+    /** Moves the wheel to {@code tick}, adding every timer due by then to {@code fired}. */
+    void advance(long tick, List<Timer> fired) {
+        drain(DUE, fired);
+        while (current < tick) {
+            int lowest = 0;
+            while (lowest < LEVELS && counts[lowest] == 0) lowest++;
+            if (lowest == LEVELS) {
+                current = tick;
+                break;
+            }
+            if (lowest > 0) {
+                // nothing fires or moves down before the lowest occupied level's next slot starts
+                long next = ((current >>> (BITS * lowest)) + 1) << (BITS * lowest);
+                current = Math.min(tick, next - 1);
+                if (current == tick) break;
+            }
+            current++;
+            // the higher slots whose span starts at this tick move down, highest first
+            int top = 0;
+            while (top < LEVELS - 1 && (current & ((1L << (BITS * (top + 1))) - 1)) == 0) top++;
+            for (int level = top; level >= 1; level--) {
+                Timer t = unlinkAll(level * SLOTS + (int) ((current >>> (BITS * level)) & MASK));
+                while (t != null) {
+                    Timer next = t.next;
+                    t.next = null;
+                    add(t);
+                    t = next;
+                }
+            }
+            drain((int) (current & MASK), fired);
+            drain(DUE, fired);
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (int n : counts) size += n;
+        return size;
+    }
+
+    private void link(Timer timer, int index) {
+        timer.index = index;
+        timer.prev = null;
+        timer.next = heads[index];
+        if (timer.next != null) timer.next.prev = timer;
+        heads[index] = timer;
+        counts[index / SLOTS]++;
+    }
+
+    /** Detaches a slot's list and returns its head; the timers stay chained through {@code next}. */
+    private Timer unlinkAll(int index) {
+        Timer head = heads[index];
+        heads[index] = null;
+        for (Timer t = head; t != null; t = t.next) {
+            t.prev = null;
+            t.index = -1;
+            counts[index / SLOTS]--;
+        }
+        return head;
+    }
+
+    private void drain(int index, List<Timer> fired) {
+        Timer t = unlinkAll(index);
+        while (t != null) {
+            Timer next = t.next;
+            t.next = null;
+            fired.add(t);
+            t = next;
+        }
+    }
+}
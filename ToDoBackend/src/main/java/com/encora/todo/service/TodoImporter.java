@@ -0,0 +1,242 @@
+package com.encora.todo.service;
+
+import com.encora.todo.domain.Priority;
+import com.encora.todo.dto.ImportReport;
+import com.encora.todo.dto.TodoRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import from NDJSON or CSV. Rows are parsed one at a time and flushed to the service in
+ * fixed-size chunks, so memory is bounded by the chunk and reading the body only proceeds as
+ * fast as the repository accepts writes.
+ */
+@Component
+public class TodoImporter {
+
+    static final int CHUNK_SIZE = 1000;
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    private final TodoService service;
+    private final Validator validator;
+    private final ObjectReader ndjsonReader;
+
+    public TodoImporter(TodoService service, Validator validator, ObjectMapper objectMapper) {
+        this.service = service;
+        this.validator = validator;
+        this.ndjsonReader = objectMapper.readerFor(TodoRequest.class);
+    }
+
+    /** One {@link TodoRequest} JSON object per line; blank lines are skipped. */
+    public ImportReport importNdjson(Reader body) {
+        Run run = new Run();
+        BufferedReader in = new BufferedReader(body);
+        try {
+            String line;
+            long lineNo = 0;
+            while ((line = in.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) continue;
+                TodoRequest request;
+                try {
+                    request = ndjsonReader.readValue(line);
+                } catch (JsonProcessingException e) {
+                    run.reject(lineNo, e.getOriginalMessage());
+                    continue;
+                }
+                run.accept(lineNo, request);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return run.finish();
+    }
+
+    /** RFC 4180 CSV with a header row naming title, description, priority and dueDate columns. */
+    public ImportReport importCsv(Reader body) {
+        Run run = new Run();
+        CsvReader in = new CsvReader(new BufferedReader(body));
+        try {
+            List<String> header = in.next();
+            if (header == null) return run.finish();
+            Map<String, Integer> column = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) column.put(header.get(i).trim(), i);
+            if (!column.containsKey("title")) {
+                run.reject(in.recordLine(), "header has no title column");
+                return run.finish();
+            }
+
+            List<String> record;
+            while ((record = in.next()) != null) {
+                long lineNo = in.recordLine();
+                if (record.size() == 1 && record.get(0).isEmpty()) continue;
+                TodoRequest request = new TodoRequest();
+                try {
+                    request.setTitle(field(record, column, "title"));
+                    request.setDescription(field(record, column, "description"));
+                    String priority = field(record, column, "priority");
+                    if (priority != null) request.setPriority(parsePriority(priority));
+                    String dueDate = field(record, column, "dueDate");
+                    if (dueDate != null) request.setDueDate(LocalDateTime.parse(dueDate.trim()));
+                } catch (IllegalArgumentException | DateTimeParseException e) {
+                    run.reject(lineNo, e instanceof DateTimeParseException ? "dueDate: " + e.getMessage() : e.getMessage());
+                    continue;
+                }
+                run.accept(lineNo, request);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return run.finish();
+    }
+
+    private static Priority parsePriority(String value) {
+        try {
+            return Priority.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("priority: unknown value " + value);
+        }
+    }
+
+    private static String field(List<String> record, Map<String, Integer> column, String name) {
+        Integer i = column.get(name);
+        if (i == null || i >= record.size()) return null;
+        String value = record.get(i);
+        return value.isEmpty() ? null : value;
+    }
+
+    /** Counters and the pending chunk for one import. */
+    private class Run {
+        private final long started = System.nanoTime();
+        private final ImportReport report = new ImportReport();
+        private final List<TodoRequest> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        void accept(long line, TodoRequest request) {
+            report.setRows(report.getRows() + 1);
+            Set<ConstraintViolation<TodoRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                fail(line, violations.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+                return;
+            }
+            chunk.add(request);
+            if (chunk.size() == CHUNK_SIZE) flush();
+        }
+
+        void reject(long line, String message) {
+            report.setRows(report.getRows() + 1);
+            fail(line, message);
+        }
+
+        private void fail(long line, String message) {
+            report.setFailed(report.getFailed() + 1);
+            if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+                report.getErrors().add(new ImportReport.LineError(line, message));
+            }
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) return;
+            report.setImported(report.getImported() + service.createAll(chunk));
+            chunk.clear();
+        }
+
+        ImportReport finish() {
+            flush();
+            long elapsedNanos = Math.max(1L, System.nanoTime() - started);
+            report.setElapsedMillis(elapsedNanos / 1_000_000L);
+            report.setRowsPerSecond(report.getRows() * 1e9 / elapsedNanos);
+            return report;
+        }
+    }
+
+    /** Reads one record at a time; quoted fields may contain commas, doubled quotes and newlines. */
+    static final class CsvReader {
+        private final Reader in;
+        private long line = 1;
+        private long recordLine;
+        private int pending = -2;
+
+        CsvReader(Reader in) {
+            this.in = in;
+        }
+
+        /** Physical line the last record returned by {@link #next()} started on. */
+        long recordLine() {
+            return recordLine;
+        }
+
+        List<String> next() throws IOException {
+            int c = read();
+            if (c == -1) return null;
+            recordLine = line;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) break;
+                    if (c == '"') {
+                        int peek = read();
+                        if (peek == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            c = peek;
+                            continue;
+                        }
+                    } else {
+                        if (c == '\n') line++;
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\r' || c == '\n' || c == -1) {
+                    if (c == '\r') {
+                        int peek = read();
+                        if (peek != '\n') pending = peek;
+                    }
+                    if (c != -1) line++;
+                    break;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        private int read() throws IOException {
+            if (pending != -2) {
+                int c = pending;
+                pending = -2;
+                return c;
+            }
+            return in.read();
+        }
+    }
+}
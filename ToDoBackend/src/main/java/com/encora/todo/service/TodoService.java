@@ -1,16 +1,25 @@
 package com.encora.todo.service;
 
 import com.encora.todo.domain.Priority;
+import com.encora.todo.dto.BatchOperation;
+import com.encora.todo.dto.BatchResult;
+import com.encora.todo.dto.CompletionMetricsResponse;
 import com.encora.todo.dto.PageResponse;
+import com.encora.todo.dto.SyncResponse;
 import com.encora.todo.dto.TodoRequest;
 import com.encora.todo.dto.TodoResponse;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface TodoService {
 
     TodoResponse create(TodoRequest request);
 
+    /** Creates already-validated todos with a single repository write; returns how many were stored. */
+    int createAll(List<TodoRequest> requests);
+
     Optional<TodoResponse> getById(Long id);
 
     PageResponse<TodoResponse> list(
@@ -23,9 +32,65 @@ public interface TodoService {
             Boolean doneFilter        // nullable
     );
 
-    Optional<TodoResponse> update(Long id, TodoRequest request);
+    /** Keyset paging: the page after {@code cursor}, a nextCursor issued for the same sort order. */
+    PageResponse<TodoResponse> listAfter(
+            String cursor,
+            int pageSize,
+            String sortBy,
+            String sortDir,
+            String textFilter,
+            Priority priorityFilter,
+            Boolean doneFilter
+    );
+
+    /** Every matching todo in creation order, produced lazily; the caller must close the stream. */
+    Stream<TodoResponse> export(String textFilter, Priority priorityFilter, Boolean doneFilter);
+
+    /**
+     * Applies the change with a compare-and-set on the todo's version. With a non-null
+     * {@code expectedVersion} a todo at any other version throws {@code VersionConflictException};
+     * without one, lost races are retried against the newer version.
+     */
+    Optional<TodoResponse> update(Long id, TodoRequest request, Long expectedVersion);
+
+    default Optional<TodoResponse> update(Long id, TodoRequest request) {
+        return update(id, request, request.getVersion());
+    }
+
+    Optional<TodoResponse> setDone(Long id, boolean done, Long expectedVersion);
 
-    Optional<TodoResponse> setDone(Long id, boolean done);
+    default Optional<TodoResponse> setDone(Long id, boolean done) {
+        return setDone(id, done, null);
+    }
 
     boolean delete(Long id);
+
+    /**
+     * Applies already-validated operations in order and writes them to the repository as one batch. An update
+     * or done later deleted in the same batch reports the state it left in the batch; a delete reports 404 if
+     * the todo was gone by the time the batch was written.
+     */
+    List<BatchResult> applyBatch(List<BatchOperation> operations);
+
+    /**
+     * Todos changed and ids deleted after modification sequence {@code since}, at most {@code limit}
+     * (capped per response). A {@code since} of 0 or from another process starts a reset, paged through
+     * {@code after} like any other backlog.
+     */
+    SyncResponse sync(long since, Long after, int limit);
+
+    /** Up to {@code limit} open todos past their due date (capped per response), longest overdue first. */
+    List<TodoResponse> overdue(int limit);
+
+    /**
+     * Per-process token that prefixes todo and list tags. Ids, versions and modification counts start over
+     * when an in-memory store restarts, so without it a tag from the previous run could still match.
+     */
+    String epoch();
+
+    /** Opaque token that changes whenever any todo is written; read it before querying to tag the result. */
+    String dataVersion();
+
+    /** Average time-to-done overall and per priority, from running aggregates. */
+    CompletionMetricsResponse completionMetrics();
 }
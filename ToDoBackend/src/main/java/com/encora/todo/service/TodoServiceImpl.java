@@ -3,49 +3,154 @@ package com.encora.todo.service;
 import com.encora.todo.domain.Priority;
 import com.encora.todo.domain.SortField;
 import com.encora.todo.domain.Todo;
+import com.encora.todo.domain.TodoFilter;
+import com.encora.todo.dto.BatchOperation;
+import com.encora.todo.dto.BatchResult;
+import com.encora.todo.dto.CompletionMetricsResponse;
 import com.encora.todo.dto.PageResponse;
+import com.encora.todo.dto.SyncResponse;
+import com.encora.todo.dto.TodoChange;
 import com.encora.todo.dto.TodoRequest;
 import com.encora.todo.dto.TodoResponse;
+import com.encora.todo.exception.InvalidCursorException;
+import com.encora.todo.exception.VersionConflictException;
 import com.encora.todo.mapper.TodoMapper;
+import com.encora.todo.repository.ChangeSet;
 import com.encora.todo.repository.InMemoryTodoRepository;
 import com.encora.todo.repository.TodoRepository;
+import com.encora.todo.repository.TodoSelection;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class TodoServiceImpl implements TodoService {
 
+    /** Filters matching fewer than 1/N of the store sort their matches instead of walking an index. */
+    private static final int CANDIDATE_SORT_RATIO = 8;
+
+    /** Those matches are heap-selected rather than sorted when a page reaches fewer than 1/N of them. */
+    private static final int TOP_K_RATIO = 4;
+
+    /** Keyset pages have no page number. */
+    private static final int CURSOR_PAGE_NUMBER = -1;
+
+    private static final int DEFAULT_CACHE_ROWS = 100_000;
+
+    private static final int DEFAULT_CHANGE_BUFFER = 4096;
+    /** Most changes one sync response carries; a longer backlog is fetched in several. */
+    static final int MAX_SYNC = 1000;
+    /** Most todos one overdue response lists. */
+    static final int MAX_OVERDUE = 1000;
+
+    private static final Duration DEFAULT_DUE_SOON = Duration.ofHours(1);
+
     private final TodoRepository repo;
+    private final ServiceMetrics metrics;
+    private final ListQueryCache listCache;
+    private final ChangeLog changes;
+    private final ParallelSorter parallel;
+    private final DueDateReminders reminders;
+    private final CompletionStats completionStats = new CompletionStats();
+    /** Distinguishes this process's ids, versions and modification counts from a previous run's in tags. */
+    private final String epoch = Long.toHexString(System.currentTimeMillis());
 
     public TodoServiceImpl() {
-        // Wire in-memory repo by default. For Spring injection, replace with @Bean in @Configuration and inject here.
-        this.repo = new InMemoryTodoRepository();
+        this(new InMemoryTodoRepository());
     }
 
     public TodoServiceImpl(TodoRepository repo) {
+        this(repo, new SimpleMeterRegistry());
+    }
+
+    public TodoServiceImpl(TodoRepository repo, MeterRegistry meterRegistry) {
+        this(repo, meterRegistry, new ListQueryCache(DEFAULT_CACHE_ROWS));
+    }
+
+    public TodoServiceImpl(TodoRepository repo, MeterRegistry meterRegistry, ListQueryCache listCache) {
+        this(repo, meterRegistry, listCache, new ChangeLog(DEFAULT_CHANGE_BUFFER));
+    }
+
+    public TodoServiceImpl(TodoRepository repo, MeterRegistry meterRegistry, ListQueryCache listCache,
+                           ChangeLog changes) {
+        this(repo, meterRegistry, listCache, changes, ParallelSorter.disabled());
+    }
+
+    public TodoServiceImpl(TodoRepository repo, MeterRegistry meterRegistry, ListQueryCache listCache,
+                           ChangeLog changes, ParallelSorter parallel) {
+        this(repo, meterRegistry, listCache, changes, parallel,
+                new DueDateReminders(DEFAULT_DUE_SOON, Duration.ofSeconds(1)));
+    }
+
+    @Autowired
+    public TodoServiceImpl(TodoRepository repo, MeterRegistry meterRegistry, ListQueryCache listCache,
+                           ChangeLog changes, ParallelSorter parallel, DueDateReminders reminders) {
         this.repo = repo;
+        this.parallel = parallel;
+        this.reminders = reminders;
+        this.changes = changes;
+        this.metrics = new ServiceMetrics(meterRegistry);
+        this.listCache = listCache;
+        metrics.bind(listCache);
+        metrics.bind(reminders);
+        // a durable repository may come back with done todos, and due dates, already in it
+        for (Todo todo : repo.findAll()) {
+            completionStats.add(todo);
+            reminders.track(todo.getId(), todo.getVersion(), todo.getDueDate(), todo.isDone());
+        }
+        reminders.listen(this::remind);
     }
 
     @Override
     public TodoResponse create(TodoRequest request) {
-        LocalDateTime now = LocalDateTime.now();
-        Todo entity = TodoMapper.toEntity(request);
-        entity.setCreatedAt(now);
-        entity.setUpdatedAt(now);
-        repo.save(entity);
-        return TodoMapper.toResponse(entity);
+        return metrics.method("create").record(() -> {
+            LocalDateTime now = LocalDateTime.now();
+            Todo entity = TodoMapper.toEntity(request).toBuilder().createdAt(now).updatedAt(now).build();
+            TodoResponse created = TodoMapper.toResponse(repo.save(entity));
+            publish(new TodoChange(TodoChange.Type.CREATED, created.getId(), created));
+            return created;
+        });
+    }
+
+    @Override
+    public int createAll(List<TodoRequest> requests) {
+        return metrics.method("createAll").record(() -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Todo> entities = new ArrayList<>(requests.size());
+            for (TodoRequest request : requests) {
+                entities.add(TodoMapper.toEntity(request).toBuilder().createdAt(now).updatedAt(now).build());
+            }
+            for (Todo stored : repo.saveAll(entities)) {
+                publish(new TodoChange(TodoChange.Type.CREATED, stored.getId(), TodoMapper.toResponse(stored)));
+            }
+            return entities.size();
+        });
     }
 
     @Override
     public Optional<TodoResponse> getById(Long id) {
-        return repo.findById(id).map(TodoMapper::toResponse);
+        return metrics.method("getById").record(() -> repo.findById(id).map(TodoMapper::toResponse));
     }
 
     @Override
@@ -58,66 +163,335 @@ public class TodoServiceImpl implements TodoService {
             Priority priorityFilter,
             Boolean doneFilter) {
 
-        // Filter
-        List<Todo> all = repo.findAll();
-        String needle = textFilter == null ? null : textFilter.toLowerCase(Locale.ROOT);
-
-        List<Todo> filtered = all.stream()
-                .filter(t -> needle == null ||
-                        (safe(t.getTitle()).toLowerCase(Locale.ROOT).contains(needle)
-                                || safe(t.getDescription()).toLowerCase(Locale.ROOT).contains(needle)))
-                .filter(t -> priorityFilter == null || t.getPriority() == priorityFilter)
-                .filter(t -> doneFilter == null || t.isDone() == doneFilter)
-                .collect(Collectors.toList());
+        SortField field = parseSortField(sortBy);
+        boolean descending = "desc".equalsIgnoreCase(sortDir);
+        long from = Math.max(0L, (long) pageNumber * pageSize);
+        ListQueryCache.Key key = new ListQueryCache.Key(null, pageNumber, pageSize, field, descending,
+                normalise(textFilter), priorityFilter, doneFilter);
+        return metrics.method("list").record(() -> listCache.get(key, repo.modificationCount(),
+                () -> query(new TodoFilter(textFilter, priorityFilter, doneFilter),
+                        field, descending, null, from, pageNumber, pageSize)));
+    }
 
+    @Override
+    public PageResponse<TodoResponse> listAfter(
+            String cursor,
+            int pageSize,
+            String sortBy,
+            String sortDir,
+            String textFilter,
+            Priority priorityFilter,
+            Boolean doneFilter) {
 
         SortField field = parseSortField(sortBy);
-        Comparator<Todo> cmp = comparatorFor(field);
-        if ("desc".equalsIgnoreCase(sortDir)) cmp = cmp.reversed();
-        filtered.sort(cmp);
+        boolean descending = "desc".equalsIgnoreCase(sortDir);
+        PageCursor after = PageCursor.decode(cursor);
+        if (after.getField() != field || after.isDescending() != descending) {
+            throw new InvalidCursorException("Cursor was issued for a different sort order");
+        }
+        ListQueryCache.Key key = new ListQueryCache.Key(cursor, CURSOR_PAGE_NUMBER, pageSize, field, descending,
+                normalise(textFilter), priorityFilter, doneFilter);
+        return metrics.method("listAfter").record(() -> listCache.get(key, repo.modificationCount(),
+                () -> query(new TodoFilter(textFilter, priorityFilter, doneFilter),
+                        field, descending, after, 0, CURSOR_PAGE_NUMBER, pageSize)));
+    }
+
+    /** Shared by offset and keyset paging: {@code after} seeks, {@code skip} counts past rows. */
+    private PageResponse<TodoResponse> query(TodoFilter filter, SortField field, boolean descending,
+                                             PageCursor after, long skip, int pageNumber, int pageSize) {
+        // Filter: intersect the repository's bitmaps and text index; totals come from a popcount
+        long t = System.nanoTime();
+        TodoSelection selection = repo.select(filter);
+        long total = selection.count();
+        t = metrics.lap("filter", t);
+        int limit = Math.max(0, pageSize);
+        long reach = skip + limit + 1L;
+        long stored = repo.count();
+        // An index walk visits about this many rows to collect the page, matching or not
+        long walked = total == 0 ? 0 : (long) Math.min((double) reach * stored / total, stored);
+        Stream<Todo> ordered;
 
-        int total = filtered.size();
+        if (total * CANDIDATE_SORT_RATIO < stored || (parallel.appliesTo(total) && walked > total)) {
+            // Few matches, or a page deep enough that the walk would visit more rows than there are matches:
+            // sorting just the matches is cheaper than walking the sort index
+            Comparator<Todo> cmp = comparatorFor(field);
+            if (descending) cmp = cmp.reversed();
+            Stream<Todo> candidates = selection.stream();
+            if (after != null) candidates = candidates.filter(after::precedes);
+            if (parallel.appliesTo(total)) {
+                // Many matches on a big store: filter and sort chunks on the bounded sort pool
+                ordered = parallel.sorted(candidates, total, cmp, (int) Math.min(reach, total)).stream();
+                metrics.strategy("parallel");
+            } else if (reach * TOP_K_RATIO < total) {
+                // Shallow page: keep only the rows it can reach instead of ordering every match
+                ordered = topK(candidates, cmp, (int) reach).stream();
+                metrics.strategy("heap");
+            } else {
+                // sorted() buffers everything anyway; collecting here keeps the sort out of "page"
+                ordered = candidates.sorted(cmp).collect(Collectors.toList()).stream();
+                metrics.strategy("sort");
+            }
+        } else if (after != null) {
+            ordered = repo.findAllSortedAfter(field, descending, after.getKey(), after.getId())
+                    .filter(selection::contains);
+            metrics.strategy("index");
+        } else {
+            ordered = repo.findAllSorted(field, descending).filter(selection::contains);
+            metrics.strategy("index");
+        }
 
-        int from = Math.max(0, Math.min(pageNumber * pageSize, total));
-        int to   = Math.max(from, Math.min(from + pageSize, total));
+        // On the index path the walk itself is lazy, so its cost lands in "page"
+        t = metrics.lap("sort", t);
 
-        List<TodoResponse> page = filtered.subList(from, to)
-                .stream()
+        // One extra row tells us whether a next page exists
+        List<Todo> window = ordered.skip(skip).limit(limit + 1L).collect(Collectors.toList());
+        String nextCursor = null;
+        if (window.size() > limit) {
+            window = window.subList(0, limit);
+            if (limit > 0) nextCursor = PageCursor.after(field, descending, window.get(limit - 1)).encode();
+        }
+
+        t = metrics.lap("page", t);
+        List<TodoResponse> page = window.stream().map(TodoMapper::toResponse).collect(Collectors.toList());
+        metrics.lap("map", t);
+        PageResponse<TodoResponse> response = new PageResponse<>(page, pageNumber, pageSize, total);
+        response.setNextCursor(nextCursor);
+        return response;
+    }
+
+    @Override
+    public Stream<TodoResponse> export(String textFilter, Priority priorityFilter, Boolean doneFilter) {
+        // timed from open to close, so it covers the whole streamed response
+        Timer.Sample sample = Timer.start();
+        TodoSelection selection = repo.select(new TodoFilter(textFilter, priorityFilter, doneFilter));
+        return repo.findAllSorted(SortField.CREATION_DATE, false)
+                .filter(selection::contains)
                 .map(TodoMapper::toResponse)
-                .collect(Collectors.toList());
+                .onClose(() -> sample.stop(metrics.method("export")));
+    }
+
+    @Override
+    public Optional<TodoResponse> update(Long id, TodoRequest request, Long expectedVersion) {
+        return metrics.method("update").record(() -> change(id, expectedVersion, TodoChange.Type.UPDATED, current ->
+                TodoMapper.updateEntity(current, request).toBuilder().updatedAt(LocalDateTime.now()).build()));
+    }
+
+    @Override
+    public Optional<TodoResponse> setDone(Long id, boolean done, Long expectedVersion) {
+        return metrics.method("setDone").record(() -> change(id, expectedVersion, TodoChange.Type.DONE, current -> {
+            LocalDateTime now = LocalDateTime.now();
+            return current.toBuilder().done(done).doneDate(done ? now : null).updatedAt(now).build();
+        }));
+    }
+
+    /**
+     * Read, derive the next snapshot, compare-and-set. Losing a race to another writer just means
+     * deriving again from the newer snapshot, unless the caller pinned a version: then it's a conflict.
+     */
+    private Optional<TodoResponse> change(Long id, Long expectedVersion, TodoChange.Type type,
+                                          UnaryOperator<Todo> change) {
+        while (true) {
+            Optional<Todo> found = repo.findById(id);
+            if (found.isEmpty()) return Optional.empty();
+            Todo current = found.get();
+            if (expectedVersion != null && current.getVersion() != expectedVersion) {
+                throw new VersionConflictException("Todo " + id + " is at version " + current.getVersion()
+                        + ", not " + expectedVersion);
+            }
+            Optional<Todo> stored = repo.replace(current, change.apply(current));
+            if (stored.isPresent()) {
+                completionStats.remove(current);
+                completionStats.add(stored.get());
+                TodoResponse response = TodoMapper.toResponse(stored.get());
+                publish(new TodoChange(type, id, response));
+                return Optional.of(response);
+            }
+        }
+    }
 
-        return new PageResponse<>(page, pageNumber, pageSize, total);
+    @Override
+    public boolean delete(Long id) {
+        return metrics.method("delete").record(() -> {
+            // only the delete that actually removed the todo counts it and announces it
+            Optional<Todo> removed = repo.deleteById(id);
+            removed.ifPresent(entity -> {
+                completionStats.remove(entity);
+                publish(new TodoChange(TodoChange.Type.DELETED, id, null));
+            });
+            return removed.isPresent();
+        });
     }
 
     @Override
-    public Optional<TodoResponse> update(Long id, TodoRequest request) {
-        return repo.findById(id).map(entity -> {
-            TodoMapper.updateEntity(entity, request);
-            entity.setUpdatedAt(LocalDateTime.now());
-            repo.save(entity);
-            return TodoMapper.toResponse(entity);
+    public List<BatchResult> applyBatch(List<BatchOperation> operations) {
+        return metrics.method("applyBatch").record(() -> {
+            int n = operations.size();
+            int[] status = new int[n];
+            String[] error = new String[n];
+            Long[] touched = new Long[n];
+            int[] createdAt = new int[n];
+            // each op's own result in the batch-local view, reported if a later op in the batch deletes its todo
+            Todo[] applied = new Todo[n];
+
+            // Apply in order against a batch-local view, then write everything in one go
+            List<Todo> created = new ArrayList<>();
+            Map<Long, Todo> base = new HashMap<>();
+            Map<Long, Todo> changed = new LinkedHashMap<>();
+            Set<Long> deleted = new LinkedHashSet<>();
+            Map<Long, TodoChange.Type> changeType = new HashMap<>();
+            LocalDateTime now = LocalDateTime.now();
+
+            for (int i = 0; i < n; i++) {
+                BatchOperation op = operations.get(i);
+                if (op.getOp() == BatchOperation.Type.CREATE) {
+                    created.add(TodoMapper.toEntity(op.getTodo()).toBuilder().createdAt(now).updatedAt(now).build());
+                    createdAt[i] = created.size() - 1;
+                    status[i] = 201;
+                    continue;
+                }
+                Long id = op.getId();
+                Todo current = deleted.contains(id) ? null
+                        : changed.containsKey(id) ? changed.get(id)
+                        : base.computeIfAbsent(id, k -> repo.findById(k).orElse(null));
+                if (current == null) {
+                    status[i] = 404;
+                    error[i] = "Todo " + id + " not found";
+                    continue;
+                }
+                Long expected = op.getTodo() == null ? null : op.getTodo().getVersion();
+                if (expected != null && base.get(id).getVersion() != expected) {
+                    status[i] = 409;
+                    error[i] = "Todo " + id + " is at version " + base.get(id).getVersion() + ", not " + expected;
+                    continue;
+                }
+                touched[i] = id;
+                if (op.getOp() == BatchOperation.Type.DELETE) {
+                    changed.remove(id);
+                    deleted.add(id);
+                    // 204 or 404 once the repository says whether it was still there to delete
+                    status[i] = 204;
+                    continue;
+                }
+                changeType.put(id, op.getOp() == BatchOperation.Type.DONE ? TodoChange.Type.DONE : TodoChange.Type.UPDATED);
+                switch (op.getOp()) {
+                    case UPDATE -> changed.put(id, TodoMapper.updateEntity(current, op.getTodo())
+                            .toBuilder().updatedAt(now).build());
+                    case DONE -> changed.put(id, current.toBuilder().done(op.getDone())
+                            .doneDate(op.getDone() ? now : null).updatedAt(now).build());
+                    default -> throw new IllegalArgumentException("Unsupported batch operation " + op.getOp());
+                }
+                applied[i] = changed.get(id);
+                status[i] = 200;
+            }
+
+            List<Todo> stored = repo.saveAll(created);
+            for (Todo todo : stored) {
+                publish(new TodoChange(TodoChange.Type.CREATED, todo.getId(), TodoMapper.toResponse(todo)));
+            }
+            // changes only land if nobody else wrote the todo since we read it
+            List<Long> ids = new ArrayList<>(changed.keySet());
+            List<Todo> replaced = repo.replaceAll(ids.stream().map(base::get).toList(), new ArrayList<>(changed.values()));
+            Map<Long, Todo> latest = new HashMap<>();
+            for (int k = 0; k < ids.size(); k++) {
+                Todo next = replaced.get(k);
+                if (next == null) continue;
+                completionStats.remove(base.get(ids.get(k)));
+                completionStats.add(next);
+                latest.put(ids.get(k), next);
+                publish(new TodoChange(changeType.get(ids.get(k)), ids.get(k), TodoMapper.toResponse(next)));
+            }
+            Set<Long> removedIds = new HashSet<>();
+            for (Todo removed : repo.deleteAllById(deleted)) {
+                removedIds.add(removed.getId());
+                completionStats.remove(removed);
+                publish(new TodoChange(TodoChange.Type.DELETED, removed.getId(), null));
+            }
+
+            List<BatchResult> results = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                Todo subject = null;
+                if (status[i] == 201) {
+                    subject = stored.get(createdAt[i]);
+                } else if (status[i] == 204 && !removedIds.contains(touched[i])) {
+                    status[i] = 404;
+                    error[i] = "Todo " + touched[i] + " not found";
+                } else if (status[i] == 200 && deleted.contains(touched[i])) {
+                    // superseded by the batch's own delete, never written on its own
+                    subject = applied[i];
+                } else if (status[i] == 200) {
+                    subject = latest.get(touched[i]);
+                    if (subject == null) {
+                        status[i] = 409;
+                        error[i] = "Todo " + touched[i] + " was changed concurrently";
+                    }
+                }
+                TodoResponse todo = subject == null ? null : TodoMapper.toResponse(subject);
+                results.add(new BatchResult(i, status[i], todo, error[i]));
+            }
+            return results;
         });
     }
 
     @Override
-    public Optional<TodoResponse> setDone(Long id, boolean done) {
-        return repo.findById(id).map(entity -> {
-            entity.setDone(done);
-            entity.setDoneDate(done ? LocalDateTime.now() : null);
-            entity.setUpdatedAt(LocalDateTime.now());
-            repo.save(entity);
-            return TodoMapper.toResponse(entity);
+    public SyncResponse sync(long since, Long after, int limit) {
+        return metrics.method("sync").record(() -> {
+            ChangeSet changes = repo.changesSince(since, after, Math.min(Math.max(1, limit), MAX_SYNC));
+            List<TodoResponse> changed = changes.changed().stream().map(TodoMapper::toResponse).toList();
+            return new SyncResponse(changed, changes.deleted(), changes.highWater(), changes.reset(), changes.hasMore(),
+                    changes.resumeAfter());
         });
     }
 
     @Override
-    public boolean delete(Long id) {
-        boolean exists = repo.findById(id).isPresent();
-        if (exists) repo.deleteById(id);
-        return exists;
+    public List<TodoResponse> overdue(int limit) {
+        return metrics.method("overdue").record(() -> reminders.overdue(Math.min(Math.max(1, limit), MAX_OVERDUE))
+                .stream()
+                .map(repo::findById)
+                .flatMap(Optional::stream)
+                // a done todo's late-arriving older write may have put it back briefly
+                .filter(t -> !t.isDone())
+                .map(TodoMapper::toResponse)
+                .toList());
+    }
+
+    /** Every write goes out on the change feed and keeps the reminder wheel in step. */
+    private void publish(TodoChange change) {
+        if (change.getType() == TodoChange.Type.DELETED) {
+            reminders.cancel(change.getId());
+        } else {
+            TodoResponse todo = change.getTodo();
+            reminders.track(todo.getId(), todo.getVersion(), todo.getDueDate(), todo.isDone());
+        }
+        changes.append(change);
+    }
+
+    /** A reminder whose todo was done, deleted or moved since it fired is dropped. */
+    private void remind(DueDateReminders.Reminder reminder) {
+        repo.findById(reminder.id())
+                .filter(t -> !t.isDone() && reminder.due().equals(t.getDueDate()))
+                .ifPresent(t -> changes.append(new TodoChange(reminder.kind() == DueDateReminders.Reminder.Kind.OVERDUE
+                        ? TodoChange.Type.OVERDUE : TodoChange.Type.DUE_SOON, t.getId(), TodoMapper.toResponse(t))));
+    }
+
+    @Override
+    public String epoch() {
+        return epoch;
     }
 
-    private static String safe(String s) { return s == null ? "" : s; }
+    @Override
+    public String dataVersion() {
+        return epoch + "-" + Long.toHexString(repo.modificationCount());
+    }
+
+    @Override
+    public CompletionMetricsResponse completionMetrics() {
+        return metrics.method("completionMetrics").record(completionStats::snapshot);
+    }
+
+    /** Text matching ignores case, so "Pay" and "pay" share a cache entry. */
+    private static String normalise(String text) {
+        return text == null ? null : text.toLowerCase(Locale.ROOT);
+    }
 
     /** Map request string to enum (supports both new enum names and legacy strings). */
     private static SortField parseSortField(String sortBy) {
@@ -138,12 +512,33 @@ public class TodoServiceImpl implements TodoService {
         }
     }
 
+    /**
+     * The first {@code k} of {@code todos} in {@code cmp} order, via a heap of at most {@code k} rows whose
+     * root is the worst kept. {@code cmp} ends on the id, so the result is exactly the sorted prefix.
+     */
+    static List<Todo> topK(Stream<Todo> todos, Comparator<Todo> cmp, int k) {
+        PriorityQueue<Todo> kept = new PriorityQueue<>(k + 1, cmp.reversed());
+        todos.forEach(t -> {
+            if (kept.size() < k) {
+                kept.add(t);
+            } else if (cmp.compare(t, kept.peek()) < 0) {
+                kept.poll();
+                kept.add(t);
+            }
+        });
+        List<Todo> first = new ArrayList<>(kept);
+        first.sort(cmp);
+        return first;
+    }
+
+    /** Same order as the repository's sort indexes: field value (nulls last), then id. */
     private static Comparator<Todo> comparatorFor(SortField field) {
-        return switch (field) {
+        Comparator<Todo> byField = switch (field) {
             case PRIORITY -> Comparator.comparing(Todo::getPriority, Comparator.nullsLast(Comparator.naturalOrder()));
             case DUE_DATE -> Comparator.comparing(Todo::getDueDate, Comparator.nullsLast(Comparator.naturalOrder()));
             case DONE -> Comparator.comparing(Todo::isDone);
             default -> Comparator.comparing(Todo::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder()));
         };
+        return byField.thenComparing(Todo::getId);
     }
 }
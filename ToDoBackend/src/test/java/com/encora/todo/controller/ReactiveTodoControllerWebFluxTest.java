@@ -0,0 +1,213 @@
+package com.encora.todo.controller;
+
+import com.encora.todo.domain.Priority;
+import com.encora.todo.dto.PageResponse;
+import com.encora.todo.dto.TodoChange;
+import com.encora.todo.dto.TodoRequest;
+import com.encora.todo.dto.TodoResponse;
+import com.encora.todo.exception.VersionConflictException;
+import com.encora.todo.service.ChangeLog;
+import com.encora.todo.service.ReactiveTodoService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(controllers = ReactiveTodoController.class)
+@ActiveProfiles("reactive")
+@Import(ErrorMetrics.class)
+class ReactiveTodoControllerWebFluxTest {
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        ChangeLog changeLog() {
+            return new ChangeLog(16);
+        }
+    }
+
+    @Autowired
+    WebTestClient client;
+
+    @MockBean
+    ReactiveTodoService service;
+
+    @Autowired
+    ChangeLog changeLog;
+
+    @BeforeEach
+    void stubEpoch() {
+        when(service.epoch()).thenReturn("e");
+    }
+
+    private static TodoResponse todo(long id, String title, long version) {
+        TodoResponse r = new TodoResponse();
+        r.setId(id);
+        r.setTitle(title);
+        r.setVersion(version);
+        return r;
+    }
+
+    private static String tag(long id, long version) {
+        return "\"e-" + id + "-" + version + "\"";
+    }
+
+    @Test
+    void list_asNdjson_streamsPageContent_withTotalsInHeaders() {
+        PageResponse<TodoResponse> page = new PageResponse<>(List.of(todo(1, "A", 1), todo(2, "B", 1)), 0, 2, 5);
+        page.setNextCursor("abc");
+        when(service.dataVersion()).thenReturn("e-1");
+        when(service.list(eq(0), eq(2), eq("createdAt"), eq("desc"), isNull(), eq(Priority.HIGH), isNull()))
+                .thenReturn(Mono.just(page));
+
+        String etag = client.get().uri("/api/todos?pageSize=2&priority=HIGH")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(ReactiveTodoController.TOTAL_COUNT, "5")
+                .expectHeader().valueEquals(ReactiveTodoController.NEXT_CURSOR, "abc")
+                .expectBodyList(TodoResponse.class).hasSize(2)
+                .returnResult().getResponseHeaders().getETag();
+
+        client.get().uri("/api/todos?pageSize=2&priority=HIGH")
+                .header("If-None-Match", etag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    void list_isThePageEnvelope_likeTheServletController() {
+        PageResponse<TodoResponse> page = new PageResponse<>(List.of(todo(1, "A", 1), todo(2, "B", 1)), 0, 2, 5);
+        page.setNextCursor("abc");
+        when(service.dataVersion()).thenReturn("e-1");
+        when(service.list(eq(0), eq(2), eq("createdAt"), eq("desc"), isNull(), isNull(), isNull()))
+                .thenReturn(Mono.just(page));
+
+        client.get().uri("/api/todos?pageSize=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectHeader().exists("ETag")
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(2)
+                .jsonPath("$.content[0].title").isEqualTo("A")
+                .jsonPath("$.totalElements").isEqualTo(5)
+                .jsonPath("$.totalPages").isEqualTo(3)
+                .jsonPath("$.nextCursor").isEqualTo("abc");
+    }
+
+    @Test
+    void export_isNdjsonFlux() {
+        when(service.export(eq("x"), isNull(), isNull())).thenReturn(Flux.just(todo(1, "A", 1), todo(2, "B", 1)));
+
+        String body = client.get().uri("/api/todos/export?text=x")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        assertThat(body.split("\n")).hasSize(2).allMatch(line -> line.startsWith("{\"id\":"));
+    }
+
+    @Test
+    void changes_streamsServerSentEvents_resumingAfterLastEventId() {
+        changeLog.append(new TodoChange(TodoChange.Type.CREATED, 1L, todo(1, "A", 1)));
+        String first = changeLog.eventId(changeLog.head());
+        changeLog.append(new TodoChange(TodoChange.Type.DELETED, 1L, null));
+
+        Flux<ServerSentEvent<String>> events = client.get().uri("/api/todos/changes")
+                .header("Last-Event-ID", first)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<String>>() {})
+                .getResponseBody();
+
+        StepVerifier.create(events.take(1))
+                .assertNext(e -> {
+                    assertThat(e.event()).isEqualTo("todo");
+                    assertThat(e.id()).isEqualTo(changeLog.eventId(changeLog.head()));
+                    assertThat(e.data()).contains("\"type\":\"DELETED\"");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void get_etagAndNotFound() {
+        when(service.getById(42L)).thenReturn(Mono.just(todo(42, "A", 3)));
+        when(service.getById(99L)).thenReturn(Mono.empty());
+
+        client.get().uri("/api/todos/42").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", tag(42, 3));
+        client.get().uri("/api/todos/42").header("If-None-Match", tag(42, 3)).exchange()
+                .expectStatus().isNotModified();
+        client.get().uri("/api/todos/99").exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void update_staleIfMatchIs412_staleBodyVersionIs409() {
+        when(service.update(eq(5L), any(TodoRequest.class), eq(2L)))
+                .thenReturn(Mono.error(new VersionConflictException("Todo 5 is at version 3, not 2")));
+
+        client.put().uri("/api/todos/5").header("If-Match", tag(5, 2))
+                .contentType(MediaType.APPLICATION_JSON).bodyValue("{\"title\":\"New\"}")
+                .exchange()
+                .expectStatus().isEqualTo(412);
+        client.put().uri("/api/todos/5")
+                .contentType(MediaType.APPLICATION_JSON).bodyValue("{\"title\":\"New\",\"version\":2}")
+                .exchange()
+                .expectStatus().isEqualTo(409);
+        client.patch().uri("/api/todos/5/done?done=true").header("If-Match", "W/" + tag(5, 3))
+                .exchange()
+                .expectStatus().isEqualTo(412);
+    }
+
+    @Test
+    void create_validatesBody_andDeleteMaps404() {
+        when(service.create(any(TodoRequest.class))).thenReturn(Mono.just(todo(7, "Buy milk", 1)));
+        when(service.delete(10L)).thenReturn(Mono.just(true));
+        when(service.delete(11L)).thenReturn(Mono.just(false));
+
+        client.post().uri("/api/todos")
+                .contentType(MediaType.APPLICATION_JSON).bodyValue("{\"title\":\"Buy milk\"}")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody().jsonPath("$.id").isEqualTo(7);
+        client.post().uri("/api/todos")
+                .contentType(MediaType.APPLICATION_JSON).bodyValue("{\"title\":\"\"}")
+                .exchange()
+                .expectStatus().isBadRequest();
+        verify(service).create(any(TodoRequest.class));
+
+        client.delete().uri("/api/todos/10").exchange().expectStatus().isNoContent();
+        client.delete().uri("/api/todos/11").exchange().expectStatus().isNotFound();
+    }
+}
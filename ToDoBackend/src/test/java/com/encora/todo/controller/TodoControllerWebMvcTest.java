@@ -1,33 +1,69 @@
 package com.encora.todo.controller;
 
 import com.encora.todo.domain.Priority;
+import com.encora.todo.dto.BatchResult;
+import com.encora.todo.dto.ImportReport;
 import com.encora.todo.dto.PageResponse;
+import com.encora.todo.dto.SyncResponse;
 import com.encora.todo.dto.TodoRequest;
 import com.encora.todo.dto.TodoResponse;
+import com.encora.todo.exception.VersionConflictException;
+import com.encora.todo.service.TodoImporter;
 import com.encora.todo.service.TodoService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = TodoController.class)
+@Import(ErrorMetrics.class)
 class TodoControllerWebMvcTest {
 
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        TodoJsonCache todoJsonCache() {
+            return new TodoJsonCache(1 << 20);
+        }
+
+        @Bean
+        TodoPageConverter todoPageConverter(ObjectMapper om, TodoJsonCache cache) {
+            return new TodoPageConverter(om, cache);
+        }
+    }
+
     @Autowired
     MockMvc mvc;
 
@@ -37,6 +73,23 @@ class TodoControllerWebMvcTest {
     @MockBean
     TodoService service;
 
+    @MockBean
+    TodoImporter importer;
+
+    @MockBean
+    ChangeFeed changeFeed;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    TodoJsonCache jsonCache;
+
+    @BeforeEach
+    void stubEpoch() {
+        when(service.epoch()).thenReturn("e");
+    }
+
     @Test
     void list_mapsQueryParams_defaultsAndJsonShape() throws Exception {
         TodoResponse item = new TodoResponse();
@@ -60,6 +113,56 @@ class TodoControllerWebMvcTest {
                 .andExpect(jsonPath("$.totalPages").value(1));
     }
 
+    @Test
+    void list_withCursor_usesKeysetPaging() throws Exception {
+        TodoResponse item = new TodoResponse();
+        item.setId(2L);
+        PageResponse<TodoResponse> page = new PageResponse<>(List.of(item), -1, 1, 5);
+        page.setNextCursor("next");
+        when(service.listAfter(eq("abc"), eq(1), eq("createdAt"), eq("desc"), isNull(), isNull(), isNull()))
+                .thenReturn(page);
+
+        mvc.perform(get("/api/todos")
+                        .queryParam("cursor", "abc")
+                        .queryParam("pageSize", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(2))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void list_splicesCachedTodoJson_byteForByteAsJacksonWouldWriteIt() throws Exception {
+        TodoResponse a = new TodoResponse();
+        a.setId(7L);
+        a.setTitle("Quote \" and ünïcode");
+        a.setPriority(Priority.HIGH);
+        a.setDueDate(LocalDateTime.of(2024, 5, 1, 9, 30));
+        a.setUpdatedAt(LocalDateTime.of(2024, 4, 1, 8, 0, 0, 123_000_000));
+        a.setVersion(3);
+        TodoResponse b = new TodoResponse();
+        b.setId(8L);
+        PageResponse<TodoResponse> page = new PageResponse<>(List.of(a, b), 0, 2, 5);
+        page.setNextCursor("c\\d");
+        when(service.list(anyInt(), anyInt(), any(), any(), any(), any(), any())).thenReturn(page);
+
+        byte[] expected = om.writeValueAsBytes(page);
+        long misses = jsonCache.misses();
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(get("/api/todos"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(content().bytes(expected));
+        }
+        assertThat(jsonCache.misses() - misses).isEqualTo(2);
+
+        // a write bumps the version, so the next page serializes that todo again
+        a.setVersion(4);
+        a.setTitle("renamed");
+        mvc.perform(get("/api/todos"))
+                .andExpect(content().bytes(om.writeValueAsBytes(page)));
+        assertThat(jsonCache.misses() - misses).isEqualTo(3);
+    }
+
     @Test
     void getById_200_and_404() throws Exception {
         TodoResponse r = new TodoResponse();
@@ -101,7 +204,7 @@ class TodoControllerWebMvcTest {
     void update_200_and_putsPatch() throws Exception {
         TodoResponse updated = new TodoResponse();
         updated.setId(5L); updated.setTitle("New");
-        when(service.update(eq(5L), any(TodoRequest.class))).thenReturn(Optional.of(updated));
+        when(service.update(eq(5L), any(TodoRequest.class), isNull())).thenReturn(Optional.of(updated));
 
         String body = """
             {"title":"New","priority":"LOW"}
@@ -120,8 +223,8 @@ class TodoControllerWebMvcTest {
         done.setId(3L);
         done.setDone(true);
 
-        when(service.setDone(3L, true)).thenReturn(Optional.of(done));
-        when(service.setDone(88L, true)).thenReturn(Optional.empty());
+        when(service.setDone(3L, true, null)).thenReturn(Optional.of(done));
+        when(service.setDone(88L, true, null)).thenReturn(Optional.empty());
 
         mvc.perform(patch("/api/todos/3/done").param("done", "true"))
                 .andExpect(status().isOk())
@@ -131,6 +234,235 @@ class TodoControllerWebMvcTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void export_streamsNdjson_withFilters() throws Exception {
+        TodoResponse a = new TodoResponse();
+        a.setId(1L);
+        a.setTitle("A");
+        TodoResponse b = new TodoResponse();
+        b.setId(2L);
+        b.setTitle("B");
+        when(service.export(eq("x"), eq(Priority.HIGH), isNull())).thenReturn(Stream.of(a, b));
+
+        MvcResult started = mvc.perform(get("/api/todos/export")
+                        .queryParam("text", "x")
+                        .queryParam("priority", "HIGH"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(om.readTree(lines[0]).get("id").asLong()).isEqualTo(1L);
+        assertThat(om.readTree(lines[1]).get("title").asText()).isEqualTo("B");
+    }
+
+    @Test
+    void import_routesByContentType() throws Exception {
+        ImportReport report = new ImportReport();
+        report.setRows(2);
+        report.setImported(2);
+        when(importer.importCsv(any())).thenReturn(report);
+
+        mvc.perform(post("/api/todos/import")
+                        .contentType("text/csv")
+                        .content("title\na\nb\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2));
+
+        mvc.perform(post("/api/todos/import")
+                        .contentType(MediaType.APPLICATION_XML)
+                        .content("<todo/>"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    @Test
+    void batch_rejectsInvalidItems_andAppliesTheRest() throws Exception {
+        TodoResponse created = new TodoResponse();
+        created.setId(9L);
+        when(service.applyBatch(anyList())).thenReturn(List.of(
+                new BatchResult(0, 201, created, null),
+                new BatchResult(1, 204, null, null)));
+
+        String body = """
+            [{"op":"CREATE","todo":{"title":"ok"}},
+             {"op":"CREATE","todo":{"title":""}},
+             {"op":"DELETE","id":3},
+             {"op":"DONE","id":4}]
+            """;
+
+        mvc.perform(post("/api/todos/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(201))
+                .andExpect(jsonPath("$[0].todo.id").value(9))
+                .andExpect(jsonPath("$[1].status").value(400))
+                .andExpect(jsonPath("$[1].error").value("title: must not be blank"))
+                .andExpect(jsonPath("$[2].index").value(2))
+                .andExpect(jsonPath("$[2].status").value(204))
+                .andExpect(jsonPath("$[3].status").value(400))
+                .andExpect(jsonPath("$[3].error").value("done is required"));
+    }
+
+    @Test
+    void list_conditionalGet_answers304WithoutQuerying_untilDataVersionChanges() throws Exception {
+        when(service.dataVersion()).thenReturn("e-1");
+        when(service.list(anyInt(), anyInt(), any(), any(), any(), any(), any()))
+                .thenReturn(new PageResponse<>(List.of(), 0, 10, 0));
+
+        String etag = mvc.perform(get("/api/todos").queryParam("text", "pay"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(etag).startsWith("\"e-1-");
+
+        mvc.perform(get("/api/todos").queryParam("text", "pay").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mvc.perform(get("/api/todos").queryParam("text", "other").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+        verify(service, times(2)).list(anyInt(), anyInt(), any(), any(), any(), any(), any());
+
+        when(service.dataVersion()).thenReturn("e-2");
+        mvc.perform(get("/api/todos").queryParam("text", "pay").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)));
+    }
+
+    @Test
+    void getById_conditionalGet_usesVersion() throws Exception {
+        TodoResponse r = new TodoResponse();
+        r.setId(42L);
+        r.setVersion(3);
+        when(service.getById(42L)).thenReturn(Optional.of(r));
+
+        String etag = mvc.perform(get("/api/todos/42"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", tag(42, 3)))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mvc.perform(get("/api/todos/42").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        r.setVersion(4);
+        mvc.perform(get("/api/todos/42").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void update_ifMatch_passesVersion_andStaleTagIs412() throws Exception {
+        TodoResponse updated = new TodoResponse();
+        updated.setId(5L);
+        updated.setVersion(4);
+        when(service.update(eq(5L), any(TodoRequest.class), eq(3L))).thenReturn(Optional.of(updated));
+        when(service.update(eq(5L), any(TodoRequest.class), eq(2L)))
+                .thenThrow(new VersionConflictException("Todo 5 is at version 3, not 2"));
+
+        mvc.perform(put("/api/todos/5").header("If-Match", tag(5, 3))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"New\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", tag(5, 4)));
+
+        mvc.perform(put("/api/todos/5").header("If-Match", tag(5, 2))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"New\"}"))
+                .andExpect(status().isPreconditionFailed());
+
+        // weak or foreign tags never match
+        mvc.perform(patch("/api/todos/5/done").param("done", "true").header("If-Match", "W/" + tag(5, 3)))
+                .andExpect(status().isPreconditionFailed());
+        mvc.perform(patch("/api/todos/5/done").param("done", "true").header("If-Match", tag(6, 3)))
+                .andExpect(status().isPreconditionFailed());
+        // a tag from before a restart names a version the new store may reuse for another todo
+        mvc.perform(put("/api/todos/5").header("If-Match", "\"0-5-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"New\"}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void update_staleBodyVersion_is409() throws Exception {
+        when(service.update(eq(5L), any(TodoRequest.class), eq(2L)))
+                .thenThrow(new VersionConflictException("Todo 5 is at version 3, not 2"));
+
+        mvc.perform(put("/api/todos/5")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"New\",\"version\":2}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void errorMetrics_countValidationFailuresAndNotFound_withoutChangingResponses() throws Exception {
+        when(service.getById(99L)).thenReturn(Optional.empty());
+        double notFound = meterRegistry.counter("todo.not.found").count();
+        double invalid = meterRegistry.counter("todo.validation.failures", "source", "request").count();
+
+        mvc.perform(get("/api/todos/99"))
+                .andExpect(status().isNotFound());
+        mvc.perform(post("/api/todos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"\"}"))
+                .andExpect(status().isBadRequest());
+
+        assertThat(meterRegistry.counter("todo.not.found").count()).isEqualTo(notFound + 1);
+        assertThat(meterRegistry.counter("todo.validation.failures", "source", "request").count()).isEqualTo(invalid + 1);
+    }
+
+    @Test
+    void changes_resumesFromLastEventIdHeader_orQueryParam() throws Exception {
+        when(changeFeed.open(any())).thenReturn(new SseEmitter(0L));
+
+        mvc.perform(get("/api/todos/changes").header("Last-Event-ID", "e-7"))
+                .andExpect(request().asyncStarted());
+        mvc.perform(get("/api/todos/changes").queryParam("lastEventId", "e-9"))
+                .andExpect(request().asyncStarted());
+        mvc.perform(get("/api/todos/changes"))
+                .andExpect(request().asyncStarted());
+
+        verify(changeFeed).open("e-7");
+        verify(changeFeed).open("e-9");
+        verify(changeFeed).open(null);
+    }
+
+    @Test
+    void overdue_isNotMistakenForAnId() throws Exception {
+        TodoResponse late = new TodoResponse();
+        late.setId(3L);
+        when(service.overdue(5)).thenReturn(List.of(late));
+
+        mvc.perform(get("/api/todos/overdue").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(3));
+    }
+
+    @Test
+    void sync_passesSinceAndLimit() throws Exception {
+        TodoResponse changed = new TodoResponse();
+        changed.setId(1L);
+        when(service.sync(anyLong(), any(), anyInt()))
+                .thenReturn(new SyncResponse(List.of(changed), List.of(2L), 42L, false, true, null));
+
+        mvc.perform(get("/api/todos/sync").param("since", "7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changed[0].id").value(1))
+                .andExpect(jsonPath("$.deleted[0]").value(2))
+                .andExpect(jsonPath("$.highWater").value(42))
+                .andExpect(jsonPath("$.reset").value(false))
+                .andExpect(jsonPath("$.hasMore").value(true));
+
+        verify(service).sync(7L, null, 500);
+
+        mvc.perform(get("/api/todos/sync").param("since", "42").param("after", "9").param("limit", "2"))
+                .andExpect(status().isOk());
+        verify(service).sync(42L, 9L, 2);
+    }
+
     @Test
     void delete_204_and_404() throws Exception {
         when(service.delete(10L)).thenReturn(true);
@@ -142,4 +474,8 @@ class TodoControllerWebMvcTest {
         mvc.perform(delete("/api/todos/11"))
                 .andExpect(status().isNotFound());
     }
+
+    private static String tag(long id, long version) {
+        return "\"e-" + id + "-" + version + "\"";
+    }
 }
@@ -0,0 +1,65 @@
+package com.encora.todo.controller;
+
+import com.encora.todo.dto.TodoResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TodoJsonCacheTest {
+
+    private final ObjectWriter writer = new ObjectMapper().findAndRegisterModules().writer();
+
+    private static TodoResponse todo(long id, long version, String title) {
+        TodoResponse t = new TodoResponse();
+        t.setId(id);
+        t.setVersion(version);
+        t.setTitle(title);
+        t.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 0, 0));
+        return t;
+    }
+
+    @Test
+    void sameVersionAndUpdatedAt_isAHit_anyWriteReserializes() throws Exception {
+        TodoJsonCache cache = new TodoJsonCache(1 << 16);
+
+        byte[] first = cache.json(todo(1, 1, "a"), writer);
+        assertThat(cache.json(todo(1, 1, "a"), writer)).isSameAs(first);
+
+        assertThat(new String(cache.json(todo(1, 2, "b"), writer))).contains("\"title\":\"b\"");
+        TodoResponse touched = todo(1, 2, "c");
+        touched.setUpdatedAt(LocalDateTime.of(2024, 1, 2, 0, 0));   // e.g. a restored todo reusing a version
+        assertThat(new String(cache.json(touched, writer))).contains("\"title\":\"c\"");
+
+        assertThat(cache.hits()).isEqualTo(1);
+        assertThat(cache.misses()).isEqualTo(3);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void byteBudget_evictsLeastRecentlyListed() throws Exception {
+        int fragment = writer.writeValueAsBytes(todo(1, 1, "x")).length + TodoJsonCache.ENTRY_OVERHEAD;
+        TodoJsonCache cache = new TodoJsonCache(3L * fragment);
+
+        cache.json(todo(1, 1, "x"), writer);
+        cache.json(todo(2, 1, "x"), writer);
+        cache.json(todo(3, 1, "x"), writer);
+        cache.json(todo(1, 1, "x"), writer);   // 1 is now the most recent
+        cache.json(todo(4, 1, "x"), writer);
+
+        assertThat(cache.evictions()).isEqualTo(1);
+        assertThat(cache.bytes()).isLessThanOrEqualTo(3L * fragment);
+        long misses = cache.misses();
+        cache.json(todo(1, 1, "x"), writer);
+        assertThat(cache.misses()).isEqualTo(misses);
+        cache.json(todo(2, 1, "x"), writer);
+        assertThat(cache.misses()).isEqualTo(misses + 1);
+
+        TodoJsonCache off = TodoJsonCache.disabled();
+        off.json(todo(1, 1, "x"), writer);
+        assertThat(off.size()).isZero();
+    }
+}
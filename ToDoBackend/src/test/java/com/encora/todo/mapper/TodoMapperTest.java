@@ -29,16 +29,18 @@ class TodoMapperTest {
 
     @Test
     void toResponse_copiesAll() {
-        Todo e = new Todo();
-        e.setId(123L);
-        e.setTitle("X");
-        e.setDescription("desc");
-        e.setPriority(Priority.CRITICAL);
-        e.setDone(true);
-        e.setDoneDate(LocalDateTime.now());
-        e.setCreatedAt(LocalDateTime.now().minusDays(1));
-        e.setUpdatedAt(LocalDateTime.now());
-        e.setDueDate(LocalDateTime.now().plusDays(5));
+        Todo e = Todo.builder()
+                .id(123L)
+                .title("X")
+                .description("desc")
+                .priority(Priority.CRITICAL)
+                .done(true)
+                .doneDate(LocalDateTime.now())
+                .createdAt(LocalDateTime.now().minusDays(1))
+                .updatedAt(LocalDateTime.now())
+                .dueDate(LocalDateTime.now().plusDays(5))
+                .version(7)
+                .build();
 
         TodoResponse r = TodoMapper.toResponse(e);
         assertThat(r.getId()).isEqualTo(123L);
@@ -50,26 +52,24 @@ class TodoMapperTest {
         assertThat(r.getCreatedAt()).isNotNull();
         assertThat(r.getUpdatedAt()).isNotNull();
         assertThat(r.getDueDate()).isNotNull();
+        assertThat(r.getVersion()).isEqualTo(7);
     }
 
     @Test
     void updateEntity_mergesOnlyProvidedFields() {
-        Todo e = new Todo();
-        e.setTitle("old");
-        e.setDescription("old-desc");
-        e.setPriority(Priority.LOW);
-        e.setDueDate(null);
+        Todo e = Todo.builder().title("old").description("old-desc").priority(Priority.LOW).build();
 
         TodoRequest patch = new TodoRequest();
         patch.setTitle("new");
         patch.setPriority(Priority.HIGH);
         // description and dueDate left null intentionally
 
-        TodoMapper.updateEntity(e, patch);
+        Todo updated = TodoMapper.updateEntity(e, patch);
 
-        assertThat(e.getTitle()).isEqualTo("new");
-        assertThat(e.getPriority()).isEqualTo(Priority.HIGH);
-        assertThat(e.getDescription()).isEqualTo("old-desc"); // unchanged
-        assertThat(e.getDueDate()).isNull();                  // unchanged
+        assertThat(updated.getTitle()).isEqualTo("new");
+        assertThat(updated.getPriority()).isEqualTo(Priority.HIGH);
+        assertThat(updated.getDescription()).isEqualTo("old-desc"); // unchanged
+        assertThat(updated.getDueDate()).isNull();                  // unchanged
+        assertThat(e.getTitle()).isEqualTo("old");                  // original snapshot untouched
     }
 }
@@ -0,0 +1,141 @@
+package com.encora.todo.repository;
+
+import com.encora.todo.domain.Priority;
+import com.encora.todo.domain.SortField;
+import com.encora.todo.domain.Todo;
+import com.encora.todo.domain.TodoFilter;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ColumnarTodoRepositoryTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private static Todo random(Random random, Long id) {
+        Priority[] p = Priority.values();
+        boolean done = random.nextBoolean();
+        return Todo.builder().id(id)
+                .title(random.nextBoolean() ? "pay bills " + random.nextInt(50) : "review report")
+                .description(random.nextInt(4) == 0 ? null : "row " + random.nextInt(1000))
+                .priority(random.nextInt(8) == 0 ? null : p[random.nextInt(p.length)])
+                .dueDate(random.nextInt(3) == 0 ? null : BASE.plusMinutes(random.nextInt(5000)))
+                .done(done)
+                .doneDate(done ? BASE.plusSeconds(random.nextInt(9000)) : null)
+                .createdAt(BASE.plusSeconds(random.nextInt(100)))
+                .updatedAt(BASE.plusNanos(random.nextInt(1000) * 1_000_000L))
+                .build();
+    }
+
+    @Test
+    void randomWorkload_readsTheSameAsTheObjectRepository() {
+        Random random = new Random(11);
+        ColumnarTodoRepository columnar = new ColumnarTodoRepository();
+        InMemoryTodoRepository objects = new InMemoryTodoRepository();
+        List<Long> ids = new ArrayList<>();
+
+        for (int i = 0; i < 5000; i++) {
+            int op = random.nextInt(10);
+            if (op < 5 || ids.isEmpty()) {
+                Todo t = random(random, null);
+                Todo a = columnar.save(t);
+                Todo b = objects.save(t);
+                assertThat(a.getId()).isEqualTo(b.getId());
+                ids.add(a.getId());
+            } else if (op < 8) {
+                Long id = ids.get(random.nextInt(ids.size()));
+                Todo next = random(random, id);
+                assertThat(columnar.replace(columnar.findById(id).orElseThrow(), next).map(Todo::getVersion))
+                        .isEqualTo(objects.replace(objects.findById(id).orElseThrow(), next).map(Todo::getVersion));
+            } else {
+                Long id = ids.remove(random.nextInt(ids.size()));
+                columnar.deleteById(id);
+                objects.deleteById(id);
+            }
+        }
+
+        assertThat(columnar.count()).isEqualTo(objects.count());
+        for (Long id : ids) {
+            assertThat(columnar.findById(id)).get().usingRecursiveComparison().ignoringFields("modSeq")
+                    .isEqualTo(objects.findById(id).orElseThrow());
+        }
+        for (SortField field : SortField.values()) {
+            for (boolean desc : new boolean[] { false, true }) {
+                List<Long> expected = objects.findAllSorted(field, desc).map(Todo::getId).toList();
+                assertThat(columnar.findAllSorted(field, desc).map(Todo::getId).toList())
+                        .as("%s desc=%s", field, desc).containsExactlyElementsOf(expected);
+                Todo pivot = objects.findById(expected.get(expected.size() / 3)).orElseThrow();
+                assertThat(columnar.findAllSortedAfter(field, desc, field.keyOf(pivot), pivot.getId()).map(Todo::getId).toList())
+                        .containsExactlyElementsOf(expected.subList(expected.size() / 3 + 1, expected.size()));
+            }
+        }
+        for (TodoFilter filter : List.of(new TodoFilter(null, Priority.HIGH, null), new TodoFilter(null, null, true),
+                new TodoFilter("bills 4", Priority.LOW, false), new TodoFilter("REVIEW", null, null))) {
+            TodoSelection selection = columnar.select(filter);
+            List<Todo> expected = objects.select(filter).stream().toList();
+            assertThat(selection.count()).isEqualTo(expected.size());
+            assertThat(selection.stream().map(Todo::getId)).containsExactlyInAnyOrderElementsOf(
+                    expected.stream().map(Todo::getId).toList());
+            expected.forEach(t -> assertThat(selection.contains(t)).isTrue());
+        }
+    }
+
+    @Test
+    void batches_mergeIntoTheOrders_likeOneWriteAtATime() {
+        Random random = new Random(5);
+        ColumnarTodoRepository columnar = new ColumnarTodoRepository();
+        InMemoryTodoRepository objects = new InMemoryTodoRepository();
+        for (int round = 0; round < 20; round++) {
+            List<Todo> batch = new ArrayList<>();
+            for (int i = 0; i < 200; i++) batch.add(random(random, null));
+            List<Todo> stored = columnar.findAll();
+            for (int i = 0; i < Math.min(50, stored.size()); i++) {
+                batch.add(random(random, stored.get(random.nextInt(stored.size())).getId()));   // may repeat an id
+            }
+            columnar.saveAll(batch);
+            objects.saveAll(batch);
+
+            List<Todo> current = columnar.findAll().subList(0, 100);
+            List<Todo> next = current.stream().map(t -> random(random, t.getId())).toList();
+            List<Todo> currentObjects = current.stream().map(t -> objects.findById(t.getId()).orElseThrow()).toList();
+            assertThat(columnar.replaceAll(current, next)).extracting(Todo::getVersion).containsExactlyElementsOf(
+                    objects.replaceAll(currentObjects, next).stream().map(Todo::getVersion).toList());
+            columnar.deleteAllById(current.subList(0, 10).stream().map(Todo::getId).toList());
+            objects.deleteAllById(current.subList(0, 10).stream().map(Todo::getId).toList());
+        }
+
+        for (SortField field : SortField.values()) {
+            assertThat(columnar.findAllSorted(field, false).map(Todo::getId).toList()).as("%s", field)
+                    .containsExactlyElementsOf(objects.findAllSorted(field, false).map(Todo::getId).toList());
+        }
+        for (String text : List.of("bills 4", "ro", "REVIEW", "w 1", "nothing like it")) {
+            TodoFilter filter = new TodoFilter(text, null, null);
+            assertThat(columnar.select(filter).stream().map(Todo::getId)).as(text).containsExactlyInAnyOrderElementsOf(
+                    objects.select(filter).stream().map(Todo::getId).toList());
+        }
+    }
+
+    @Test
+    void timestampsKeepMillis_andDeletedRowsAreReused() {
+        ColumnarTodoRepository repo = new ColumnarTodoRepository();
+        Todo a = repo.save(Todo.builder().title("a").createdAt(BASE.plusNanos(123_456_789)).build());
+        assertThat(a.getCreatedAt()).isEqualTo(BASE.plusNanos(123_000_000));
+        assertThat(a.getDueDate()).isNull();
+        assertThat(a.getVersion()).isEqualTo(1);
+
+        repo.deleteById(a.getId());
+        Todo b = repo.save(Todo.builder().title("b").build());
+        assertThat(repo.indexSizes()).containsEntry("column.rows", 1L).containsEntry("sort.priority", 1L);
+        assertThat(repo.findById(a.getId())).isEmpty();
+        assertThat(repo.findAll()).containsExactly(b);
+
+        long since = repo.changesSince(0, 10).highWater();
+        repo.replace(b, b.toBuilder().done(true).build());
+        assertThat(repo.changesSince(since, 10).changed()).extracting(Todo::isDone).containsExactly(true);
+    }
+}
@@ -0,0 +1,384 @@
+package com.encora.todo.repository;
+
+import com.encora.todo.domain.Priority;
+import com.encora.todo.domain.SortField;
+import com.encora.todo.domain.Todo;
+import com.encora.todo.domain.TodoFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryTodoRepositoryTest {
+
+    private InMemoryTodoRepository repo;
+
+    @BeforeEach
+    void setUp() {
+        this.repo = new InMemoryTodoRepository();
+    }
+
+    private Todo save(String title, Priority prio, LocalDateTime due) {
+        return repo.save(Todo.builder().title(title).priority(prio).dueDate(due).createdAt(LocalDateTime.now()).build());
+    }
+
+    @Test
+    void findAllSorted_walksIndexInBothDirections_nullsLastAscending() {
+        LocalDateTime now = LocalDateTime.now();
+        save("A", Priority.LOW, now.plusDays(2));
+        save("B", Priority.HIGH, null);
+        save("C", Priority.MEDIUM, now.plusDays(1));
+
+        assertThat(repo.findAllSorted(SortField.DUE_DATE, false)).extracting(Todo::getTitle)
+                .containsExactly("C", "A", "B");
+        assertThat(repo.findAllSorted(SortField.DUE_DATE, true)).extracting(Todo::getTitle)
+                .containsExactly("B", "A", "C");
+        assertThat(repo.findAllSorted(SortField.PRIORITY, true)).extracting(Todo::getTitle)
+                .containsExactly("B", "C", "A");
+    }
+
+    @Test
+    void findAllSorted_tiesBrokenById() {
+        Todo a = save("A", Priority.LOW, null);
+        Todo b = save("B", Priority.LOW, null);
+
+        assertThat(repo.findAllSorted(SortField.PRIORITY, false)).containsExactly(a, b);
+        assertThat(repo.findAllSorted(SortField.PRIORITY, true)).containsExactly(b, a);
+    }
+
+    @Test
+    void save_reindexesChangedKey_andDeleteRemovesEntry() {
+        Todo a = save("A", Priority.LOW, null);
+        Todo b = save("B", Priority.MEDIUM, null);
+
+        a = repo.save(a.toBuilder().priority(Priority.CRITICAL).build());
+        assertThat(repo.findAllSorted(SortField.PRIORITY, false)).containsExactly(b, a);
+
+        assertThat(repo.deleteById(b.getId())).contains(b);
+        assertThat(repo.deleteById(b.getId())).isEmpty();
+        assertThat(repo.findAllSorted(SortField.PRIORITY, false)).containsExactly(a);
+        assertThat(repo.findAllSorted(SortField.CREATION_DATE, false)).containsExactly(a);
+    }
+
+    private List<String> titles(TodoFilter filter) {
+        return repo.select(filter).stream().map(Todo::getTitle).collect(Collectors.toList());
+    }
+
+    @Test
+    void select_text_matchesSubstringsInTitleOrDescription_ignoringCase() {
+        Todo a = save("Pay Bills", Priority.LOW, null);
+        Todo b = save("Groceries", Priority.LOW, null);
+        repo.save(b.toBuilder().description("milk and PAYment slip").build());
+        save("Gym", Priority.LOW, null);
+
+        assertThat(titles(new TodoFilter("pay", null, null))).containsExactlyInAnyOrder("Pay Bills", "Groceries");
+        assertThat(titles(new TodoFilter("ment sl", null, null))).containsExactly("Groceries");
+        assertThat(titles(new TodoFilter("gy", null, null))).containsExactly("Gym");
+        assertThat(repo.select(new TodoFilter("billsgroc", null, null)).count()).isZero();
+    }
+
+    @Test
+    void select_text_followsEditsAndDeletes() {
+        Todo a = save("Pay bills", Priority.LOW, null);
+
+        repo.save(a.toBuilder().title("Walk dog").build());
+        assertThat(titles(new TodoFilter("bills", null, null))).isEmpty();
+        assertThat(titles(new TodoFilter("dog", null, null))).containsExactly("Walk dog");
+
+        repo.deleteById(a.getId());
+        assertThat(titles(new TodoFilter("dog", null, null))).isEmpty();
+    }
+
+    @Test
+    void select_intersectsPriorityDoneAndText_andCountsFromBitmaps() {
+        Todo a = save("Pay bills", Priority.HIGH, null);
+        save("Pay rent", Priority.HIGH, null);
+        save("Pay tax", Priority.LOW, null);
+        a = repo.save(a.toBuilder().done(true).build());
+
+        TodoSelection highOpen = repo.select(new TodoFilter("pay", Priority.HIGH, false));
+        assertThat(highOpen.count()).isEqualTo(1);
+        assertThat(highOpen.stream()).extracting(Todo::getTitle).containsExactly("Pay rent");
+        assertThat(highOpen.contains(a)).isFalse();
+
+        assertThat(repo.select(new TodoFilter(null, null, true)).count()).isEqualTo(1);
+        assertThat(repo.select(new TodoFilter(null, Priority.CRITICAL, null)).count()).isZero();
+        assertThat(repo.select(new TodoFilter(null, null, null)).count()).isEqualTo(3);
+    }
+
+    @Test
+    void select_recycledRowIsNotMistakenForTheDeletedTodo() {
+        Todo a = save("Pay bills", Priority.HIGH, null);
+        TodoSelection high = repo.select(new TodoFilter(null, Priority.HIGH, null));
+
+        repo.deleteById(a.getId());
+        Todo b = save("Walk dog", Priority.LOW, null);
+
+        assertThat(high.contains(b)).isFalse();
+        assertThat(high.stream()).isEmpty();
+    }
+
+    @Test
+    void replace_swapsOnlyFromTheCurrentVersion() {
+        Todo a = save("A", Priority.LOW, null);
+        assertThat(a.getVersion()).isEqualTo(1);
+
+        Todo b = repo.replace(a, a.toBuilder().priority(Priority.HIGH).build()).orElseThrow();
+        assertThat(b.getVersion()).isEqualTo(2);
+
+        // a is stale now: the swap fails and neither the row nor the indexes change
+        assertThat(repo.replace(a, a.toBuilder().title("lost").build())).isEmpty();
+        assertThat(repo.findById(a.getId()).orElseThrow().getTitle()).isEqualTo("A");
+        assertThat(repo.select(new TodoFilter("lost", null, null)).count()).isZero();
+        assertThat(repo.select(new TodoFilter(null, Priority.HIGH, null)).count()).isEqualTo(1);
+
+        repo.deleteById(a.getId());
+        assertThat(repo.replace(b, b.toBuilder().title("gone").build())).isEmpty();
+        assertThat(repo.count()).isZero();
+    }
+
+    @Test
+    void concurrentWritesToDifferentTodos_eachApplyOnce_andLeaveTheIndexesConsistent() throws InterruptedException {
+        List<Todo> todos = new ArrayList<>();
+        for (int i = 0; i < 64; i++) todos.add(save("t" + i, Priority.LOW, null));
+        long start = repo.changesSince(0, 10).highWater();
+
+        // each thread owns every 8th todo and bumps it through priorities and done states by compare-and-set
+        AtomicInteger lost = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            int owner = t;
+            pool.execute(() -> {
+                for (int round = 0; round < 200; round++) {
+                    for (int i = owner; i < todos.size(); i += 8) {
+                        Todo current = repo.findById(todos.get(i).getId()).orElseThrow();
+                        Todo next = current.toBuilder().priority(Priority.values()[round % Priority.values().length])
+                                .done(round % 2 == 1).build();
+                        if (repo.replace(current, next).isEmpty()) lost.incrementAndGet();
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(lost).hasValue(0);
+
+        // round 199: the last priority in the cycle, done
+        Priority last = Priority.values()[199 % Priority.values().length];
+        assertThat(repo.findAll()).allSatisfy(t -> {
+            assertThat(t.getVersion()).isEqualTo(201);
+            assertThat(t.getPriority()).isEqualTo(last);
+            assertThat(t.isDone()).isTrue();
+        });
+        assertThat(repo.select(new TodoFilter(null, last, true)).count()).isEqualTo(64);
+        assertThat(repo.select(new TodoFilter(null, null, false)).count()).isZero();
+        assertThat(repo.findAllSorted(SortField.PRIORITY, false)).hasSize(64);
+
+        ChangeSet changes = repo.changesSince(start, 100);
+        assertThat(changes.changed()).hasSize(64).extracting(Todo::getModSeq).isSorted();
+    }
+
+    @Test
+    void load_buildsTheSameIndexesAsSavingOneByOne_andLaterWritesKeepThemInStep() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Todo> restored = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            restored.add(Todo.builder().id(5000L + i * 7).title(i % 3 == 0 ? "review " + i : "other " + i)
+                    .priority(Priority.values()[i % Priority.values().length]).done(i % 4 == 0)
+                    .dueDate(i % 5 == 0 ? null : base.plusHours(i % 17)).createdAt(base.plusMinutes(i))
+                    .version(1 + i % 3).build());
+        }
+        InMemoryTodoRepository saved = new InMemoryTodoRepository();
+        saved.saveAll(restored);
+        repo.load(restored);
+
+        assertThat(repo.count()).isEqualTo(200);
+        assertThat(repo.findById(5007L).orElseThrow().getVersion()).isEqualTo(2);
+        for (SortField field : SortField.values()) {
+            for (boolean desc : new boolean[] { false, true }) {
+                assertThat(repo.findAllSorted(field, desc).map(Todo::getId).toList())
+                        .isEqualTo(saved.findAllSorted(field, desc).map(Todo::getId).toList());
+            }
+        }
+        for (TodoFilter filter : List.of(new TodoFilter("review", Priority.HIGH, null),
+                new TodoFilter(null, null, true), new TodoFilter("ther 1", null, false))) {
+            assertThat(repo.select(filter).stream().map(Todo::getId).sorted().toList())
+                    .isEqualTo(saved.select(filter).stream().map(Todo::getId).sorted().toList());
+        }
+        ChangeSet changes = repo.changesSince(0, 500);
+        assertThat(changes.changed()).hasSize(200);
+        assertThat(changes.highWater()).isEqualTo(saved.changesSince(0, 500).highWater());
+        assertThat(repo.indexSizes()).isEqualTo(saved.indexSizes());
+
+        Todo fresh = save("review later", Priority.CRITICAL, null);
+        assertThat(fresh.getId()).isGreaterThan(5000L + 199 * 7);
+        repo.deleteById(5000L);
+        assertThat(repo.select(new TodoFilter("review", null, null)).count()).isEqualTo(67);
+        assertThat(repo.findAllSorted(SortField.PRIORITY, true).findFirst().orElseThrow().getId())
+                .isEqualTo(fresh.getId());
+    }
+
+    @Test
+    void sortedWalk_meetsTodosWhoseKeyStaysPut_exactlyOnce_whileTheyAreEdited() throws Exception {
+        List<Todo> todos = new ArrayList<>();
+        for (int i = 0; i < 200; i++) todos.add(save("T" + i, Priority.values()[i % 4], null));
+        AtomicInteger uneven = new AtomicInteger();
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            var editing = pool.submit(() -> {
+                for (int round = 0; round < 50; round++) {
+                    for (Todo t : todos) {
+                        Todo current = repo.findById(t.getId()).orElseThrow();
+                        repo.replace(current, current.toBuilder().title("T" + round).build());
+                    }
+                }
+            });
+            while (!editing.isDone()) {
+                List<Long> walked = repo.findAllSorted(SortField.PRIORITY, false).map(Todo::getId).toList();
+                if (walked.size() != 200 || walked.stream().distinct().count() != 200) uneven.incrementAndGet();
+            }
+            editing.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(uneven).hasValue(0);
+    }
+
+    @Test
+    void sortedWalk_isWeaklyConsistent_forTodosReKeyedWhileItRuns() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        save("A", Priority.LOW, base.plusDays(1));
+        Todo b = save("B", Priority.LOW, base.plusDays(2));
+        save("C", Priority.LOW, base.plusDays(3));
+        Todo d = save("D", Priority.LOW, base.plusDays(4));
+        Todo e = save("E", Priority.LOW, base.plusDays(6));
+
+        var walk = repo.findAllSorted(SortField.DUE_DATE, false).iterator();
+        List<String> met = new ArrayList<>(List.of(walk.next().getTitle()));
+        repo.replace(b, b.toBuilder().dueDate(base.plusDays(5)).build()); // ahead of the walk, moves further ahead
+        repo.replace(d, d.toBuilder().dueDate(base).build()); // ahead of the walk, moves behind it
+        repo.replace(e, e.toBuilder().title("E2").build()); // key unchanged
+        walk.forEachRemaining(t -> met.add(t.getTitle()));
+
+        assertThat(met).containsExactly("A", "C", "B", "E2");
+        assertThat(repo.findAllSorted(SortField.DUE_DATE, false)).extracting(Todo::getTitle)
+                .containsExactly("D", "A", "C", "B", "E2");
+    }
+
+    @Test
+    void indexSizes_trackSavesAndDeletes() {
+        Todo a = save("abcd", Priority.LOW, null);
+        save("xyz", Priority.HIGH, null);
+
+        assertThat(repo.indexSizes())
+                .containsEntry("sort.creation_date", 2L)
+                .containsEntry("sort.due_date", 2L)
+                .containsEntry("text.trigrams", 3L)   // abc, bcd, xyz
+                .containsEntry("bitmap.rows", 2L);
+
+        repo.deleteById(a.getId());
+        assertThat(repo.indexSizes())
+                .containsEntry("sort.priority", 1L)
+                .containsEntry("text.trigrams", 1L)
+                .containsEntry("bitmap.rows", 2L);    // freed row is kept for reuse
+    }
+
+    @Test
+    void changesSince_returnsLatestWritePerTodo_andTombstones_inSequenceOrder() {
+        ChangeSet initial = repo.changesSince(0, 10);
+        assertThat(initial.reset()).isTrue();
+
+        Todo a = save("A", Priority.LOW, null);
+        Todo b = save("B", Priority.LOW, null);
+        Todo c = save("C", Priority.LOW, null);
+        long afterC = repo.changesSince(initial.highWater(), 10).highWater();
+
+        repo.replace(a, a.toBuilder().title("A2").build());
+        repo.deleteById(b.getId());
+        ChangeSet delta = repo.changesSince(afterC, 10);
+        assertThat(delta.reset()).isFalse();
+        assertThat(delta.changed()).extracting(Todo::getTitle).containsExactly("A2");
+        assertThat(delta.deleted()).containsExactly(b.getId());
+        assertThat(repo.changesSince(delta.highWater(), 10).changed()).isEmpty();
+
+        // a full reload carries live todos only, each once, in the order they were last written
+        ChangeSet full = repo.changesSince(0, 10);
+        assertThat(full.reset()).isTrue();
+        assertThat(full.changed()).extracting(Todo::getTitle).containsExactly("C", "A2");
+        assertThat(full.deleted()).isEmpty();
+        assertThat(full.highWater()).isEqualTo(delta.highWater());
+        assertThat(c.getModSeq()).isLessThan(repo.findById(a.getId()).orElseThrow().getModSeq());
+    }
+
+    @Test
+    void changesSince_pagesByLimit_andResetsOncePastTheTombstoneHorizon() {
+        repo = new InMemoryTodoRepository(2);
+        long start = repo.changesSince(0, 10).highWater();
+        List<Todo> todos = List.of(save("A", null, null), save("B", null, null), save("C", null, null));
+
+        ChangeSet first = repo.changesSince(start, 2);
+        assertThat(first.hasMore()).isTrue();
+        assertThat(first.changed()).extracting(Todo::getTitle).containsExactly("A", "B");
+        ChangeSet second = repo.changesSince(first.highWater(), 2);
+        assertThat(second.hasMore()).isFalse();
+        assertThat(second.changed()).extracting(Todo::getTitle).containsExactly("C");
+
+        todos.forEach(t -> repo.deleteById(t.getId()));
+        // the first tombstone was dropped, so a client from before it can't be given a delta
+        assertThat(repo.changesSince(second.highWater(), 10).reset()).isTrue();
+        assertThat(repo.changesSince(second.highWater() + 1, 10).deleted())
+                .containsExactly(todos.get(1).getId(), todos.get(2).getId());
+        // a position this process never issued
+        assertThat(repo.changesSince(Long.MAX_VALUE, 10).reset()).isTrue();
+    }
+
+    @Test
+    void reset_isPagedByLimit_andWritesDuringItComeWithTheNextDelta() {
+        List<Todo> todos = new ArrayList<>();
+        for (int i = 0; i < 5; i++) todos.add(save("T" + i, null, null));
+
+        ChangeSet first = repo.changesSince(0, 2);
+        assertThat(first.reset()).isTrue();
+        assertThat(first.hasMore()).isTrue();
+        assertThat(first.changed()).extracting(Todo::getTitle).containsExactly("T0", "T1");
+
+        repo.deleteById(todos.get(0).getId());      // already sent
+        repo.deleteById(todos.get(3).getId());      // not sent yet
+        repo.replace(todos.get(2), todos.get(2).toBuilder().title("T2b").build());
+        ChangeSet second = repo.changesSince(first.highWater(), first.resumeAfter(), 2);
+        assertThat(second.reset()).isFalse();
+        assertThat(second.hasMore()).isFalse();
+        assertThat(second.resumeAfter()).isNull();
+        assertThat(second.changed()).extracting(Todo::getTitle).containsExactly("T4");
+        assertThat(second.highWater()).isEqualTo(first.highWater());
+
+        ChangeSet delta = repo.changesSince(second.highWater(), 10);
+        assertThat(delta.reset()).isFalse();
+        assertThat(delta.deleted()).containsExactly(todos.get(0).getId(), todos.get(3).getId());
+        assertThat(delta.changed()).extracting(Todo::getTitle).containsExactly("T2b");
+    }
+
+    @Test
+    void reset_startsOver_whenATombstonePastItIsDroppedMidway() {
+        repo = new InMemoryTodoRepository(1);
+        List<Todo> todos = new ArrayList<>();
+        for (int i = 0; i < 4; i++) todos.add(save("T" + i, null, null));
+        ChangeSet first = repo.changesSince(0, 2);
+
+        // T0 was sent; its tombstone is dropped by the next delete, so the client could never hear of it
+        repo.deleteById(todos.get(0).getId());
+        repo.deleteById(todos.get(1).getId());
+        ChangeSet next = repo.changesSince(first.highWater(), first.resumeAfter(), 2);
+        assertThat(next.reset()).isTrue();
+        assertThat(next.changed()).extracting(Todo::getTitle).containsExactly("T2", "T3");
+    }
+}
@@ -0,0 +1,120 @@
+package com.encora.todo.repository;
+
+import com.encora.todo.domain.Priority;
+import com.encora.todo.domain.SortField;
+import com.encora.todo.domain.Todo;
+import com.encora.todo.domain.TodoFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardedTodoRepositoryTest {
+
+    private ShardedTodoRepository repo;
+
+    @BeforeEach
+    void setUp() {
+        repo = new ShardedTodoRepository(4);
+    }
+
+    private static List<Todo> generated(int n) {
+        Random random = new Random(7);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Todo> todos = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            todos.add(Todo.builder().title("t" + i)
+                    .priority(Priority.values()[random.nextInt(Priority.values().length)])
+                    .dueDate(random.nextInt(3) == 0 ? null : base.plusHours(random.nextInt(500)))
+                    .done(random.nextBoolean())
+                    .createdAt(base.plusSeconds(random.nextInt(50)))
+                    .build());
+        }
+        return todos;
+    }
+
+    @Test
+    void sortedWalks_mergeShards_inTheSameOrderAsOneRepository() {
+        List<Todo> stored = repo.saveAll(generated(2000));
+        InMemoryTodoRepository single = new InMemoryTodoRepository();
+        single.saveAll(stored);
+
+        for (SortField field : SortField.values()) {
+            for (boolean desc : new boolean[] { false, true }) {
+                assertThat(repo.findAllSorted(field, desc).map(Todo::getId).toList())
+                        .as("%s desc=%s", field, desc)
+                        .containsExactlyElementsOf(single.findAllSorted(field, desc).map(Todo::getId).toList());
+                Todo pivot = stored.get(500);
+                assertThat(repo.findAllSortedAfter(field, desc, field.keyOf(pivot), pivot.getId()).limit(50).toList())
+                        .containsExactlyElementsOf(single.findAllSortedAfter(field, desc, field.keyOf(pivot), pivot.getId()).limit(50).toList());
+            }
+        }
+        TodoFilter filter = new TodoFilter("t1", Priority.HIGH, true);
+        assertThat(repo.select(filter).count()).isEqualTo(single.select(filter).count());
+        assertThat(repo.select(filter).stream()).containsExactlyInAnyOrderElementsOf(single.select(filter).stream().toList());
+        assertThat(repo.indexSizes()).containsEntry("sort.priority", 2000L);
+    }
+
+    @Test
+    void batches_keepInputOrder_andIdsAreNeverReissued() {
+        List<Todo> stored = repo.saveAll(generated(600));
+        assertThat(stored).extracting(Todo::getTitle).containsExactlyElementsOf(
+                generated(600).stream().map(Todo::getTitle).toList());
+        assertThat(stored).extracting(Todo::getId).doesNotHaveDuplicates();
+
+        List<Todo> renamed = stored.stream().map(t -> t.toBuilder().title(t.getTitle() + "!").build()).toList();
+        List<Todo> replaced = repo.replaceAll(List.of(stored.get(3), stored.get(1), stored.get(2)),
+                List.of(renamed.get(3), renamed.get(1), renamed.get(2)));
+        assertThat(replaced).extracting(Todo::getTitle).containsExactly("t3!", "t1!", "t2!");
+
+        // a restored id far ahead of what its shard has issued moves that shard's counter past it
+        ShardedTodoRepository restored = new ShardedTodoRepository(4);
+        Todo far = restored.save(Todo.builder().id(5_000L).title("restored").build());
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < 2000; i++) ids.add(restored.save(Todo.builder().title("n").build()).getId());
+        assertThat(ids).hasSize(2000).doesNotContain(far.getId());
+        assertThat(restored.count()).isEqualTo(2001);
+    }
+
+    @Test
+    void concurrentWriters_getUniqueIds_andSyncSeesEveryShardInSequenceOrder() throws InterruptedException {
+        long start = repo.changesSince(0, 10).highWater();
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 500; i++) ids.add(repo.save(Todo.builder().title("c").build()).getId());
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(ids).hasSize(4000);
+        assertThat(repo.count()).isEqualTo(4000);
+
+        List<Long> seen = new ArrayList<>();
+        long since = start;
+        ChangeSet page;
+        do {
+            page = repo.changesSince(since, 700);
+            assertThat(page.changed()).extracting(Todo::getModSeq).isSorted();
+            page.changed().forEach(t -> seen.add(t.getId()));
+            since = page.highWater();
+        } while (page.hasMore());
+        assertThat(seen).hasSize(4000).containsExactlyInAnyOrderElementsOf(ids);
+
+        Long gone = ids.iterator().next();
+        assertThat(repo.deleteAllById(List.of(gone, gone))).extracting(Todo::getId).containsExactly(gone);
+        assertThat(repo.changesSince(since, 10).deleted()).containsExactly(gone);
+        assertThat(repo.findById(gone)).isEmpty();
+    }
+}
@@ -0,0 +1,170 @@
+package com.encora.todo.repository;
+
+import com.encora.todo.domain.Priority;
+import com.encora.todo.domain.SortField;
+import com.encora.todo.domain.Todo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WalTodoRepositoryTest {
+
+    @TempDir
+    Path dir;
+
+    private WalTodoRepository open() {
+        return new WalTodoRepository(dir, new StreamSnapshotFormat(), 1_000);
+    }
+
+    private static Todo todo(String title, Priority prio) {
+        LocalDateTime now = LocalDateTime.now();
+        return Todo.builder().title(title).priority(prio).createdAt(now).updatedAt(now).build();
+    }
+
+    @Test
+    void restart_replaysSavesEditsAndDeletes() throws IOException {
+        Long keptId;
+        try (WalTodoRepository repo = open()) {
+            Todo a = repo.save(todo("A", Priority.LOW));
+            Todo b = repo.save(todo("B", Priority.HIGH));
+            a = repo.replace(a, a.toBuilder().done(true).doneDate(LocalDateTime.now()).build()).orElseThrow();
+            repo.deleteById(b.getId());
+            keptId = a.getId();
+        }
+
+        try (WalTodoRepository repo = open()) {
+            assertThat(repo.count()).isEqualTo(1);
+            Todo a = repo.findById(keptId).orElseThrow();
+            assertThat(a.getTitle()).isEqualTo("A");
+            assertThat(a.isDone()).isTrue();
+            assertThat(a.getDoneDate()).isNotNull();
+            assertThat(a.getVersion()).isEqualTo(2);
+            assertThat(repo.save(todo("C", Priority.LOW)).getId()).isGreaterThan(keptId);
+        }
+    }
+
+    @Test
+    void snapshot_truncatesLog_andRestartLoadsSnapshotPlusTail() throws IOException {
+        try (WalTodoRepository repo = open()) {
+            for (int i = 0; i < 10; i++) repo.save(todo("T" + i, Priority.MEDIUM));
+            repo.snapshot();
+            repo.save(todo("after", Priority.CRITICAL));
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            assertThat(files.map(p -> p.getFileName().toString()))
+                    .containsExactlyInAnyOrder("snapshot-000002.dat", "wal-000002.log");
+        }
+
+        try (WalTodoRepository repo = open()) {
+            assertThat(repo.count()).isEqualTo(11);
+            assertThat(repo.findAllSorted(SortField.PRIORITY, true).findFirst().orElseThrow().getTitle())
+                    .isEqualTo("after");
+        }
+    }
+
+    @Test
+    void tornTail_isCutOffOnRecovery() throws IOException {
+        try (WalTodoRepository repo = open()) {
+            repo.save(todo("A", Priority.LOW));
+        }
+        Path log = WriteAheadLog.file(dir, 1);
+        Files.write(log, new byte[] { 0, 0, 0, 42, 1, 2 }, StandardOpenOption.APPEND);
+
+        try (WalTodoRepository repo = open()) {
+            assertThat(repo.count()).isEqualTo(1);
+            repo.save(todo("B", Priority.LOW));
+        }
+        try (WalTodoRepository repo = open()) {
+            assertThat(repo.count()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void ioError_failsTheLogForGood_andLeavesMemoryAtTheDurableState() throws IOException {
+        Long keptId;
+        try (WalTodoRepository repo = open()) {
+            Todo a = repo.save(todo("A", Priority.LOW));
+            keptId = a.getId();
+            // the next generation's file can't be opened, so the roll fails the log
+            Files.createDirectory(WriteAheadLog.file(dir, 2));
+            assertThatThrownBy(repo::snapshot).isInstanceOf(UncheckedIOException.class);
+
+            assertThatThrownBy(() -> repo.save(todo("B", Priority.HIGH))).isInstanceOf(UncheckedIOException.class);
+            assertThatThrownBy(() -> repo.replace(a, a.toBuilder().title("A!").build()))
+                    .isInstanceOf(UncheckedIOException.class);
+            assertThatThrownBy(() -> repo.deleteById(keptId)).isInstanceOf(UncheckedIOException.class);
+            assertThat(repo.findAll()).extracting(Todo::getTitle).containsExactly("A");
+        }
+        Files.delete(WriteAheadLog.file(dir, 2));
+
+        try (WalTodoRepository repo = open()) {
+            assertThat(repo.findAll()).extracting(Todo::getId).containsExactly(keptId);
+        }
+    }
+
+    @Test
+    void writes_reachMemoryInLogOrder_andCompareAndSetSeesEarlierWrites() throws IOException {
+        try (WalTodoRepository repo = open()) {
+            Todo a = repo.save(todo("A", Priority.LOW));
+            Todo b = repo.save(todo("B", Priority.LOW));
+            List<Todo> swapped = repo.replaceAll(List.of(a, b, a),
+                    List.of(a.toBuilder().title("A1").build(), b.toBuilder().title("B1").build(),
+                            a.toBuilder().title("stale").build()));
+            assertThat(swapped).extracting(t -> t == null ? null : t.getTitle()).containsExactly("A1", "B1", null);
+            assertThat(repo.findById(a.getId()).orElseThrow().getVersion()).isEqualTo(2);
+            assertThat(repo.deleteAllById(List.of(a.getId(), a.getId(), 1L))).extracting(Todo::getTitle)
+                    .containsExactly("A1");
+        }
+        try (WalTodoRepository repo = open()) {
+            assertThat(repo.findAll()).extracting(Todo::getTitle).containsExactly("B1");
+        }
+    }
+
+    @Test
+    void close_racingWrites_leavesNoWriterWaitingForever() throws Exception {
+        WalTodoRepository repo = open();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> writers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                writers.add(pool.submit(() -> {
+                    int saved = 0;
+                    try {
+                        while (true) {
+                            repo.save(todo("T", Priority.LOW));
+                            saved++;
+                        }
+                    } catch (RuntimeException refused) {
+                        return saved;
+                    }
+                }));
+            }
+            Thread.sleep(50);
+            repo.close();
+            // every write either made it or was refused; none is stuck on a future nobody completes
+            int saved = 0;
+            for (Future<Integer> w : writers) saved += w.get(10, TimeUnit.SECONDS);
+            try (WalTodoRepository reopened = open()) {
+                assertThat(reopened.count()).isGreaterThanOrEqualTo(saved);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.encora.todo.service;
+
+import com.encora.todo.dto.TodoChange;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChangeLogTest {
+
+    private static TodoChange deleted(long id) {
+        return new TodoChange(TodoChange.Type.DELETED, id, null);
+    }
+
+    @Test
+    void freshSubscription_startsAtHead_withReady() {
+        ChangeLog log = new ChangeLog(8);
+        log.append(deleted(1));
+
+        ChangeLog.Subscription sub = log.subscribe(null, () -> {});
+        ChangeLog.Batch first = sub.poll(10);
+        assertThat(first.signal()).isEqualTo(ChangeLog.Signal.READY);
+        assertThat(first.position()).isEqualTo(1);
+        assertThat(sub.poll(10).events()).isEmpty();
+
+        log.append(deleted(2));
+        assertThat(sub.poll(10).events()).extracting(e -> e.change().getId()).containsExactly(2L);
+    }
+
+    @Test
+    void resume_deliversEverythingAfterTheEventId_inPollSizedBatches() {
+        ChangeLog log = new ChangeLog(8);
+        for (long id = 1; id <= 5; id++) log.append(deleted(id));
+
+        ChangeLog.Subscription sub = log.subscribe(log.eventId(2), () -> {});
+        assertThat(sub.poll(2).events()).extracting(ChangeLog.Event::seq).containsExactly(3L, 4L);
+        assertThat(sub.poll(2).events()).extracting(ChangeLog.Event::seq).containsExactly(5L);
+    }
+
+    @Test
+    void overwrittenOrForeignPositions_reset() {
+        ChangeLog log = new ChangeLog(4);
+        for (long id = 1; id <= 10; id++) log.append(deleted(id));
+
+        ChangeLog.Subscription tooOld = log.subscribe(log.eventId(2), () -> {});
+        ChangeLog.Batch batch = tooOld.poll(10);
+        assertThat(batch.signal()).isEqualTo(ChangeLog.Signal.RESET);
+        assertThat(batch.position()).isEqualTo(10);
+
+        ChangeLog.Subscription foreign = log.subscribe("0-5", () -> {});
+        assertThat(foreign.poll(10).signal()).isEqualTo(ChangeLog.Signal.RESET);
+
+        // still within the ring: resumes normally
+        assertThat(log.subscribe(log.eventId(7), () -> {}).poll(10).events())
+                .extracting(ChangeLog.Event::seq).containsExactly(8L, 9L, 10L);
+    }
+
+    @Test
+    void subscribersAreWoken_andStopBeingWokenOnceClosed() throws InterruptedException {
+        ChangeLog log = new ChangeLog(8);
+        CountDownLatch woken = new CountDownLatch(1);
+        ChangeLog.Subscription sub = log.subscribe(null, woken::countDown);
+        assertThat(log.subscriberCount()).isEqualTo(1);
+
+        log.append(deleted(1));
+        assertThat(woken.await(5, TimeUnit.SECONDS)).isTrue();
+
+        sub.close();
+        assertThat(log.subscriberCount()).isZero();
+    }
+}
@@ -0,0 +1,161 @@
+package com.encora.todo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class DueDateRemindersTest {
+
+    /** A clock the test moves by hand. */
+    private static final class ManualClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void plus(Duration d) {
+            now = now.plus(d);
+        }
+
+        LocalDateTime local(Duration fromNow) {
+            return LocalDateTime.ofInstant(now.plus(fromNow), ZoneOffset.UTC);
+        }
+
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { throw new UnsupportedOperationException(); }
+        @Override public Instant instant() { return now; }
+    }
+
+    private final ManualClock clock = new ManualClock();
+    private final DueDateReminders reminders = new DueDateReminders(Duration.ofHours(1), Duration.ofSeconds(1), clock);
+    private final List<DueDateReminders.Reminder> fired = new ArrayList<>();
+
+    @Test
+    void openTodos_getDueSoonThenOverdue_andStayListedUntilDoneOrMoved() {
+        reminders.listen(fired::add);
+        reminders.track(1, 1, clock.local(Duration.ofHours(3)), false);
+        reminders.track(2, 1, clock.local(Duration.ofMinutes(30)), false);   // already inside the window
+        reminders.track(3, 1, clock.local(Duration.ofMinutes(-5)), false);   // already overdue
+        reminders.track(4, 1, clock.local(Duration.ofMinutes(10)), true);    // done: never tracked
+        reminders.track(5, 1, null, false);
+
+        reminders.advance();
+        assertThat(fired).extracting(DueDateReminders.Reminder::id, DueDateReminders.Reminder::kind).containsExactlyInAnyOrder(
+                tuple(2L, DueDateReminders.Reminder.Kind.DUE_SOON), tuple(3L, DueDateReminders.Reminder.Kind.OVERDUE));
+        assertThat(reminders.overdue(10)).containsExactly(3L);
+
+        // editing something other than the due date doesn't send the reminder again
+        fired.clear();
+        reminders.track(2, 2, clock.local(Duration.ofMinutes(30)), false);
+        clock.plus(Duration.ofMinutes(29));
+        reminders.advance();
+        assertThat(fired).isEmpty();
+
+        clock.plus(Duration.ofMinutes(1));
+        assertThat(reminders.overdue(10)).containsExactly(3L, 2L);
+        clock.plus(Duration.ofHours(3));
+        assertThat(reminders.overdue(10)).containsExactly(3L, 2L, 1L);
+        assertThat(reminders.overdue(2)).containsExactly(3L, 2L);
+        assertThat(fired).extracting(DueDateReminders.Reminder::id, DueDateReminders.Reminder::kind).containsExactly(
+                tuple(2L, DueDateReminders.Reminder.Kind.OVERDUE),
+                tuple(1L, DueDateReminders.Reminder.Kind.DUE_SOON),
+                tuple(1L, DueDateReminders.Reminder.Kind.OVERDUE));
+
+        reminders.track(3, 2, clock.local(Duration.ofMinutes(-5)), true);    // done
+        reminders.track(1, 2, clock.local(Duration.ofDays(1)), false);       // moved
+        reminders.track(2, 1, clock.local(Duration.ofDays(1)), false);       // stale write, ignored
+        reminders.cancel(9);
+        assertThat(reminders.overdue(10)).containsExactly(2L);
+        assertThat(reminders.scheduled()).isEqualTo(1);
+        assertThat(reminders.overdueCount()).isEqualTo(1);
+    }
+
+    @Test
+    void writesReportedLate_neverBringBackADeletedOrDoneTodo() throws Exception {
+        reminders.track(1, 3, clock.local(Duration.ofMinutes(-5)), true);     // done at version 3
+        reminders.track(1, 2, clock.local(Duration.ofMinutes(-5)), false);    // the open write before it
+        reminders.track(2, 1, clock.local(Duration.ofMinutes(-5)), false);
+        reminders.cancel(2);
+        reminders.track(2, 2, clock.local(Duration.ofMinutes(-5)), false);    // reported after the delete
+        assertThat(reminders.overdue(10)).isEmpty();
+        assertThat(reminders.scheduled()).isZero();
+
+        reminders.track(1, 4, clock.local(Duration.ofMinutes(-5)), false);    // reopened later
+        assertThat(reminders.overdue(10)).containsExactly(1L);
+
+        // writers racing a ticker: every update lands, none waits for another
+        int threads = 4;
+        ExecutorService pool = Executors.newFixedThreadPool(threads + 1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 2_000; i++) reminders.advance();
+            }));
+            for (int t = 0; t < threads; t++) {
+                long base = 100 + t * 1_000L;
+                futures.add(pool.submit(() -> {
+                    for (long id = base; id < base + 500; id++) {
+                        reminders.track(id, 1, clock.local(Duration.ofDays(1)), false);
+                        if (id % 2 == 0) reminders.cancel(id);
+                    }
+                }));
+            }
+            for (Future<?> f : futures) f.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(reminders.scheduled()).isEqualTo(threads * 250);
+    }
+
+    @Test
+    void wheel_firesEveryTimerOnce_neverEarly_atTheAdvanceThatPassesIt() {
+        Random random = new Random(3);
+        TimingWheel wheel = new TimingWheel(1_000);
+        Map<TimingWheel.Timer, Long> pending = new HashMap<>();
+        List<TimingWheel.Timer> cancelled = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            TimingWheel.Timer t = new TimingWheel.Timer();
+            // spread over every level, from next tick to well past the wheel's span
+            t.tick = 1_000 + (random.nextInt(8) == 0 ? -random.nextInt(50) : (long) Math.pow(64, random.nextDouble() * 7.5));
+            wheel.add(t);
+            pending.put(t, t.tick);
+            if (i % 100 == 0) cancelled.add(t);
+        }
+        cancelled.forEach(t -> {
+            wheel.cancel(t);
+            pending.remove(t);
+        });
+        assertThat(wheel.size()).isEqualTo(pending.size());
+
+        long now = 1_000;
+        List<TimingWheel.Timer> fired = new ArrayList<>();
+        while (!pending.isEmpty()) {
+            // small steps early on, then jumps across months and years
+            now += now < 100_000 ? 1 + random.nextInt(300) : (long) Math.pow(64, 2 + random.nextDouble() * 5.5);
+            fired.clear();
+            wheel.advance(now, fired);
+            for (TimingWheel.Timer t : fired) {
+                assertThat(pending.remove(t)).as("fired once").isNotNull();
+                assertThat(t.tick).as("never early").isLessThanOrEqualTo(now);
+                assertThat(t.isScheduled()).isFalse();
+            }
+            long earliest = pending.values().stream().mapToLong(Long::longValue).min().orElse(Long.MAX_VALUE);
+            assertThat(earliest).as("never late").isGreaterThan(now);
+        }
+        assertThat(wheel.size()).isZero();
+    }
+}
@@ -0,0 +1,72 @@
+package com.encora.todo.service;
+
+import com.encora.todo.domain.SortField;
+import com.encora.todo.dto.PageResponse;
+import com.encora.todo.dto.TodoResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ListQueryCacheTest {
+
+    private final AtomicInteger computed = new AtomicInteger();
+
+    private static ListQueryCache.Key key(int pageNumber) {
+        return new ListQueryCache.Key(null, pageNumber, 10, SortField.CREATION_DATE, true, null, null, null);
+    }
+
+    private Supplier<PageResponse<TodoResponse>> page(int rows) {
+        return () -> {
+            computed.incrementAndGet();
+            List<TodoResponse> content = new ArrayList<>();
+            for (int i = 0; i < rows; i++) content.add(new TodoResponse());
+            return new PageResponse<>(content, 0, rows, rows);
+        };
+    }
+
+    @Test
+    void sameKeyAndVersion_isAHit_newerVersion_recomputes() {
+        ListQueryCache cache = new ListQueryCache(100);
+
+        PageResponse<TodoResponse> first = cache.get(key(0), 1, page(3));
+        assertThat(cache.get(key(0), 1, page(3))).isSameAs(first);
+        assertThat(cache.get(key(0), 2, page(3))).isNotSameAs(first);
+
+        assertThat(computed.get()).isEqualTo(2);
+        assertThat(cache.hits()).isEqualTo(1);
+        assertThat(cache.misses()).isEqualTo(2);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void rowBudget_evictsLeastRecentlyUsed() {
+        ListQueryCache cache = new ListQueryCache(12);   // weight is rows + 1
+
+        cache.get(key(0), 1, page(4));
+        cache.get(key(1), 1, page(4));
+        cache.get(key(0), 1, page(4));                   // touch 0 so 1 is eldest
+        cache.get(key(2), 1, page(4));
+
+        assertThat(cache.evictions()).isEqualTo(1);
+        assertThat(cache.rows()).isEqualTo(10);
+        cache.get(key(0), 1, page(4));
+        cache.get(key(1), 1, page(4));
+        assertThat(computed.get()).isEqualTo(4);         // 0, 1, 2, then 1 again
+    }
+
+    @Test
+    void disabled_alwaysComputes() {
+        ListQueryCache cache = ListQueryCache.disabled();
+
+        cache.get(key(0), 1, page(1));
+        cache.get(key(0), 1, page(1));
+
+        assertThat(computed.get()).isEqualTo(2);
+        assertThat(cache.size()).isZero();
+    }
+}
@@ -0,0 +1,94 @@
+package com.encora.todo.service;
+
+import com.encora.todo.domain.Priority;
+import com.encora.todo.domain.Todo;
+import com.encora.todo.dto.TodoResponse;
+import com.encora.todo.repository.InMemoryTodoRepository;
+import com.encora.todo.repository.TodoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParallelSorterTest {
+
+    private final ParallelSorter sorter = new ParallelSorter(4, 500);
+
+    @AfterEach
+    void tearDown() {
+        sorter.close();
+    }
+
+    private static List<Todo> generated(int n) {
+        Random random = new Random(11);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Todo> todos = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            todos.add(Todo.builder().id(1000L + i).title(i % 5 == 0 ? "match " + i : "other " + i)
+                    .priority(Priority.values()[random.nextInt(Priority.values().length)])
+                    .createdAt(base.plusMinutes(random.nextInt(30)))
+                    .build());
+        }
+        return todos;
+    }
+
+    @Test
+    void chunksFilteredAndSortedOnThePool_mergeToTheSequentialOrder() {
+        List<Todo> todos = generated(20_000);
+        Comparator<Todo> cmp = Comparator.comparing(Todo::getPriority).reversed().thenComparing(Todo::getId);
+        List<Todo> expected = todos.stream().filter(t -> t.getTitle().startsWith("match")).sorted(cmp).toList();
+
+        assertThat(sorter.appliesTo(499)).isFalse();
+        assertThat(sorter.appliesTo(20_000)).isTrue();
+        assertThat(sorter.sorted(todos.stream().filter(t -> t.getTitle().startsWith("match")), 20_000, cmp, 4000))
+                .containsExactlyElementsOf(expected);
+        assertThat(sorter.sorted(todos.parallelStream().filter(t -> t.getTitle().startsWith("match")), 20_000, cmp, 25))
+                .containsExactlyElementsOf(expected.subList(0, 25));
+        assertThat(ParallelSorter.disabled().appliesTo(Long.MAX_VALUE)).isFalse();
+    }
+
+    @Test
+    void service_usesThePool_aboveTheThreshold_withTheSamePages() {
+        TodoRepository repo = new InMemoryTodoRepository();
+        repo.saveAll(generated(20_000));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TodoServiceImpl sequential = new TodoServiceImpl(repo);
+        TodoServiceImpl parallel = new TodoServiceImpl(repo, registry, ListQueryCache.disabled(),
+                new ChangeLog(16), sorter);
+
+        for (int page : new int[] { 0, 7 }) {
+            assertThat(parallel.list(page, 50, "CREATION_DATE", "desc", "match", Priority.HIGH, null).getContent())
+                    .extracting(TodoResponse::getId)
+                    .containsExactlyElementsOf(sequential.list(page, 50, "CREATION_DATE", "desc", "match", Priority.HIGH, null)
+                            .getContent().stream().map(TodoResponse::getId).toList());
+        }
+        assertThat(registry.get("todo.list.strategy").tag("strategy", "parallel").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void service_sortsABroadFilterOnThePool_onlyOnceItsPageIsTooDeepToWalk() {
+        TodoRepository repo = new InMemoryTodoRepository();
+        repo.saveAll(generated(20_000));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TodoServiceImpl sequential = new TodoServiceImpl(repo);
+        TodoServiceImpl parallel = new TodoServiceImpl(repo, registry, ListQueryCache.disabled(),
+                new ChangeLog(16), sorter);
+
+        // a fifth of the store matches: page 0 walks the index, page 30 would walk past ~7750 rows for 4000 matches
+        for (int page : new int[] { 0, 30 }) {
+            assertThat(parallel.list(page, 50, "PRIORITY", "asc", "match", null, null).getContent())
+                    .extracting(TodoResponse::getId)
+                    .containsExactlyElementsOf(sequential.list(page, 50, "PRIORITY", "asc", "match", null, null)
+                            .getContent().stream().map(TodoResponse::getId).toList());
+        }
+        assertThat(registry.get("todo.list.strategy").tag("strategy", "index").counter().count()).isEqualTo(1);
+        assertThat(registry.get("todo.list.strategy").tag("strategy", "parallel").counter().count()).isEqualTo(1);
+    }
+}
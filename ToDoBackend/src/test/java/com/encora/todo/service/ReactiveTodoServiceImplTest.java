@@ -0,0 +1,80 @@
+package com.encora.todo.service;
+
+import com.encora.todo.domain.Priority;
+import com.encora.todo.dto.TodoRequest;
+import com.encora.todo.dto.TodoResponse;
+import com.encora.todo.exception.VersionConflictException;
+import com.encora.todo.repository.InMemoryTodoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReactiveTodoServiceImplTest {
+
+    private SimpleMeterRegistry registry;
+    private TodoServiceImpl blocking;
+    private ReactiveTodoServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        blocking = new TodoServiceImpl(new InMemoryTodoRepository(), registry);
+        service = new ReactiveTodoServiceImpl(blocking, Schedulers.parallel(), Schedulers.boundedElastic());
+    }
+
+    private static TodoRequest request(String title, Priority priority) {
+        TodoRequest r = new TodoRequest();
+        r.setTitle(title);
+        r.setPriority(priority);
+        return r;
+    }
+
+    @Test
+    void queriesAndWritesRunOffTheSubscribingThread_andMissingTodosCompleteEmpty() {
+        Thread caller = Thread.currentThread();
+        StepVerifier.create(service.create(request("A", Priority.LOW)).map(r -> Thread.currentThread()))
+                .assertNext(t -> assertThat(t).isNotSameAs(caller))
+                .verifyComplete();
+        StepVerifier.create(service.list(0, 10, "createdAt", "desc", null, null, null).map(p -> Thread.currentThread()))
+                .assertNext(t -> assertThat(t.getName()).startsWith("parallel-"))
+                .verifyComplete();
+        StepVerifier.create(service.sync(0, null, 10).map(r -> Thread.currentThread()))
+                .assertNext(t -> assertThat(t.getName()).startsWith("parallel-"))
+                .verifyComplete();
+
+        StepVerifier.create(service.getById(424242L)).verifyComplete();
+        StepVerifier.create(service.setDone(424242L, true, null)).verifyComplete();
+        StepVerifier.create(service.delete(424242L)).expectNext(false).verifyComplete();
+    }
+
+    @Test
+    void export_emitsOnDemand_andCancelClosesTheStream() {
+        for (int i = 0; i < 10; i++) blocking.create(request("T" + i, Priority.MEDIUM));
+
+        StepVerifier.create(service.export(null, null, null), 3)
+                .expectNextCount(3)
+                .thenCancel()
+                .verify();
+        // the export timer is stopped when its stream is closed
+        assertThat(registry.timer("todo.service", "method", "export").count()).isEqualTo(1);
+        StepVerifier.create(service.export("t1", null, null).map(TodoResponse::getTitle))
+                .expectNext("T1")
+                .verifyComplete();
+    }
+
+    @Test
+    void versionConflict_isAnErrorSignal() {
+        TodoResponse a = blocking.create(request("A", Priority.LOW));
+
+        StepVerifier.create(service.setDone(a.getId(), true, 7L))
+                .expectError(VersionConflictException.class)
+                .verify();
+        StepVerifier.create(service.setDone(a.getId(), true, 1L).map(TodoResponse::getVersion))
+                .expectNext(2L)
+                .verifyComplete();
+    }
+}
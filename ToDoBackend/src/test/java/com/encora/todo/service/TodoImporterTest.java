@@ -0,0 +1,102 @@
+package com.encora.todo.service;
+
+import com.encora.todo.domain.Priority;
+import com.encora.todo.dto.ImportReport;
+import com.encora.todo.dto.TodoResponse;
+import com.encora.todo.repository.InMemoryTodoRepository;
+import com.encora.todo.repository.TodoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class TodoImporterTest {
+
+    private TodoRepository repo;
+    private TodoServiceImpl service;
+    private TodoImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        repo = new InMemoryTodoRepository();
+        service = new TodoServiceImpl(repo);
+        importer = new TodoImporter(service,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new ObjectMapper().registerModule(new JavaTimeModule()));
+    }
+
+    @Test
+    void ndjson_importsValidLines_andReportsBadOnes() {
+        String body = """
+                {"title":"a","priority":"HIGH","dueDate":"2030-01-02T03:04:05"}
+
+                {"title":""}
+                not json
+                {"title":"b"}
+                """;
+
+        ImportReport report = importer.importNdjson(new StringReader(body));
+
+        assertThat(report.getRows()).isEqualTo(4);
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(2);
+        assertThat(report.getErrors()).extracting(ImportReport.LineError::getLine).containsExactly(3L, 4L);
+        assertThat(report.getErrors().get(0).getMessage()).isEqualTo("title: must not be blank");
+        assertThat(report.getRowsPerSecond()).isPositive();
+
+        try (var all = service.export(null, null, null)) {
+            assertThat(all.map(TodoResponse::getTitle)).containsExactly("a", "b");
+        }
+        try (var high = service.export(null, Priority.HIGH, null)) {
+            assertThat(high.map(TodoResponse::getDueDate)).containsExactly(LocalDateTime.of(2030, 1, 2, 3, 4, 5));
+        }
+    }
+
+    @Test
+    void csv_handlesQuotingAndMultilineFields_andReportsPhysicalLines() {
+        String body = "title,description,priority,dueDate\r\n"
+                + "plain,,LOW,\r\n"
+                + "\"with, comma\",\"line one\nline two\",high,2030-01-02T03:04:05\r\n"
+                + "bad,,URGENT,\r\n"
+                + "\"say \"\"hi\"\"\",x,,\n";
+
+        ImportReport report = importer.importCsv(new StringReader(body));
+
+        assertThat(report.getRows()).isEqualTo(4);
+        assertThat(report.getImported()).isEqualTo(3);
+        assertThat(report.getErrors()).singleElement().satisfies(e -> {
+            assertThat(e.getLine()).isEqualTo(5L);
+            assertThat(e.getMessage()).isEqualTo("priority: unknown value URGENT");
+        });
+
+        try (var all = service.export(null, null, null)) {
+            assertThat(all).extracting(TodoResponse::getTitle, TodoResponse::getDescription, TodoResponse::getPriority)
+                    .containsExactly(
+                            tuple("plain", null, Priority.LOW),
+                            tuple("with, comma", "line one\nline two", Priority.HIGH),
+                            tuple("say \"hi\"", "x", Priority.MEDIUM));
+        }
+    }
+
+    @Test
+    void largeImport_spansSeveralChunks() {
+        int rows = TodoImporter.CHUNK_SIZE * 2 + 17;
+        String body = IntStream.range(0, rows)
+                .mapToObj(i -> "{\"title\":\"t" + i + "\"}")
+                .collect(Collectors.joining("\n"));
+
+        ImportReport report = importer.importNdjson(new StringReader(body));
+
+        assertThat(report.getImported()).isEqualTo(rows);
+        assertThat(repo.count()).isEqualTo(rows);
+    }
+}
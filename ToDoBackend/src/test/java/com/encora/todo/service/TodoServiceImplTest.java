@@ -1,20 +1,39 @@
 package com.encora.todo.service;
 
 import com.encora.todo.domain.Priority;
+import com.encora.todo.domain.Todo;
+import com.encora.todo.dto.BatchOperation;
+import com.encora.todo.dto.BatchResult;
+import com.encora.todo.dto.CompletionMetricsResponse;
 import com.encora.todo.dto.PageResponse;
+import com.encora.todo.dto.SyncResponse;
+import com.encora.todo.dto.TodoChange;
 import com.encora.todo.dto.TodoRequest;
 import com.encora.todo.dto.TodoResponse;
+import com.encora.todo.exception.InvalidCursorException;
+import com.encora.todo.exception.VersionConflictException;
 import com.encora.todo.repository.InMemoryTodoRepository;
 import com.encora.todo.repository.TodoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 
 class TodoServiceImplTest {
 
@@ -138,6 +157,72 @@ class TodoServiceImplTest {
         assertThat(doneOnly.getContent()).allMatch(TodoResponse::isDone);
     }
 
+    @Test
+    void list_recordsMethodAndPhaseTimers() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TodoServiceImpl timed = new TodoServiceImpl(repo, registry);
+        TodoRequest req = new TodoRequest();
+        req.setTitle("A");
+        timed.create(req);
+
+        timed.list(0, 10, "CREATION_DATE", "desc", "a", null, null);
+
+        assertThat(registry.get("todo.service").tag("method", "create").timer().count()).isEqualTo(1);
+        assertThat(registry.get("todo.service").tag("method", "list").timer().count()).isEqualTo(1);
+        for (String phase : List.of("filter", "sort", "page", "map")) {
+            assertThat(registry.get("todo.list.phase").tag("phase", phase).timer().count()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void list_isCachedUntilAnyWrite() {
+        TodoResponse a = create("A", Priority.LOW, null);
+        PageResponse<TodoResponse> first = service.list(0, 10, "CREATION_DATE", "desc", null, null, null);
+        assertThat(service.list(0, 10, "createdAt", "DESC", null, null, null)).isSameAs(first);
+
+        service.setDone(a.getId(), true);
+        PageResponse<TodoResponse> afterDone = service.list(0, 10, "CREATION_DATE", "desc", null, null, null);
+        assertThat(afterDone).isNotSameAs(first);
+        assertThat(afterDone.getContent().get(0).isDone()).isTrue();
+
+        service.delete(a.getId());
+        assertThat(service.list(0, 10, "CREATION_DATE", "desc", null, null, null).getContent()).isEmpty();
+    }
+
+    @Test
+    void dataVersion_sharesTheEpochThatPrefixesTodoTags() {
+        assertThat(service.epoch()).isNotBlank();
+        assertThat(service.dataVersion()).startsWith(service.epoch() + "-");
+    }
+
+    @Test
+    void dataVersion_changesOnEveryWrite_butNotOnReads() {
+        String v0 = service.dataVersion();
+        TodoResponse a = create("A", Priority.LOW, null);
+        String v1 = service.dataVersion();
+        service.list(0, 10, "CREATION_DATE", "desc", null, null, null);
+        service.getById(a.getId());
+        assertThat(service.dataVersion()).isEqualTo(v1).isNotEqualTo(v0);
+
+        service.setDone(a.getId(), true);
+        assertThat(service.dataVersion()).isNotEqualTo(v1);
+    }
+
+    @Test
+    void export_streamsMatchesInCreationOrder() {
+        TodoResponse a = create("Pay bills", Priority.HIGH, null);
+        create("Groceries", Priority.HIGH, null);
+        TodoResponse c = create("pay parking", Priority.HIGH, null);
+        create("pay rent", Priority.LOW, null);
+
+        try (var exported = service.export("pay", Priority.HIGH, null)) {
+            assertThat(exported).extracting(TodoResponse::getId).containsExactly(a.getId(), c.getId());
+        }
+        try (var all = service.export(null, null, null)) {
+            assertThat(all).hasSize(4);
+        }
+    }
+
     @Test
     void list_sorts_by_creation_due_priority_done_bothDirections() {
         // CRITICAL is highest, LOW is lowest (adjust if your enum order differs)
@@ -188,4 +273,356 @@ class TodoServiceImplTest {
         assertThat(p1.getTotalPages()).isEqualTo(3);
         assertThat(p4.getContent()).isEmpty();    // out of range returns empty slice
     }
+
+    @Test
+    void listAfter_walksSamePagesAsOffsetPaging() {
+        for (int i = 0; i < 23; i++) {
+            create("T" + i, i % 2 == 0 ? Priority.LOW : Priority.HIGH, null);
+        }
+        List<Long> byOffset = new ArrayList<>();
+        for (int p = 0; p < 5; p++) {
+            service.list(p, 5, "PRIORITY", "desc", null, null, null).getContent()
+                    .forEach(r -> byOffset.add(r.getId()));
+        }
+
+        List<Long> byCursor = new ArrayList<>();
+        PageResponse<TodoResponse> page = service.list(0, 5, "PRIORITY", "desc", null, null, null);
+        page.getContent().forEach(r -> byCursor.add(r.getId()));
+        while (page.getNextCursor() != null) {
+            page = service.listAfter(page.getNextCursor(), 5, "PRIORITY", "desc", null, null, null);
+            assertThat(page.getTotalElements()).isEqualTo(23);
+            page.getContent().forEach(r -> byCursor.add(r.getId()));
+        }
+
+        assertThat(byCursor).hasSize(23).isEqualTo(byOffset);
+    }
+
+    @Test
+    void shallowPages_ofFewMatches_useTopKHeap_withTheFullSortsOrder() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TodoServiceImpl counted = new TodoServiceImpl(repo, registry);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Todo> todos = new ArrayList<>();
+        for (int i = 0; i < 4000; i++) {
+            // few distinct keys, so most rows tie on the sort field and fall back to the id
+            todos.add(Todo.builder().title(i % 10 == 0 ? "match " + i : "other " + i)
+                    .priority(Priority.values()[i % Priority.values().length])
+                    .dueDate(i % 3 == 0 ? null : base.plusDays(i % 5))
+                    .done(i % 4 == 0)
+                    .createdAt(base.plusHours(i % 7))
+                    .build());
+        }
+        repo.saveAll(todos);
+
+        for (String sortBy : List.of("CREATION_DATE", "PRIORITY", "DUE_DATE", "DONE")) {
+            for (String dir : List.of("asc", "desc")) {
+                List<Long> sorted = counted.list(0, 400, sortBy, dir, "match", null, null).getContent()
+                        .stream().map(TodoResponse::getId).toList();
+                assertThat(sorted).hasSize(400);
+
+                PageResponse<TodoResponse> first = counted.list(0, 10, sortBy, dir, "match", null, null);
+                assertThat(first.getContent()).extracting(TodoResponse::getId)
+                        .as("%s %s", sortBy, dir).containsExactlyElementsOf(sorted.subList(0, 10));
+                assertThat(counted.list(3, 10, sortBy, dir, "match", null, null).getContent())
+                        .extracting(TodoResponse::getId).containsExactlyElementsOf(sorted.subList(30, 40));
+                assertThat(counted.listAfter(first.getNextCursor(), 10, sortBy, dir, "match", null, null).getContent())
+                        .extracting(TodoResponse::getId).containsExactlyElementsOf(sorted.subList(10, 20));
+            }
+        }
+
+        assertThat(registry.get("todo.list.strategy").tag("strategy", "sort").counter().count()).isEqualTo(8);
+        assertThat(registry.get("todo.list.strategy").tag("strategy", "heap").counter().count()).isEqualTo(24);
+        counted.list(0, 10, "CREATION_DATE", "desc", null, null, null);
+        assertThat(registry.get("todo.list.strategy").tag("strategy", "index").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void listAfter_rejectsMalformedOrMismatchedCursor() {
+        create("A", Priority.LOW, null);
+        create("B", Priority.LOW, null);
+        String cursor = service.list(0, 1, "DUE_DATE", "asc", null, null, null).getNextCursor();
+        assertThat(cursor).isNotNull();
+
+        assertThatThrownBy(() -> service.listAfter("not-a-cursor", 1, "DUE_DATE", "asc", null, null, null))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> service.listAfter(cursor, 1, "DUE_DATE", "desc", null, null, null))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThat(service.listAfter(cursor, 1, "DUE_DATE", "asc", null, null, null).getContent())
+                .extracting(TodoResponse::getTitle).containsExactly("B");
+    }
+
+    @Test
+    void completionMetrics_trackSetDoneUpdateAndDelete() throws InterruptedException {
+        TodoResponse a = create("A", Priority.HIGH, null);
+        TodoResponse b = create("B", Priority.LOW, null);
+        create("C", Priority.LOW, null);
+        Thread.sleep(5);
+        service.setDone(a.getId(), true);
+        service.setDone(b.getId(), true);
+
+        CompletionMetricsResponse m = service.completionMetrics();
+        assertThat(m.getCompletedCount()).isEqualTo(2);
+        assertThat(m.getAverageMillis()).isGreaterThan(0);
+        assertThat(m.getCompletedCountByPriority().get(Priority.HIGH)).isEqualTo(1);
+        assertThat(m.getAverageMillisByPriority().get(Priority.CRITICAL)).isZero();
+
+        TodoRequest patch = new TodoRequest();
+        patch.setPriority(Priority.LOW);
+        service.update(a.getId(), patch);
+        m = service.completionMetrics();
+        assertThat(m.getCompletedCountByPriority().get(Priority.HIGH)).isZero();
+        assertThat(m.getCompletedCountByPriority().get(Priority.LOW)).isEqualTo(2);
+
+        service.setDone(a.getId(), false);
+        service.delete(b.getId());
+        m = service.completionMetrics();
+        assertThat(m.getCompletedCount()).isZero();
+        assertThat(m.getAverageMillis()).isZero();
+    }
+
+    @Test
+    void update_withStaleVersion_conflicts_andLeavesTodoUntouched() {
+        TodoResponse a = create("A", Priority.LOW, null);
+        assertThat(a.getVersion()).isEqualTo(1);
+
+        TodoRequest first = new TodoRequest();
+        first.setTitle("A2");
+        first.setVersion(1L);
+        assertThat(service.update(a.getId(), first).orElseThrow().getVersion()).isEqualTo(2);
+
+        TodoRequest stale = new TodoRequest();
+        stale.setTitle("A3");
+        stale.setVersion(1L);
+        assertThatThrownBy(() -> service.update(a.getId(), stale))
+                .isInstanceOf(VersionConflictException.class);
+        assertThatThrownBy(() -> service.setDone(a.getId(), true, 1L))
+                .isInstanceOf(VersionConflictException.class);
+
+        TodoResponse current = service.getById(a.getId()).orElseThrow();
+        assertThat(current.getTitle()).isEqualTo("A2");
+        assertThat(current.isDone()).isFalse();
+        assertThat(current.getVersion()).isEqualTo(2);
+    }
+
+    @Test
+    void concurrentUnversionedUpdates_retryInsteadOfLosingWrites() throws Exception {
+        TodoResponse a = create("A", Priority.LOW, null);
+        int threads = 8;
+        int perThread = 200;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i++) service.setDone(a.getId(), i % 2 == 0);
+                }));
+            }
+            for (Future<?> f : futures) f.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // every write landed exactly once, and completion stats saw a consistent sequence
+        assertThat(service.getById(a.getId()).orElseThrow().getVersion()).isEqualTo(1 + threads * perThread);
+        boolean done = service.getById(a.getId()).orElseThrow().isDone();
+        assertThat(service.completionMetrics().getCompletedCount()).isEqualTo(done ? 1 : 0);
+    }
+
+    @Test
+    void racingDeletes_removeEachTodoOnce_fromStatsAndTheChangeLog() throws Exception {
+        ChangeLog changes = new ChangeLog(1024);
+        service = new TodoServiceImpl(repo, new SimpleMeterRegistry(), new ListQueryCache(100), changes);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            TodoResponse t = create("T" + i, Priority.LOW, null);
+            service.setDone(t.getId(), true);
+            ids.add(t.getId());
+        }
+        ChangeLog.Subscription sub = changes.subscribe(null, () -> {});
+        sub.poll(10); // ready
+
+        // single and batch deletes of the same todos at once
+        int threads = 4;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                boolean batch = t % 2 == 0;
+                futures.add(pool.submit(() -> {
+                    if (batch) service.applyBatch(ids.stream().map(id -> op(BatchOperation.Type.DELETE, id, null, null)).toList());
+                    else ids.forEach(service::delete);
+                }));
+            }
+            for (Future<?> f : futures) f.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(service.completionMetrics().getCompletedCount()).isZero();
+        assertThat(sub.poll(1000).events()).extracting(e -> e.change().getId()).containsExactlyInAnyOrderElementsOf(ids);
+    }
+
+    @Test
+    void applyBatch_staleVersion_isPerItem409() {
+        TodoResponse a = create("A", Priority.LOW, null);
+        TodoResponse b = create("B", Priority.LOW, null);
+        BatchOperation stale = op(BatchOperation.Type.UPDATE, a.getId(), "A2", null);
+        stale.getTodo().setVersion(7L);
+
+        List<BatchResult> results = service.applyBatch(List.of(
+                stale,
+                op(BatchOperation.Type.UPDATE, b.getId(), "B2", null)));
+
+        assertThat(results).extracting(BatchResult::getStatus).containsExactly(409, 200);
+        assertThat(results.get(1).getTodo().getVersion()).isEqualTo(2);
+        assertThat(service.getById(a.getId()).orElseThrow().getTitle()).isEqualTo("A");
+    }
+
+    @Test
+    void applyBatch_updateThenDeleteOfOneTodo_reportsEachOpsOwnOutcome() {
+        TodoResponse a = create("A", Priority.LOW, null);
+
+        List<BatchResult> results = service.applyBatch(List.of(
+                op(BatchOperation.Type.UPDATE, a.getId(), "A2", null),
+                op(BatchOperation.Type.DONE, a.getId(), null, true),
+                op(BatchOperation.Type.DELETE, a.getId(), null, null)));
+
+        assertThat(results).extracting(BatchResult::getStatus).containsExactly(200, 200, 204);
+        assertThat(results).extracting(BatchResult::getError).containsOnlyNulls();
+        assertThat(results.get(0).getTodo().getTitle()).isEqualTo("A2");
+        assertThat(results.get(0).getTodo().isDone()).isFalse();
+        assertThat(results.get(1).getTodo().isDone()).isTrue();
+        assertThat(service.getById(a.getId())).isEmpty();
+    }
+
+    @Test
+    void applyBatch_deleteBeatenByAConcurrentDelete_is404() {
+        repo = new InMemoryTodoRepository() {
+            @Override
+            public List<Todo> deleteAllById(Collection<Long> ids) {
+                ids.forEach(this::deleteById); // another writer gets there first
+                return super.deleteAllById(ids);
+            }
+        };
+        service = new TodoServiceImpl(repo);
+        TodoResponse a = create("A", Priority.LOW, null);
+
+        List<BatchResult> results = service.applyBatch(List.of(op(BatchOperation.Type.DELETE, a.getId(), null, null)));
+
+        assertThat(results.get(0).getStatus()).isEqualTo(404);
+        assertThat(results.get(0).getError()).isEqualTo("Todo " + a.getId() + " not found");
+    }
+
+    @Test
+    void writes_arePublishedToTheChangeLog_inOrder() {
+        ChangeLog changes = new ChangeLog(64);
+        service = new TodoServiceImpl(repo, new SimpleMeterRegistry(), new ListQueryCache(100), changes);
+        ChangeLog.Subscription sub = changes.subscribe(null, () -> {});
+        sub.poll(10); // ready
+
+        TodoResponse a = create("A", Priority.LOW, null);
+        service.setDone(a.getId(), true);
+        service.applyBatch(List.of(
+                op(BatchOperation.Type.UPDATE, a.getId(), "A2", null),
+                op(BatchOperation.Type.CREATE, null, "B", null)));
+        service.delete(a.getId());
+
+        assertThat(sub.poll(10).events()).extracting(e -> e.change().getType(), e -> e.change().getId())
+                .containsExactly(
+                        tuple(TodoChange.Type.CREATED, a.getId()),
+                        tuple(TodoChange.Type.DONE, a.getId()),
+                        tuple(TodoChange.Type.CREATED, a.getId() + 1),
+                        tuple(TodoChange.Type.UPDATED, a.getId()),
+                        tuple(TodoChange.Type.DELETED, a.getId()));
+    }
+
+    @Test
+    void overdue_listsOpenTodosPastDue_andRemindersGoOutOnTheChangeLog() {
+        ChangeLog changes = new ChangeLog(64);
+        service = new TodoServiceImpl(repo, new SimpleMeterRegistry(), new ListQueryCache(100), changes,
+                ParallelSorter.disabled(), new DueDateReminders(Duration.ofHours(1), Duration.ofMillis(10)));
+        LocalDateTime now = LocalDateTime.now();
+        TodoResponse late = create("late", Priority.LOW, now.minusDays(2));
+        TodoResponse later = create("later", Priority.LOW, now.minusHours(1));
+        TodoResponse soon = create("soon", Priority.LOW, now.plusMinutes(30));
+        create("someday", Priority.LOW, now.plusDays(3));
+        create("never", Priority.LOW, null);
+        ChangeLog.Subscription sub = changes.subscribe(null, () -> {});
+        sub.poll(10); // ready
+
+        assertThat(service.overdue(10)).extracting(TodoResponse::getId).containsExactly(late.getId(), later.getId());
+        assertThat(sub.poll(10).events()).extracting(e -> e.change().getType(), e -> e.change().getId())
+                .containsExactlyInAnyOrder(
+                        tuple(TodoChange.Type.OVERDUE, late.getId()),
+                        tuple(TodoChange.Type.OVERDUE, later.getId()),
+                        tuple(TodoChange.Type.DUE_SOON, soon.getId()));
+
+        service.setDone(late.getId(), true);
+        TodoRequest moved = new TodoRequest();
+        moved.setTitle("later");
+        moved.setDueDate(now.plusDays(1));
+        service.update(later.getId(), moved);
+        assertThat(service.overdue(10)).isEmpty();
+
+        service.setDone(late.getId(), false);
+        assertThat(service.overdue(10)).extracting(TodoResponse::getId).containsExactly(late.getId());
+        service.delete(late.getId());
+        assertThat(service.overdue(10)).isEmpty();
+    }
+
+    @Test
+    void sync_deliversDeltasAfterTheHighWaterMark_inCappedPages() {
+        SyncResponse initial = service.sync(0, null, 0);
+        assertThat(initial.isReset()).isTrue();
+        assertThat(initial.getChanged()).isEmpty();
+
+        for (int i = 0; i < TodoServiceImpl.MAX_SYNC + 1; i++) create("T" + i, Priority.LOW, null);
+        SyncResponse page = service.sync(initial.getHighWater(), null, Integer.MAX_VALUE);
+        assertThat(page.getChanged()).hasSize(TodoServiceImpl.MAX_SYNC);
+        assertThat(page.isHasMore()).isTrue();
+
+        TodoResponse first = page.getChanged().get(0);
+        service.delete(first.getId());
+        SyncResponse rest = service.sync(page.getHighWater(), null, 10);
+        assertThat(rest.getChanged()).extracting(TodoResponse::getTitle).containsExactly("T" + TodoServiceImpl.MAX_SYNC);
+        assertThat(rest.getDeleted()).containsExactly(first.getId());
+        assertThat(rest.isHasMore()).isFalse();
+    }
+
+    private static BatchOperation op(BatchOperation.Type type, Long id, String title, Boolean done) {
+        BatchOperation op = new BatchOperation();
+        op.setOp(type);
+        op.setId(id);
+        op.setDone(done);
+        if (title != null) {
+            TodoRequest req = new TodoRequest();
+            req.setTitle(title);
+            op.setTodo(req);
+        }
+        return op;
+    }
+
+    @Test
+    void applyBatch_appliesInOrder_andReportsPerItemStatus() {
+        TodoResponse a = create("A", Priority.LOW, null);
+        TodoResponse b = create("B", Priority.LOW, null);
+
+        List<BatchResult> results = service.applyBatch(List.of(
+                op(BatchOperation.Type.CREATE, null, "C", null),
+                op(BatchOperation.Type.UPDATE, a.getId(), "A2", null),
+                op(BatchOperation.Type.DONE, a.getId(), null, true),
+                op(BatchOperation.Type.DELETE, b.getId(), null, null),
+                op(BatchOperation.Type.DONE, b.getId(), null, true),
+                op(BatchOperation.Type.DELETE, 424242L, null, null)));
+
+        assertThat(results).extracting(BatchResult::getStatus).containsExactly(201, 200, 200, 204, 404, 404);
+        assertThat(results.get(0).getTodo().getId()).isNotNull();
+        assertThat(results.get(2).getTodo().getTitle()).isEqualTo("A2");
+        assertThat(results.get(2).getTodo().isDone()).isTrue();
+
+        assertThat(repo.count()).isEqualTo(2);
+        assertThat(service.getById(b.getId())).isEmpty();
+        assertThat(service.list(0, 10, "CREATION_DATE", "asc", "a2", null, true).getContent())
+                .extracting(TodoResponse::getId).containsExactly(a.getId());
+    }
 }
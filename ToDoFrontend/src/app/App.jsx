@@ -17,7 +17,7 @@ export default function App() {
 
   const { page, pageSize, totalPages, items, filters, sorting, isLoading, error,
          setPage, setPageSize, setFilters, setSorting,
-         createTodo, updateTodo, toggleDone, removeTodo, allItems } = useTodos();
+         createTodo, updateTodo, toggleDone, removeTodo, metrics } = useTodos();
 
 return (
   <div className="App">
@@ -66,7 +66,7 @@ return (
       onChange={setPage}
     />
 
-    <TodoMetrics data={allItems} />
+    <TodoMetrics metrics={metrics} />
   </div>
 );
 
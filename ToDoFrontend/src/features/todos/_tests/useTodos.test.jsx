@@ -1,25 +1,27 @@
 // Path: src/features/todos/__tests__/useTodos.test.jsx
 import React from 'react';
 import { renderHook, act } from '@testing-library/react';
-import { useTodos } from '../hooks/useTodos';
+import { useTodos, METRICS_DEBOUNCE_MS } from '../hooks/useTodos';
 
 // Mock the API client functions used by the hook
 jest.mock('../api/client.js', () => ({
   listTodos: jest.fn(),
-  listAll: jest.fn(),
+  getCompletionMetrics: jest.fn(),
   createTodo: jest.fn(),
   updateTodo: jest.fn(),
   toggleDone: jest.fn(),
   deleteTodo: jest.fn(),
+  subscribeChanges: jest.fn(() => () => {}),
 }));
 
 import {
   listTodos,
-  listAll,
+  getCompletionMetrics,
   createTodo,
   updateTodo,
   toggleDone,
   deleteTodo,
+  subscribeChanges,
 } from '../api/client.js';
 
 function makePage(content, totalPages = 1) {
@@ -34,7 +36,7 @@ describe('useTodos hook', () => {
 
   test('optimistic create success & rollback on failure', async () => {
     listTodos.mockResolvedValue(makePage([], 1));
-    listAll.mockResolvedValue([]);
+    getCompletionMetrics.mockResolvedValue({ averageMillis: 0, averageMillisByPriority: {} });
 
     const { result } = renderHook(() => useTodos());
     await act(async () => {});
@@ -66,7 +68,7 @@ describe('useTodos hook', () => {
       .mockResolvedValueOnce(makePage([{ id: 2, title: 'P2 only' }], 2)) // when setPage(2)
       .mockResolvedValueOnce(makePage([{ id: 1, title: 'P1 data' }], 1)); // after step-back
 
-    listAll.mockResolvedValue([]);
+    getCompletionMetrics.mockResolvedValue({ averageMillis: 0, averageMillisByPriority: {} });
 
     const { result } = renderHook(() => useTodos());
     await act(async () => {});
@@ -84,4 +86,39 @@ describe('useTodos hook', () => {
     // Hook should step back to page 1; a refetch will run via effect
     expect(result.current.page).toBe(1);
   });
+
+  test('keeps one change subscription across query changes and coalesces metrics refetches', async () => {
+    jest.useFakeTimers();
+    try {
+      listTodos.mockResolvedValue(makePage([{ id: 1, title: 'A', version: 1 }], 3));
+      getCompletionMetrics.mockResolvedValue({ averageMillis: 0, averageMillisByPriority: {} });
+      let handlers;
+      subscribeChanges.mockImplementation(h => { handlers = h; return () => {}; });
+
+      const { result } = renderHook(() => useTodos());
+      await act(async () => {});
+      await act(async () => { result.current.setPage(2); });
+      await act(async () => { result.current.setSorting({ by: 'priority', dir: 'asc' }); });
+      expect(subscribeChanges).toHaveBeenCalledTimes(1);
+
+      getCompletionMetrics.mockClear();
+      act(() => {
+        handlers.onChange({ type: 'UPDATED', id: 1, todo: { id: 1, title: 'A2', version: 2 } });
+      });
+      await act(async () => { jest.advanceTimersByTime(METRICS_DEBOUNCE_MS); });
+      expect(getCompletionMetrics).not.toHaveBeenCalled();
+
+      act(() => {
+        handlers.onChange({ type: 'DONE', id: 1, todo: { id: 1, title: 'A2', version: 3, done: true } });
+        handlers.onChange({ type: 'DELETED', id: 9 });
+        handlers.onChange({ type: 'CREATED', id: 10, todo: { id: 10, title: 'B', version: 1 } });
+      });
+      expect(getCompletionMetrics).not.toHaveBeenCalled();
+      await act(async () => { jest.advanceTimersByTime(METRICS_DEBOUNCE_MS); });
+      expect(getCompletionMetrics).toHaveBeenCalledTimes(1);
+      expect(result.current.items).toEqual([{ id: 1, title: 'A2', version: 3, done: true }]);
+    } finally {
+      jest.useRealTimers();
+    }
+  });
 });
@@ -49,9 +49,10 @@ export async function listTodos({
   return data;
 }
 
-export async function listAll(max = 2000) {
-  const { content } = await listTodos({ page: 1, size: max, sortBy: 'createdAt', sortDir: 'desc' });
-  return content;
+// Average time-to-done overall and per priority, computed server-side from running totals
+export async function getCompletionMetrics() {
+  const { data } = await api.get('/metrics');
+  return data;
 }
 
 export async function createTodo(payload) {
@@ -72,3 +73,24 @@ export async function toggleDone(id, done) {
 export async function deleteTodo(id) {
   await api.delete(`/${id}`);
 }
+
+// Several create/update/done/delete operations in one round trip.
+// ops: [{ op: 'CREATE', todo }, { op: 'UPDATE', id, todo }, { op: 'DONE', id, done }, { op: 'DELETE', id }]
+// Resolves to one { index, status, todo, error } per op.
+export async function applyBatch(ops) {
+  const { data } = await api.post('/batch', ops.map(o => (
+    o.todo ? { ...o, todo: o.op === 'CREATE' ? toCreateDto(o.todo) : toUpdateDto(o.todo) } : o
+  )));
+  return data;
+}
+
+// Live change feed (server-sent events). onChange gets { type, id, todo } for every write;
+// onReset means events were missed and the caller should refetch. EventSource reconnects
+// on its own and resumes after the last event it saw. Returns an unsubscribe function.
+export function subscribeChanges({ onChange, onReset }) {
+  if (typeof EventSource === 'undefined') return () => {};
+  const source = new EventSource(`${base()}/todos/changes`);
+  source.addEventListener('todo', e => onChange?.(JSON.parse(e.data)));
+  source.addEventListener('reset', () => onReset?.());
+  return () => source.close();
+}
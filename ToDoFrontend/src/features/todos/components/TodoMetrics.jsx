@@ -1,10 +1,4 @@
-import React, { useMemo } from 'react';
-
-function msBetween(a, b) {
-  const t1 = new Date(a).getTime();
-  const t2 = new Date(b).getTime();
-  return t2 - t1; // milliseconds
-}
+import React from 'react';
 
 function formatDuration(ms) {
   if (!Number.isFinite(ms) || ms <= 0) return '0s';
@@ -34,33 +28,10 @@ function formatDuration(ms) {
   return `${s}s`;
 }
 
-export default function TodoMetrics({ data }) {
-  const { avgAll, avgBy } = useMemo(() => {
-    let totalMs = 0, count = 0;
-    const bucket = {
-      LOW: { s: 0, c: 0 },
-      MEDIUM: { s: 0, c: 0 },
-      HIGH: { s: 0, c: 0 },
-      CRITICAL: { s: 0, c: 0 }
-    };
-
-    for (const t of data || []) {
-      if (t.doneDate && t.createdAt) {
-        const dms = msBetween(t.createdAt, t.doneDate);
-        if (Number.isFinite(dms) && dms > 0) {
-          totalMs += dms; count++;
-          if (bucket[t.priority]) { bucket[t.priority].s += dms; bucket[t.priority].c++; }
-        }
-      }
-    }
-
-    const avgAll = count ? totalMs / count : 0;
-    const avgBy = Object.fromEntries(
-      Object.entries(bucket).map(([k, v]) => [k, v.c ? v.s / v.c : 0])
-    );
-
-    return { avgAll, avgBy };
-  }, [data]);
+export default function TodoMetrics({ metrics }) {
+  // Averages come precomputed from GET /api/todos/metrics
+  const avgAll = metrics?.averageMillis ?? 0;
+  const avgBy = metrics?.averageMillisByPriority || {};
 
   return (
     <div className="average-time-container">
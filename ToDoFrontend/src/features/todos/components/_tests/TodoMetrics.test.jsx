@@ -2,21 +2,21 @@ import React, { act } from 'react';
 import { render, screen } from '@testing-library/react';
 import TodoMetrics from '../TodoMetrics';
 
-function mk(createdAt, doneDate, priority = 'MEDIUM') {
-  return { id: Math.random(), title: 't', createdAt, doneDate, priority, done: !!doneDate };
-}
-
-test('renders aggregated metrics with formatted durations', async () => {
-  const base = new Date('2025-10-15T00:00:00Z');
-  const data = [
-    mk(base.toISOString(), new Date(base.getTime() + 30 * 1000).toISOString(), 'LOW'),        // 30s
-    mk(base.toISOString(), new Date(base.getTime() + 3 * 60 * 1000).toISOString(), 'HIGH'),   // 3m
-    mk(base.toISOString(), new Date(base.getTime() + 26 * 60 * 60 * 1000).toISOString(), 'MEDIUM'),  // 1d 2h
-  ];
+test('renders server metrics with formatted durations', async () => {
+  const metrics = {
+    averageMillis: 9 * 60 * 60 * 1000,                         // 9h
+    completedCount: 3,
+    averageMillisByPriority: {
+      LOW: 30 * 1000,                                          // 30s
+      MEDIUM: 26 * 60 * 60 * 1000,                             // 1d 2h
+      HIGH: 3 * 60 * 1000,                                     // 3m
+      CRITICAL: 0
+    }
+  };
 
   // Wrap render in React.act to avoid the deprecated TestUtils.act warning
   await act(async () => {
-    render(<TodoMetrics data={data} />);
+    render(<TodoMetrics metrics={metrics} />);
   });
 
   // Disambiguate labels by using exact text (with the colon)
@@ -28,4 +28,5 @@ test('renders aggregated metrics with formatted durations', async () => {
   expect(screen.getByText(/30s/)).toBeInTheDocument();
   expect(screen.getByText(/3m/)).toBeInTheDocument();
   expect(screen.getByText(/1d 2h/)).toBeInTheDocument();
+  expect(screen.getByText('9h')).toBeInTheDocument();
 });
@@ -1,14 +1,20 @@
-import { useCallback, useEffect, useMemo, useState } from 'react';
+import { useCallback, useEffect, useMemo, useRef, useState } from 'react';
 import {
   listTodos,
-  listAll,
+  getCompletionMetrics,
   createTodo as apiCreate,
   updateTodo as apiUpdate,
   toggleDone as apiToggle,
-  deleteTodo as apiDelete
+  deleteTodo as apiDelete,
+  subscribeChanges
 } from '../api/client.js';
 import { SortBy } from '../types/types.js';
 
+// Change types that move the completion totals (DONE is also sent when a todo is reopened)
+const METRIC_CHANGES = new Set(['CREATED', 'DONE', 'DELETED']);
+// A burst of changes refetches the totals once, at most this often
+export const METRICS_DEBOUNCE_MS = 500;
+
 export function useTodos() {
   const [page, setPage] = useState(1);
   
@@ -19,7 +25,7 @@ export function useTodos() {
   const [sorting, setSorting] = useState({ by: SortBy.CREATED_AT, dir: 'desc' });
 
   const [items, setItems] = useState([]);
-  const [allItems, setAllItems] = useState([]);
+  const [metrics, setMetrics] = useState(null);
   const [isLoading, setLoading] = useState(false);
   const [error, setError] = useState(null);
 
@@ -68,15 +74,55 @@ export function useTodos() {
   }, [page, pageSize, sorting, normalized]);
 
 
-  const fetchAll = useCallback(async () => {
+  // Server keeps running completion totals, so this is a constant-size request
+  const fetchMetrics = useCallback(async () => {
     try {
-      const data = await listAll();
-      setAllItems(Array.isArray(data) ? data : []);
+      setMetrics(await getCompletionMetrics());
     } catch {/* ignore */}
   }, []);
 
   useEffect(() => { fetchPage(); }, [fetchPage]);
-  useEffect(() => { fetchAll(); }, [fetchAll, page, pageSize, sorting, normalized]); // optional
+  useEffect(() => { fetchMetrics(); }, [fetchMetrics]);
+
+  const metricsTimer = useRef(null);
+  const scheduleMetrics = useCallback(() => {
+    if (metricsTimer.current) return;
+    metricsTimer.current = setTimeout(() => {
+      metricsTimer.current = null;
+      fetchMetrics();
+    }, METRICS_DEBOUNCE_MS);
+  }, [fetchMetrics]);
+
+  // The change subscription outlives query changes, so it reads the current query from here
+  const query = useRef(null);
+  query.current = { page, pageSize, sorting, normalized, fetchPage };
+
+  // Apply writes from other tabs/clients as they happen. Events can overtake each other across
+  // concurrent writers, so a row is only replaced by a newer version of itself.
+  useEffect(() => {
+    const unsubscribe = subscribeChanges({
+      onChange: ({ type, id, todo }) => {
+        const { page, pageSize, sorting, normalized } = query.current;
+        if (type === 'DELETED') {
+          setItems(prev => prev.filter(x => x.id !== id));
+        } else if (type === 'CREATED') {
+          const unfiltered = !normalized.text && !normalized.priority && normalized.done === undefined;
+          if (page === 1 && unfiltered && sorting.by === SortBy.CREATED_AT && sorting.dir === 'desc') {
+            setItems(prev => prev.some(x => x.id === id) ? prev : [todo, ...prev].slice(0, pageSize));
+          }
+        } else {
+          setItems(prev => replaceById(prev, id, x => (x.version ?? 0) < todo.version ? todo : x));
+        }
+        if (METRIC_CHANGES.has(type)) scheduleMetrics();
+      },
+      onReset: () => { query.current.fetchPage(); scheduleMetrics(); }
+    });
+    return () => {
+      unsubscribe();
+      clearTimeout(metricsTimer.current);
+      metricsTimer.current = null;
+    };
+  }, [scheduleMetrics]);
 
 
   // Insert new optimistic row respecting current sort (for createdAt sorting common case)
@@ -90,18 +136,6 @@ export function useTodos() {
     return list.map(x => x.id === id ? mapper(x) : x);
   }
 
-  function upsertAllItems(newOrUpdated) {
-    setAllItems(prev => {
-      const idx = prev.findIndex(x => x.id === newOrUpdated.id);
-      if (idx >= 0) {
-        const clone = prev.slice();
-        clone[idx] = newOrUpdated;
-        return clone;
-      }
-      return [newOrUpdated, ...prev];
-    });
-  }
-
   // -------------- CRUD (optimistic) --------------
 
   const createTodo = async (payload) => {
@@ -118,20 +152,17 @@ export function useTodos() {
       dueDate: payload.dueDate || null,
     };
 
-    // Optimistic add (page & metrics)
+    // Optimistic add
     setItems(prev => insertOptimisticRow(prev, optimistic));
-    setAllItems(prev => [optimistic, ...prev]);
 
     try {
       const saved = await apiCreate(payload);
-      // Swap temp with real in both stores
+      // Swap temp with real
       setItems(prev => prev.map(x => x.id === tempId ? saved : x));
-      setAllItems(prev => prev.map(x => x.id === tempId ? saved : x));
-      // fetchPage(); fetchAll();
+      // fetchPage();
     } catch (e) {
       // Rollback
       setItems(prev => prev.filter(x => x.id !== tempId));
-      setAllItems(prev => prev.filter(x => x.id !== tempId));
       throw e;
     }
   };
@@ -139,61 +170,53 @@ export function useTodos() {
   const updateTodo = async (id, patch) => {
     // Snapshot for rollback
     const snapshotItems = items;
-    const snapshotAll = allItems;
 
     // Optimistic merge
     const nowIso = new Date().toISOString();
     setItems(prev => replaceById(prev, id, x => ({ ...x, ...patch, updatedAt: nowIso })));
-    setAllItems(prev => replaceById(prev, id, x => ({ ...x, ...patch, updatedAt: nowIso })));
 
     try {
       const saved = await apiUpdate(id, patch);
       setItems(prev => replaceById(prev, id, () => saved));
-      setAllItems(prev => replaceById(prev, id, () => saved));
-      // Optional: fetchPage(); fetchAll();
+      fetchMetrics(); // priority change can move a done todo between buckets
+      // Optional: fetchPage();
     } catch (e) {
       // Roll back to snapshot
       setItems(snapshotItems);
-      setAllItems(snapshotAll);
       throw e;
     }
   };
 
   const toggleDone = async (id, done) => {
     const snapshotItems = items;
-    const snapshotAll = allItems;
 
     // Optimistic toggle
     const doneDate = done ? new Date().toISOString() : null;
     const updatedAt = new Date().toISOString();
     setItems(prev => replaceById(prev, id, x => ({ ...x, done, doneDate, updatedAt })));
-    setAllItems(prev => replaceById(prev, id, x => ({ ...x, done, doneDate, updatedAt })));
 
     try {
       const saved = await apiToggle(id, done);
       setItems(prev => replaceById(prev, id, () => saved));
-      setAllItems(prev => replaceById(prev, id, () => saved));
-      
+      fetchMetrics();
     } catch (e) {
       setItems(snapshotItems);
-      setAllItems(snapshotAll);
       throw e;
     }
   };
 
   const removeTodo = async (id) => {
     const snapshotItems = items;
-    const snapshotAll = allItems;
 
     // Will the current page become empty after this optimistic removal?
     const wasLastItemOnPage = items.length === 1;
 
     // Optimistic remove
     setItems(prev => prev.filter(x => x.id !== id));
-    setAllItems(prev => prev.filter(x => x.id !== id));
 
     try {
       await apiDelete(id);
+      fetchMetrics();
 
       // If it was the last item on this page and we have previous pages,
       // step back one page; fetchPage will run via effect.
@@ -203,7 +226,6 @@ export function useTodos() {
     } catch (e) {
       // Rollback
       setItems(snapshotItems);
-      setAllItems(snapshotAll);
       throw e;
     }
   };
@@ -212,7 +234,7 @@ export function useTodos() {
   // Expose the same API the App already uses
   return {
     page, pageSize, totalPages,
-    items, allItems,
+    items, metrics,
     filters, sorting,
     isLoading, error,
     setPageSize, setPage, setFilters, setSorting,